@@ -0,0 +1,301 @@
+package io.betelgeuse.ethereum.pwg;
+
+import org.bouncycastle.crypto.digests.KeccakDigest;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Checksum address encoding and validation as per <a
+ * href="https://github.com/ethereum/EIPs/blob/master/EIPS/eip-55.md">EIP-55</a>.
+ *
+ * <p>An instance owns its Keccak digest and scratch buffers, so encoding and validating an
+ * address allocates nothing per character. Instances are not thread-safe, use {@link
+ * #forCurrentThread()} to share one per thread.
+ */
+public class AddressChecksum {
+
+    /** Outcome of validating a single address. */
+    public enum Status {
+        /** The mixed case address matches its checksum. */
+        VALID,
+        /** All letters have the same case, the address carries no checksum. */
+        NO_CHECKSUM,
+        /** The mixed case address does not match its checksum. */
+        INVALID_CHECKSUM,
+        /** Not 40 hex digits with an optional 0x prefix. */
+        INVALID_FORMAT
+    }
+
+    public static final int MAX_REPORTED_FAILURES = 100;
+
+    private static final int ADDRESS_LENGTH = Keys.ADDRESS_LENGTH_IN_HEX;
+    private static final char[] HEX_LOWER = "0123456789abcdef".toCharArray();
+    private static final char[] HEX_UPPER = "0123456789ABCDEF".toCharArray();
+
+    private static final ThreadLocal<AddressChecksum> PER_THREAD =
+            ThreadLocal.withInitial(AddressChecksum::new);
+
+    private final KeccakDigest keccak = new KeccakDigest(256);
+    private final byte[] ascii = new byte[ADDRESS_LENGTH];
+    private final byte[] hash = new byte[32];
+    private final char[] chars = new char[ADDRESS_LENGTH + 2];
+
+    /** Instance shared by all callers on the current thread. */
+    public static AddressChecksum forCurrentThread() {
+        return PER_THREAD.get();
+    }
+
+    /**
+     * Encodes a binary address.
+     *
+     * @param address the 20 byte address
+     * @return 0x prefixed checksum address
+     */
+    public String encode(byte[] address) {
+        encode(address, 0, chars, 0);
+        return new String(chars);
+    }
+
+    /**
+     * Writes the 0x prefixed checksum address of {@code address[offset..offset+20)} to {@code
+     * out[outOffset..outOffset+42)}.
+     */
+    public void encode(byte[] address, int offset, char[] out, int outOffset) {
+        if (address.length - offset < Keys.ADDRESS_SIZE_IN_BYTES) {
+            throw new IllegalArgumentException("Address must have 20 bytes");
+        }
+
+        for (int i = 0; i < Keys.ADDRESS_SIZE_IN_BYTES; i++) {
+            int b = address[offset + i];
+            ascii[2 * i] = (byte) HEX_LOWER[(b >> 4) & 0xf];
+            ascii[2 * i + 1] = (byte) HEX_LOWER[b & 0xf];
+        }
+
+        hashAscii();
+
+        out[outOffset] = '0';
+        out[outOffset + 1] = 'x';
+
+        for (int i = 0; i < ADDRESS_LENGTH; i++) {
+            int nibble = (ascii[i] <= '9' ? ascii[i] - '0' : ascii[i] - 'a' + 10);
+            out[outOffset + 2 + i] = hashNibble(i) >= 8 ? HEX_UPPER[nibble] : HEX_LOWER[nibble];
+        }
+    }
+
+    /**
+     * Encodes a hex address.
+     *
+     * @param address 40 hex digits with an optional 0x prefix, in any case
+     * @return 0x prefixed checksum address
+     * @throws IllegalArgumentException if the address is not well formed
+     */
+    public String encode(CharSequence address) {
+        int start = prefixLength(address, 0, address.length());
+
+        if (!toAscii(address, start, address.length())) {
+            throw new IllegalArgumentException("Invalid address: " + address);
+        }
+
+        hashAscii();
+
+        chars[0] = '0';
+        chars[1] = 'x';
+
+        for (int i = 0; i < ADDRESS_LENGTH; i++) {
+            byte c = ascii[i];
+            chars[2 + i] = (char) (c >= 'a' && hashNibble(i) >= 8 ? c - 32 : c);
+        }
+
+        return new String(chars);
+    }
+
+    public boolean isValid(CharSequence address) {
+        return check(address) == Status.VALID;
+    }
+
+    public Status check(CharSequence address) {
+        return check(address, 0, address.length());
+    }
+
+    /** Validates the address in {@code address[start..end)}. */
+    public Status check(CharSequence address, int start, int end) {
+        start += prefixLength(address, start, end);
+
+        if (!toAscii(address, start, end)) {
+            return Status.INVALID_FORMAT;
+        }
+
+        hashAscii();
+
+        boolean lower = false;
+        boolean upper = false;
+        boolean matches = true;
+
+        for (int i = 0; i < ADDRESS_LENGTH; i++) {
+            char c = address.charAt(start + i);
+
+            if (c >= 'a') {
+                lower = true;
+                matches &= hashNibble(i) < 8;
+            } else if (c >= 'A') {
+                upper = true;
+                matches &= hashNibble(i) >= 8;
+            }
+        }
+
+        if (matches) {
+            return Status.VALID;
+        }
+
+        return lower && upper ? Status.INVALID_CHECKSUM : Status.NO_CHECKSUM;
+    }
+
+    /**
+     * Validates a file with one address per line. Leading and trailing whitespace is ignored,
+     * blank lines are skipped.
+     *
+     * @param file the address file
+     * @return counts per {@link Status} and the first {@link #MAX_REPORTED_FAILURES} failures
+     * @throws IOException if the file cannot be read
+     */
+    public Report validateFile(Path file) throws IOException {
+        Report report = new Report();
+        long start = System.nanoTime();
+
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            long lineNumber = 0;
+
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+
+                int from = 0;
+                int to = line.length();
+
+                while (from < to && Character.isWhitespace(line.charAt(from))) {
+                    from++;
+                }
+                while (to > from && Character.isWhitespace(line.charAt(to - 1))) {
+                    to--;
+                }
+
+                if (from == to) {
+                    continue;
+                }
+
+                Status status = check(line, from, to);
+                report.add(status, lineNumber, line, from, to);
+            }
+        }
+
+        report.elapsedNanos = System.nanoTime() - start;
+        return report;
+    }
+
+    private static int prefixLength(CharSequence address, int start, int end) {
+        if (end - start >= 2
+                && address.charAt(start) == '0'
+                && (address.charAt(start + 1) == 'x' || address.charAt(start + 1) == 'X')) {
+            return 2;
+        }
+
+        return 0;
+    }
+
+    // lower cases address[start..end) into the ascii buffer, false if it is not a hex address
+    private boolean toAscii(CharSequence address, int start, int end) {
+        if (end - start != ADDRESS_LENGTH) {
+            return false;
+        }
+
+        for (int i = 0; i < ADDRESS_LENGTH; i++) {
+            char c = address.charAt(start + i);
+
+            if (c >= 'A' && c <= 'F') {
+                c += 32;
+            } else if (!((c >= '0' && c <= '9') || (c >= 'a' && c <= 'f'))) {
+                return false;
+            }
+
+            ascii[i] = (byte) c;
+        }
+
+        return true;
+    }
+
+    private void hashAscii() {
+        keccak.update(ascii, 0, ADDRESS_LENGTH);
+        keccak.doFinal(hash, 0);
+    }
+
+    private int hashNibble(int i) {
+        int b = hash[i >> 1];
+        return (i & 1) == 0 ? (b >> 4) & 0xf : b & 0xf;
+    }
+
+    /** Result of validating an address file. */
+    public static class Report {
+        private final long[] counts = new long[Status.values().length];
+        private final List<String> failures = new ArrayList<>();
+        private long elapsedNanos;
+
+        private Report() {}
+
+        private void add(Status status, long lineNumber, String line, int from, int to) {
+            counts[status.ordinal()]++;
+
+            if (status != Status.VALID && failures.size() < MAX_REPORTED_FAILURES) {
+                failures.add(
+                        String.format(
+                                "line %d: %s %s", lineNumber, status, line.substring(from, to)));
+            }
+        }
+
+        public long getCount(Status status) {
+            return counts[status.ordinal()];
+        }
+
+        public long getTotal() {
+            long total = 0;
+
+            for (long count : counts) {
+                total += count;
+            }
+
+            return total;
+        }
+
+        /** True if any address is malformed or does not match its checksum. */
+        public boolean hasErrors() {
+            return getCount(Status.INVALID_FORMAT) > 0 || getCount(Status.INVALID_CHECKSUM) > 0;
+        }
+
+        /** Line number, status and address of the first failed addresses. */
+        public List<String> getFailures() {
+            return Collections.unmodifiableList(failures);
+        }
+
+        public double getSeconds() {
+            return elapsedNanos / 1e9;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(
+                    "%d addresses checked in %.2f s: %d valid, %d without checksum, %d invalid checksum, %d invalid format",
+                    getTotal(),
+                    getSeconds(),
+                    getCount(Status.VALID),
+                    getCount(Status.NO_CHECKSUM),
+                    getCount(Status.INVALID_CHECKSUM),
+                    getCount(Status.INVALID_FORMAT));
+        }
+    }
+}
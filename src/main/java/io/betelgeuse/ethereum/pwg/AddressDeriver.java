@@ -0,0 +1,250 @@
+package io.betelgeuse.ethereum.pwg;
+
+import org.bouncycastle.math.ec.ECPoint;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Derives the addresses of the non-hardened children of an extended public key, for example the
+ * deposit addresses below the account {@code xpub} of {@link HdKeyChain#getAccountPublicKey()}.
+ * No private key is involved.
+ *
+ * <p>Children are derived in chunks of {@link #CHUNK_SIZE} indexes on all cores. A chunk keys
+ * the HMAC with the parent chain code once, adds the tweak of each child to the parent point and
+ * brings all points of the chunk to affine coordinates with a single field inversion before
+ * hashing them to addresses. Chunks are written in index order as {@code index,address} lines
+ * while later chunks are still derived, only a fixed window of chunks is held in memory.
+ *
+ * <p>An index BIP-32 declares invalid, which is astronomically unlikely, has no address and is
+ * left out of the output.
+ */
+public class AddressDeriver {
+
+    public static final String OUTPUT_HEADER = "index,address";
+    public static final int CHUNK_SIZE = 256;
+    public static final int WINDOW_PER_THREAD = 4;
+
+    // child numbers from 2^31 on are hardened
+    private static final long INDEX_LIMIT = 1L << 31;
+
+    private final Bip32PublicKey parent;
+    private final int threads;
+
+    public AddressDeriver(Bip32PublicKey parent) {
+        this(parent, Runtime.getRuntime().availableProcessors());
+    }
+
+    public AddressDeriver(Bip32PublicKey parent, int threads) {
+        if (threads <= 0) {
+            throw new IllegalArgumentException("Threads must be positive, threads=" + threads);
+        }
+
+        this.parent = parent;
+        this.threads = threads;
+    }
+
+    /**
+     * Derives the checksum addresses of children {@code first} to {@code first + count - 1} on
+     * the calling thread.
+     */
+    public List<String> derive(int first, int count) {
+        checkRange(first, count);
+
+        List<String> addresses = new ArrayList<>(count);
+
+        for (long start = first; start < (long) first + count; start += CHUNK_SIZE) {
+            int size = (int) Math.min(CHUNK_SIZE, (long) first + count - start);
+            Chunk chunk = deriveChunk((int) start, size);
+
+            for (int j = 0; j < chunk.size; j++) {
+                addresses.add(chunk.addresses[j]);
+            }
+        }
+
+        return addresses;
+    }
+
+    /**
+     * Writes the addresses of children {@code first} to {@code first + count - 1} to {@code
+     * output}.
+     *
+     * @return the number of addresses and the throughput
+     * @throws IllegalArgumentException if the range leaves the non-hardened child numbers
+     * @throws IOException if the output cannot be written
+     */
+    public Summary derive(int first, int count, Path output) throws IOException {
+        checkRange(first, count);
+
+        long start = System.nanoTime();
+        long addresses = 0;
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        Deque<CompletableFuture<Chunk>> window = new ArrayDeque<>();
+        int windowSize = WINDOW_PER_THREAD * threads;
+
+        try (BufferedWriter writer = Files.newBufferedWriter(output, StandardCharsets.UTF_8)) {
+            writer.write(OUTPUT_HEADER);
+            writer.newLine();
+
+            for (long chunk = first; chunk < (long) first + count; chunk += CHUNK_SIZE) {
+                int chunkStart = (int) chunk;
+                int chunkSize = (int) Math.min(CHUNK_SIZE, (long) first + count - chunk);
+                window.addLast(
+                        CompletableFuture.supplyAsync(
+                                () -> deriveChunk(chunkStart, chunkSize), pool));
+
+                // the oldest chunk is written before the window grows any further
+                if (window.size() >= windowSize) {
+                    addresses += write(writer, window.removeFirst());
+                }
+            }
+
+            while (!window.isEmpty()) {
+                addresses += write(writer, window.removeFirst());
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        return new Summary(addresses, first, count, System.nanoTime() - start);
+    }
+
+    // addresses of children start to start + size - 1
+    private Chunk deriveChunk(int start, int size) {
+        HmacSha512 mac = new HmacSha512(parent.getChainCode());
+        byte[] key = parent.getCompressedPublicKey();
+        ECPoint parentPoint = parent.getPublicPoint();
+
+        ECPoint[] points = new ECPoint[size];
+        int[] indexes = new int[size];
+        int valid = 0;
+
+        for (int j = 0; j < size; j++) {
+            int index = start + j;
+
+            try {
+                byte[] i = Bip32PublicKey.childHmac(mac, key, index);
+                points[valid] = Bip32PublicKey.childPoint(parentPoint, i, index);
+                indexes[valid] = index;
+                valid++;
+            } catch (IllegalArgumentException e) {
+                // no key at this index, BIP-32 continues with the next one
+            }
+        }
+
+        Sign.CURVE.getCurve().normalizeAll(points, 0, valid, null);
+
+        String[] addresses = new String[valid];
+        AddressChecksum checksum = AddressChecksum.forCurrentThread();
+
+        for (int j = 0; j < valid; j++) {
+            addresses[j] = checksum.encode(Keys.getAddressBytes(points[j]));
+        }
+
+        return new Chunk(indexes, addresses);
+    }
+
+    private static long write(BufferedWriter writer, CompletableFuture<Chunk> derived)
+            throws IOException {
+        Chunk chunk;
+
+        try {
+            chunk = derived.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            throw cause instanceof RuntimeException
+                    ? (RuntimeException) cause
+                    : new IllegalStateException("Derivation failed", cause);
+        }
+
+        for (int j = 0; j < chunk.size; j++) {
+            writer.write(Integer.toString(chunk.indexes[j]));
+            writer.write(',');
+            writer.write(chunk.addresses[j]);
+            writer.newLine();
+        }
+
+        return chunk.size;
+    }
+
+    private static void checkRange(int first, int count) {
+        if (first < 0 || count < 0 || (long) first + count > INDEX_LIMIT) {
+            throw new IllegalArgumentException(
+                    String.format(
+                            "Children %d to %d are not all non-hardened",
+                            first, (long) first + count - 1));
+        }
+    }
+
+    // the valid children of a chunk, indexes and addresses in index order
+    private static final class Chunk {
+        private final int[] indexes;
+        private final String[] addresses;
+        private final int size;
+
+        private Chunk(int[] indexes, String[] addresses) {
+            this.indexes = indexes;
+            this.addresses = addresses;
+            this.size = addresses.length;
+        }
+    }
+
+    /** Outcome of a derivation run. */
+    public static class Summary {
+        private final long addresses;
+        private final int first;
+        private final int count;
+        private final long elapsedNanos;
+
+        private Summary(long addresses, int first, int count, long elapsedNanos) {
+            this.addresses = addresses;
+            this.first = first;
+            this.count = count;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        /** Number of addresses written, {@link #getCount()} less invalid indexes. */
+        public long getAddresses() {
+            return addresses;
+        }
+
+        public int getFirst() {
+            return first;
+        }
+
+        public int getCount() {
+            return count;
+        }
+
+        public double getSeconds() {
+            return elapsedNanos / 1e9;
+        }
+
+        public double getAddressesPerMinute() {
+            return addresses * 60 / getSeconds();
+        }
+
+        @Override
+        public String toString() {
+            return String.format(
+                    "%d addresses derived for indexes %d to %d in %.2f s (%.0f addresses/min)",
+                    addresses,
+                    first,
+                    (long) first + count - 1,
+                    getSeconds(),
+                    getAddressesPerMinute());
+        }
+    }
+}
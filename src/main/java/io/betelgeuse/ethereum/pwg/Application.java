@@ -3,9 +3,15 @@ package io.betelgeuse.ethereum.pwg;
 import java.io.File;
 import java.math.BigDecimal;
 import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.security.Security;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Scanner;
 
+import io.betelgeuse.ethereum.transaction.Transaction1559;
+
 /**
  * -p '...' -w  "e:\DCIM\100HPAIO\3.json" -t 0x988E3CA5Ed4E0d3eEeF189f37A994b5947Df22BF -a 150 -n 2
  * https://badmofo.github.io/ethsend/
@@ -23,6 +29,21 @@ public class Application {
     public static final String SWITCH_GAS_LIMIT = "-l";
 	public static final String SWITCH_MAX_TIPS = "-i";
 	public static final String SWITCH_MAX_FEE = "-f";
+	public static final String SWITCH_COUNT = "-c";
+	public static final String SWITCH_COUNT_LONG = "--count";
+	public static final String SWITCH_CHECK_ADDRESSES = "--check-addresses";
+	public static final String SWITCH_VERIFY_TRANSACTIONS = "--verify-transactions";
+	public static final String SWITCH_FROM = "--from";
+	public static final String SWITCH_SIGN_BATCH = "--sign-batch";
+	public static final String SWITCH_OUT = "--out";
+	public static final String SWITCH_SIGN_REQUESTS = "--sign-requests";
+	public static final String SWITCH_TOKEN = "--token";
+	public static final String SWITCH_DECIMALS = "--decimals";
+	public static final String SWITCH_FEE_LADDER = "--fee-ladder";
+	public static final String SWITCH_FEE_STEP = "--fee-step";
+	public static final String SWITCH_EXPORT_XPUB = "--export-xpub";
+	public static final String SWITCH_DERIVE_ADDRESSES = "--derive-addresses";
+	public static final String SWITCH_FIRST = "--first";
     public static final String SWITCH_HELP = "-h";
 
 	public static final String ARGUMENTS_ERROR = "ARGUMENTS ERROR";
@@ -32,6 +53,32 @@ public class Application {
 	
 	public static final String VERIFY_OK = "WALLET VERIFICATION OK";
 	public static final String VERIFY_ERROR = "WALLET VERIFICATION ERROR";
+
+	public static final String ADDRESSES_OK = "ADDRESS CHECK OK";
+	public static final String ADDRESSES_ERROR = "ADDRESS CHECK ERROR";
+
+	public static final String TRANSACTIONS_OK = "TRANSACTION VERIFICATION OK";
+	public static final String TRANSACTIONS_ERROR = "TRANSACTION VERIFICATION ERROR";
+
+	public static final String SIGN_BATCH_OK = "BATCH SIGNING OK";
+	public static final String SIGN_BATCH_ERROR = "BATCH SIGNING ERROR";
+
+	public static final String SIGN_REQUESTS_OK = "REQUEST SIGNING OK";
+	public static final String SIGN_REQUESTS_ERROR = "REQUEST SIGNING ERROR";
+
+	public static final String FEE_LADDER_OK = "FEE LADDER OK";
+	public static final String FEE_LADDER_ERROR = "FEE LADDER ERROR";
+
+	public static final String XPUB_OK = "XPUB EXPORT OK";
+	public static final String XPUB_ERROR = "XPUB EXPORT ERROR";
+
+	public static final String DERIVE_OK = "ADDRESS DERIVATION OK";
+	public static final String DERIVE_ERROR = "ADDRESS DERIVATION ERROR";
+
+	public static final int DERIVE_COUNT_DEFAULT = 1000;
+	public static final String DERIVE_OUTPUT_DEFAULT = "addresses.csv";
+
+	public static final String FEE_LADDER_HEADER = "max_priority_fee_gwei,max_fee_gwei,transaction,hash";
 	
 	public static final String EXT_HTML = "html";
 	public static final String EXT_PNG = "png";
@@ -69,6 +116,48 @@ public class Application {
 	// max overall fee (Gwei) - eg 200 Gwei
 	private String maxFee = "200";
 
+	// number of wallets to create in batch mode
+	private Integer count = null;
+
+	// file with one recipient address per line to check against EIP-55
+	private String addressFile = null;
+
+	// file with one signed raw transaction per line to verify
+	private String transactionFile = null;
+
+	// expected sender of the transactions to verify
+	private String from = null;
+
+	// file with one payout (to,amount) per line to sign (need to specify wallet file)
+	private String payoutFile = null;
+
+	// file with one unsigned transaction request (JSON) per line to sign (need to specify wallet file)
+	private String requestFile = null;
+
+	// ERC-20 token contract for the payouts, ether payouts if not set
+	private String token = null;
+
+	// decimals of the ERC-20 token
+	private int decimals = BulkSigner.ETHER_DECIMALS;
+
+	// highest max tips (Gwei) of the fee ladder for the offline transaction
+	private String feeLadder = null;
+
+	// step (Gwei) between the levels of the fee ladder
+	private String feeStep = "1";
+
+	// export the account xpub of a mnemonic read from the console
+	private boolean exportXpub = false;
+
+	// account xpub to derive watch-only addresses from
+	private String xpub = null;
+
+	// first child index of the derived addresses
+	private int first = 0;
+
+	// output file for the signed payouts, requests, fee ladder or derived addresses
+	private String outputFile = null;
+
 	public static void main(String[] args) {
 		Application app = new Application();
 		app.run(args);
@@ -119,6 +208,62 @@ public class Application {
 					maxFee = args[i];
 					i++;
 					break;
+				case SWITCH_COUNT:
+				case SWITCH_COUNT_LONG:
+					count = Integer.valueOf(args[i]);
+					i++;
+					break;
+				case SWITCH_CHECK_ADDRESSES:
+					addressFile = args[i];
+					i++;
+					break;
+				case SWITCH_VERIFY_TRANSACTIONS:
+					transactionFile = args[i];
+					i++;
+					break;
+				case SWITCH_FROM:
+					from = args[i];
+					i++;
+					break;
+				case SWITCH_SIGN_BATCH:
+					payoutFile = args[i];
+					i++;
+					break;
+				case SWITCH_SIGN_REQUESTS:
+					requestFile = args[i];
+					i++;
+					break;
+				case SWITCH_TOKEN:
+					token = args[i];
+					i++;
+					break;
+				case SWITCH_DECIMALS:
+					decimals = Integer.parseInt(args[i]);
+					i++;
+					break;
+				case SWITCH_FEE_LADDER:
+					feeLadder = args[i];
+					i++;
+					break;
+				case SWITCH_FEE_STEP:
+					feeStep = args[i];
+					i++;
+					break;
+				case SWITCH_EXPORT_XPUB:
+					exportXpub = true;
+					break;
+				case SWITCH_DERIVE_ADDRESSES:
+					xpub = args[i];
+					i++;
+					break;
+				case SWITCH_FIRST:
+					first = Integer.parseInt(args[i]);
+					i++;
+					break;
+				case SWITCH_OUT:
+					outputFile = args[i];
+					i++;
+					break;
                 case SWITCH_GAS_LIMIT:
                     gasLimit = new BigInteger(args[i]);
                     i++;
@@ -141,19 +286,46 @@ public class Application {
 
         Security.addProvider(new org.bouncycastle.jce.provider.BouncyCastleProvider());
 
+        if(addressFile != null) {
+			return checkAddresses();
+		}
+
+		if(exportXpub) {
+			return exportXpub();
+		}
+
+		if(xpub != null) {
+			return deriveAddresses();
+		}
+
+		if(transactionFile != null) {
+			return verifyTransactions();
+		}
+
         if(walletFile != null) {
-            if(targetAddress != null || verify) {
+            if(payoutFile != null) {
+                return signPayouts();
+            }
+            else if(requestFile != null) {
+                return signRequests();
+            }
+            else if(targetAddress != null || verify) {
                 if(verify) {
                     return verifyWalletFile();
                 }
+                else if(feeLadder != null) {
+                    return createFeeLadder();
+                }
                 else {
                     return createOfflineTx();
                 }
             }
             else {
-                System.err.println("Invalid arguments: for a specified wallet you need to specify -v or -t");
+                System.err.println("Invalid arguments: for a specified wallet you need to specify -v, -t, --sign-batch or --sign-requests");
             }
-        }else if(passPhrase != null) {
+        }else if(count != null) {
+			return createWalletFiles();
+		}else if(passPhrase != null) {
 			return createWalletFile();
 		}
 
@@ -199,14 +371,15 @@ public class Application {
 			log("Max prio fee [Wei]: " + maxPriorityFeePerGas);
 			log("Max fee [Wei]:      " + maxFeePerGas);
 
-			String txData = pw.createOfflineTx(targetAddress,
+			SignedTransaction tx = pw.signOfflineTx(targetAddress,
 					gasLimit,
 					amountWei,
 					BigInteger.valueOf(nonce),
 					maxPriorityFeePerGas,
 					maxFeePerGas);
-			String curlCmd = String.format("Transaction body: %s", txData);
+			String curlCmd = String.format("Transaction body: %s", tx.getEncodedHex());
 
+			log("Transaction hash:   " + tx.getTransactionHashHex());
 			log(curlCmd);
 
 			return curlCmd;
@@ -218,6 +391,190 @@ public class Application {
 		return null;
 	}
 
+	public String createFeeLadder() {
+		readPassPhrase();
+
+		List<FeeLadder.Variant> variants;
+
+		try {
+			PaperWallet pw = new PaperWallet(passPhrase, new File(walletFile));
+			BigInteger amountWei = Convert.toWei(amount.toPlainString(), Convert.Unit.ETHER).toBigInteger();
+
+			List<FeeLadder.Level> levels = FeeLadder.levels(
+					Convert.toWei(maxTips, Convert.Unit.GWEI).toBigInteger(),
+					Convert.toWei(maxFee, Convert.Unit.GWEI).toBigInteger(),
+					Convert.toWei(feeLadder, Convert.Unit.GWEI).toBigInteger(),
+					Convert.toWei(feeStep, Convert.Unit.GWEI).toBigInteger());
+
+			log("Target address:     " + targetAddress);
+			log("Amount [Ether]:     " + amount);
+			log("Nonce:              " + nonce);
+			log("Gas limit [Wei]:    " + gasLimit);
+			log("Fee levels:         " + levels.size());
+
+			Transaction1559 transaction = Transaction1559.createEtherTransaction(ChainIdLong.MAINNET,
+					BigInteger.valueOf(nonce),
+					gasLimit,
+					targetAddress,
+					amountWei,
+					levels.get(0).getMaxPriorityFeePerGas(),
+					levels.get(0).getMaxFeePerGas());
+
+			variants = new FeeLadder(pw.getCredentials()).sign(transaction, levels);
+		}
+		catch(Exception e) {
+			return String.format("%s %s", FEE_LADDER_ERROR, e.getLocalizedMessage());
+		}
+
+		List<String> table = new ArrayList<>(variants.size() + 1);
+		table.add(FEE_LADDER_HEADER);
+
+		for(FeeLadder.Variant variant: variants) {
+			table.add(String.format("%s,%s,%s,%s",
+					Convert.fromWei(new BigDecimal(variant.getLevel().getMaxPriorityFeePerGas()), Convert.Unit.GWEI).toPlainString(),
+					Convert.fromWei(new BigDecimal(variant.getLevel().getMaxFeePerGas()), Convert.Unit.GWEI).toPlainString(),
+					variant.getTransaction().getEncodedHex(),
+					variant.getTransaction().getTransactionHashHex()));
+		}
+
+		table.forEach(this::log);
+
+		if(outputFile != null) {
+			try {
+				Files.write(new File(outputFile).toPath(), table, StandardCharsets.UTF_8);
+			}
+			catch(Exception e) {
+				return String.format("%s %s", FEE_LADDER_ERROR, e.getLocalizedMessage());
+			}
+
+			log(String.format("Fee ladder: %s", outputFile));
+		}
+
+		return String.format("%s %d variants", FEE_LADDER_OK, variants.size());
+	}
+
+	public String signPayouts() {
+		readPassPhrase();
+
+		String output = outputFile != null ? outputFile : payoutFile + ".signed.csv";
+		BulkSigner.Summary summary;
+
+		try {
+			PaperWallet pw = new PaperWallet(passPhrase, new File(walletFile));
+			BigInteger maxPriorityFeePerGas = Convert.toWei(maxTips, Convert.Unit.GWEI).toBigInteger();
+			BigInteger maxFeePerGas = Convert.toWei(maxFee, Convert.Unit.GWEI).toBigInteger();
+
+			log(String.format("Signing payouts in %s ...", payoutFile));
+			if(token != null) {
+				log("Token:              " + token);
+				log("Token decimals:     " + decimals);
+			}
+			log("First nonce:        " + nonce);
+			log("Gas limit [Wei]:    " + gasLimit);
+			log("Max prio fee [Wei]: " + maxPriorityFeePerGas);
+			log("Max fee [Wei]:      " + maxFeePerGas);
+
+			BulkSigner signer = new BulkSigner(pw.getCredentials(),
+					ChainIdLong.MAINNET,
+					gasLimit,
+					maxPriorityFeePerGas,
+					maxFeePerGas,
+					Runtime.getRuntime().availableProcessors(),
+					token,
+					decimals);
+
+			summary = signer.sign(new File(payoutFile).toPath(), new File(output).toPath(), BigInteger.valueOf(nonce));
+		}
+		catch(Exception e) {
+			return String.format("%s %s", SIGN_BATCH_ERROR, e.getLocalizedMessage());
+		}
+
+		log(summary.toString());
+		log(String.format("Signed transactions: %s", output));
+
+		return String.format("%s %s", SIGN_BATCH_OK, summary);
+	}
+
+	public String signRequests() {
+		readPassPhrase();
+
+		String output = outputFile != null ? outputFile : requestFile + ".signed.csv";
+		TransactionPipeline.Report report;
+
+		try {
+			PaperWallet pw = new PaperWallet(passPhrase, new File(walletFile));
+
+			log(String.format("Signing transaction requests in %s ...", requestFile));
+			report = new TransactionPipeline(pw.getCredentials()).sign(new File(requestFile).toPath(), new File(output).toPath());
+		}
+		catch(Exception e) {
+			return String.format("%s %s", SIGN_REQUESTS_ERROR, e.getLocalizedMessage());
+		}
+
+		for(String failure: report.getFailures()) {
+			log(failure);
+		}
+
+		for(TransactionPipeline.StageStatistics stage: report.getStages()) {
+			log(stage.toString());
+		}
+
+		log(report.toString());
+		log(String.format("Signed transactions: %s", output));
+
+		if(report.getFailed() > 0) {
+			return String.format("%s %s", SIGN_REQUESTS_ERROR, report);
+		}
+
+		return String.format("%s %s", SIGN_REQUESTS_OK, report);
+	}
+
+	public String exportXpub() {
+		String xpub;
+
+		try {
+			// the mnemonic is not taken from the command line, it would end up in the shell history
+			Scanner scanner = new Scanner(System.in);
+			System.out.print("Mnemonic: ");
+			String mnemonic = scanner.nextLine().trim();
+			scanner.close();
+
+			if(!MnemonicUtils.validateMnemonic(mnemonic)) {
+				return String.format("%s %s", XPUB_ERROR, "Invalid mnemonic");
+			}
+
+			xpub = HdKeyChain.fromMnemonic(mnemonic, passPhrase != null ? passPhrase : "").getAccountPublicKey().toXpub();
+		}
+		catch(Exception e) {
+			return String.format("%s %s", XPUB_ERROR, e.getLocalizedMessage());
+		}
+
+		log(String.format("Account xpub (%s): %s", HdKeyChain.ETHEREUM_ACCOUNT_PATH, xpub));
+
+		return String.format("%s %s", XPUB_OK, xpub);
+	}
+
+	public String deriveAddresses() {
+		int addresses = count != null ? count : DERIVE_COUNT_DEFAULT;
+		String output = outputFile != null ? outputFile : new File(targetDirectory, DERIVE_OUTPUT_DEFAULT).getPath();
+		AddressDeriver.Summary summary;
+
+		try {
+			Bip32PublicKey parent = Bip32PublicKey.fromXpub(xpub);
+
+			log(String.format("Deriving %d addresses from index %d ...", addresses, first));
+			summary = new AddressDeriver(parent).derive(first, addresses, new File(output).toPath());
+		}
+		catch(Exception e) {
+			return String.format("%s %s", DERIVE_ERROR, e.getLocalizedMessage());
+		}
+
+		log(summary.toString());
+		log(String.format("Addresses: %s", output));
+
+		return String.format("%s %s", DERIVE_OK, summary);
+	}
+
 	private void readPassPhrase() {
 		if(passPhrase == null) {
 			Scanner scanner = new Scanner(System.in);
@@ -243,6 +600,92 @@ public class Application {
 		log(String.format("Wallet pass phrase: %s", pw.getPassPhrase()));
 		log(String.format("Wallet file location: %s", pw.getFile().getAbsolutePath()));
 
+		log("Writing additional output files ...");
+		String [] files = writeAdditionalFiles(pw);
+		log(String.format("Html wallet: %s", files[0]));
+		log(String.format("Address qr code: %s", files[1]));
+		
+		return String.format("%s %s", CREATE_OK, pw.getFile().getAbsolutePath());
+	}
+
+	public String createWalletFiles() {
+		BatchWalletGenerator generator = new BatchWalletGenerator(passPhrase, targetDirectory,
+				BatchWalletGenerator.getMemoryBudgetDefault(), this::writeAdditionalFiles);
+		BatchWalletGenerator.Summary summary;
+
+		log(String.format("Creating %d wallets ...", count));
+
+		try {
+			summary = generator.generate(count);
+		}
+		catch(Exception e) {
+			return String.format("%s %s", CRATE_ERROR, e.getLocalizedMessage());
+		}
+
+		for(Throwable failure: summary.getFailures()) {
+			log(String.format("Wallet creation failed: %s", failure.getLocalizedMessage()));
+		}
+
+		log(summary.toString());
+
+		if(summary.getFiles().isEmpty()) {
+			return String.format("%s %s", CRATE_ERROR, summary);
+		}
+
+		return String.format("%s %s", CREATE_OK, summary);
+	}
+
+	public String checkAddresses() {
+		AddressChecksum.Report report;
+
+		log(String.format("Checking addresses in %s ...", addressFile));
+
+		try {
+			report = AddressChecksum.forCurrentThread().validateFile(new File(addressFile).toPath());
+		}
+		catch(Exception e) {
+			return String.format("%s %s", ADDRESSES_ERROR, e.getLocalizedMessage());
+		}
+
+		for(String failure: report.getFailures()) {
+			log(failure);
+		}
+
+		log(report.toString());
+
+		if(report.hasErrors()) {
+			return String.format("%s %s", ADDRESSES_ERROR, report);
+		}
+
+		return String.format("%s %s", ADDRESSES_OK, report);
+	}
+
+	public String verifyTransactions() {
+		TransactionBatchVerifier.Report report;
+
+		log(String.format("Verifying transactions in %s ...", transactionFile));
+
+		try {
+			report = new TransactionBatchVerifier().verifyFile(new File(transactionFile).toPath(), from);
+		}
+		catch(Exception e) {
+			return String.format("%s %s", TRANSACTIONS_ERROR, e.getLocalizedMessage());
+		}
+
+		for(String failure: report.getFailures()) {
+			log(failure);
+		}
+
+		log(report.toString());
+
+		if(report.getFailed() > 0) {
+			return String.format("%s %s", TRANSACTIONS_ERROR, report);
+		}
+
+		return String.format("%s %s", TRANSACTIONS_OK, report);
+	}
+
+	private String [] writeAdditionalFiles(PaperWallet pw) {
 		String html = WalletPageUtility.createHtml(pw);
 		byte [] qrCode = QrCodeUtility.contentToPngBytes(pw.getAddress(), 256);
 
@@ -251,13 +694,10 @@ public class Application {
 		String htmlFile = String.format("%s%s%s.%s", path, File.separator, baseName, EXT_HTML);
 		String pngFile = String.format("%s%s%s.%s", path, File.separator, baseName, EXT_PNG);
 
-		log("Writing additional output files ...");
 		FileUtility.saveToFile(html, htmlFile);
 		FileUtility.saveToFile(qrCode, pngFile);
-		log(String.format("Html wallet: %s", htmlFile));
-		log(String.format("Address qr code: %s", pngFile));
-		
-		return String.format("%s %s", CREATE_OK, pw.getFile().getAbsolutePath());
+
+		return new String [] { htmlFile, pngFile };
 	}
 
 	private void printHelp() {
@@ -273,6 +713,14 @@ public class Application {
         System.out.print("[-l limit]");
 		System.out.print("[-i max tips]");
 		System.out.print("[-f max fee]");
+		System.out.print("[-c count]");
+		System.out.print("[--check-addresses file]");
+		System.out.print("[--verify-transactions file [--from address]]");
+		System.out.print("[--fee-ladder max tips [--fee-step step] [--out file]]");
+		System.out.print("[--sign-batch file [--token address [--decimals n]] [--out file]]");
+		System.out.print("[--sign-requests file [--out file]]");
+		System.out.print("[--export-xpub]");
+		System.out.print("[--derive-addresses xpub [-c count] [--first index] [--out file]]");
         System.out.println("[-h]");
         System.out.println();
 
@@ -288,6 +736,20 @@ public class Application {
         System.out.println("  -l              Gas limit for offline transaction");
 		System.out.println("  -i              Max tips to miners (priority fee) - check https://www.blocknative.com/gas-estimator");
 		System.out.println("  -f              Max overall fee - check https://www.blocknative.com/gas-estimator");
+		System.out.println("  -c, --count     Number of wallets to create in batch mode (pass phrase per wallet if -p is omitted)");
+		System.out.println("  --check-addresses  File with one recipient address per line to check against the EIP-55 checksum");
+		System.out.println("  --verify-transactions  File with one signed raw transaction per line (optionally followed by ,sender) to verify");
+		System.out.println("  --from          Expected sender for --verify-transactions");
+		System.out.println("  --fee-ladder    Sign the offline transaction for every max tips from -i up to this value (Gwei), raising the max fee (-f) alike");
+		System.out.println("  --fee-step      Step (Gwei) between the --fee-ladder levels, defaults to 1");
+		System.out.println("  --sign-batch    File with one payout (to,amount or JSON) per line to sign with sequential nonces starting at -n (need to specify wallet file)");
+		System.out.println("  --token         ERC-20 token contract for --sign-batch, amounts are then in tokens instead of ethers");
+		System.out.println("  --decimals      Decimals of the --token contract, defaults to 18");
+		System.out.println("  --sign-requests File with one unsigned transaction request (JSON) per line to sign (need to specify wallet file)");
+		System.out.println("  --export-xpub   Read a mnemonic from the console and print the xpub of its accounts m/44'/60'/0'/0 (-p as BIP-39 pass phrase)");
+		System.out.println("  --derive-addresses  Derive -c addresses (default 1000) from this account xpub, without any private key");
+		System.out.println("  --first         First child index for --derive-addresses, defaults to 0");
+		System.out.println("  --out           Output file for --sign-batch and --sign-requests (default: input file with .signed.csv appended), --fee-ladder or --derive-addresses (default: addresses.csv in -d)");
         System.out.println("  -h              Show help");
 
     }
@@ -0,0 +1,146 @@
+package io.betelgeuse.ethereum.pwg;
+
+import java.util.Arrays;
+
+/**
+ * Base58 and Base58Check encoding of Bitcoin, as used by BIP-32 extended keys.
+ *
+ * <p>Base58Check appends the first 4 bytes of the double SHA-256 of the data as checksum before
+ * encoding.
+ */
+public final class Base58 {
+
+    private static final char[] ALPHABET =
+            "123456789ABCDEFGHJKLMNPQRSTUVWXYZabcdefghijkmnopqrstuvwxyz".toCharArray();
+    private static final int[] INDEXES = new int[128];
+    private static final int CHECKSUM_LENGTH = 4;
+
+    static {
+        Arrays.fill(INDEXES, -1);
+        for (int i = 0; i < ALPHABET.length; i++) {
+            INDEXES[ALPHABET[i]] = i;
+        }
+    }
+
+    private Base58() {}
+
+    public static String encode(byte[] input) {
+        if (input.length == 0) {
+            return "";
+        }
+
+        int zeros = 0;
+        while (zeros < input.length && input[zeros] == 0) {
+            zeros++;
+        }
+
+        // base 256 to base 58 by repeated division of a copy of the input
+        byte[] number = input.clone();
+        char[] encoded = new char[input.length * 2];
+        int out = encoded.length;
+
+        for (int start = zeros; start < number.length; ) {
+            encoded[--out] = ALPHABET[divmod(number, start, 256, 58)];
+            if (number[start] == 0) {
+                start++;
+            }
+        }
+
+        // leading zero bytes are kept as leading ones, surplus zero digits are dropped
+        while (out < encoded.length && encoded[out] == ALPHABET[0]) {
+            out++;
+        }
+        while (--zeros >= 0) {
+            encoded[--out] = ALPHABET[0];
+        }
+
+        return new String(encoded, out, encoded.length - out);
+    }
+
+    /** @throws IllegalArgumentException if the input contains a character outside the alphabet */
+    public static byte[] decode(String input) {
+        if (input.isEmpty()) {
+            return new byte[0];
+        }
+
+        byte[] number = new byte[input.length()];
+
+        for (int i = 0; i < input.length(); i++) {
+            char c = input.charAt(i);
+            int digit = c < 128 ? INDEXES[c] : -1;
+
+            if (digit < 0) {
+                throw new IllegalArgumentException("Invalid Base58 character '" + c + "'");
+            }
+            number[i] = (byte) digit;
+        }
+
+        int zeros = 0;
+        while (zeros < number.length && number[zeros] == 0) {
+            zeros++;
+        }
+
+        byte[] decoded = new byte[input.length()];
+        int out = decoded.length;
+
+        for (int start = zeros; start < number.length; ) {
+            decoded[--out] = (byte) divmod(number, start, 58, 256);
+            if (number[start] == 0) {
+                start++;
+            }
+        }
+
+        while (out < decoded.length && decoded[out] == 0) {
+            out++;
+        }
+
+        return Arrays.copyOfRange(decoded, out - zeros, decoded.length);
+    }
+
+    /** Base58 of the data followed by its checksum. */
+    public static String encodeChecked(byte[] data) {
+        byte[] checked = Arrays.copyOf(data, data.length + CHECKSUM_LENGTH);
+        System.arraycopy(checksum(data), 0, checked, data.length, CHECKSUM_LENGTH);
+        return encode(checked);
+    }
+
+    /**
+     * The data of a Base58Check string, without its checksum.
+     *
+     * @throws IllegalArgumentException if the string is not Base58 or the checksum does not match
+     */
+    public static byte[] decodeChecked(String input) {
+        byte[] decoded = decode(input);
+
+        if (decoded.length < CHECKSUM_LENGTH) {
+            throw new IllegalArgumentException("Base58Check string too short");
+        }
+
+        byte[] data = Arrays.copyOf(decoded, decoded.length - CHECKSUM_LENGTH);
+        byte[] checksum = Arrays.copyOfRange(decoded, data.length, decoded.length);
+
+        if (!Arrays.equals(checksum, checksum(data))) {
+            throw new IllegalArgumentException("Invalid Base58Check checksum");
+        }
+
+        return data;
+    }
+
+    private static byte[] checksum(byte[] data) {
+        return Arrays.copyOf(Hash.sha256(Hash.sha256(data)), CHECKSUM_LENGTH);
+    }
+
+    // divides number[start..] in base from by divisor in place, returns the remainder
+    private static int divmod(byte[] number, int start, int base, int divisor) {
+        int remainder = 0;
+
+        for (int i = start; i < number.length; i++) {
+            int digit = number[i] & 0xff;
+            int temp = remainder * base + digit;
+            number[i] = (byte) (temp / divisor);
+            remainder = temp % divisor;
+        }
+
+        return remainder;
+    }
+}
@@ -0,0 +1,203 @@
+package io.betelgeuse.ethereum.pwg;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.function.Consumer;
+
+import static io.betelgeuse.ethereum.pwg.Hash.sha256;
+
+/**
+ * Creates a batch of paper wallets within a single JVM run.
+ *
+ * <p>Every wallet passes through three stages, each one backed by its own worker pool:
+ * <ol>
+ *     <li>derive: entropy, BIP-39 mnemonic, seed and key pair (CPU bound)</li>
+ *     <li>encrypt: scrypt key derivation and json wallet file (CPU and memory bound)</li>
+ *     <li>output: html and png files (I/O bound)</li>
+ * </ol>
+ * The encrypt pool is sized to the number of cores and to the number of concurrent scrypt runs
+ * that fit into the memory budget. The number of wallets in flight is bounded, so a slow stage
+ * throttles the earlier ones instead of piling up key material on the heap.
+ */
+public class BatchWalletGenerator {
+
+	public static final int OUTPUT_THREADS = 2;
+
+	private static PassPhraseUtility passPhraseUtility = new PassPhraseUtility();
+
+	private final String passPhrase;
+	private final String pathToFile;
+	private final long memoryBudget;
+	private final Consumer<PaperWallet> outputWriter;
+
+	/**
+	 * @param passPhrase pass phrase for all wallets, a random pass phrase per wallet if empty
+	 * @param pathToFile target directory for the wallet files
+	 * @param memoryBudget max number of bytes used by concurrent scrypt runs
+	 * @param outputWriter writes the additional output files of a created wallet
+	 */
+	public BatchWalletGenerator(String passPhrase, String pathToFile, long memoryBudget, Consumer<PaperWallet> outputWriter) {
+		this.passPhrase = passPhrase;
+		this.pathToFile = pathToFile == null || pathToFile.isEmpty() ? PaperWallet.getPathToFileDefault() : pathToFile;
+		this.memoryBudget = memoryBudget;
+		this.outputWriter = outputWriter;
+	}
+
+	public static long getMemoryBudgetDefault() {
+		return ScryptMemoryPool.getDefault().getCapacity();
+	}
+
+	public static int getEncryptThreads(int cores, long memoryBudget) {
+		long perWallet = Wallet.lightScryptMemory();
+		long fitting = Math.max(1, memoryBudget / perWallet);
+
+		return (int) Math.min(cores, fitting);
+	}
+
+	public Summary generate(int count) throws InterruptedException {
+		if(count <= 0) {
+			throw new IllegalArgumentException("Number of wallets must be positive, count=" + count);
+		}
+
+		int cores = Runtime.getRuntime().availableProcessors();
+		int encryptThreads = getEncryptThreads(cores, memoryBudget);
+
+		ExecutorService derivePool = Executors.newFixedThreadPool(cores);
+		ExecutorService encryptPool = Executors.newFixedThreadPool(encryptThreads);
+		ExecutorService outputPool = Executors.newFixedThreadPool(OUTPUT_THREADS);
+
+		// enough to keep every stage busy, small enough to keep memory flat for large batches
+		Semaphore inFlight = new Semaphore(2 * (cores + encryptThreads + OUTPUT_THREADS));
+		CountDownLatch done = new CountDownLatch(count);
+		List<String> files = Collections.synchronizedList(new ArrayList<>());
+		List<Throwable> failures = Collections.synchronizedList(new ArrayList<>());
+
+		long start = System.nanoTime();
+
+		// consecutive wallets reuse the scrypt memory of the previous ones, released after the batch
+		ScryptMemoryPool.Retention retention = ScryptMemoryPool.getDefault().retain();
+
+		try {
+			for(int i = 0; i < count; i++) {
+				inFlight.acquire();
+
+				CompletableFuture.supplyAsync(this::derive, derivePool)
+						.thenApplyAsync(this::encrypt, encryptPool)
+						.thenApplyAsync(this::output, outputPool)
+						.whenComplete((wallet, e) -> {
+							if(e != null) {
+								failures.add(e instanceof CompletionException && e.getCause() != null ? e.getCause() : e);
+							}
+							else {
+								files.add(wallet.getFile().getAbsolutePath());
+							}
+
+							inFlight.release();
+							done.countDown();
+						});
+			}
+
+			done.await();
+		}
+		finally {
+			retention.close();
+			derivePool.shutdown();
+			encryptPool.shutdown();
+			outputPool.shutdown();
+		}
+
+		return new Summary(files, failures, encryptThreads, System.nanoTime() - start);
+	}
+
+	private Derived derive() {
+		String walletPassPhrase = passPhrase == null || passPhrase.isEmpty()
+				? passPhraseUtility.getPassPhrase(PaperWallet.PHRASE_SIZE_DEFAULT)
+				: passPhrase;
+
+		byte[] initialEntropy = new byte[16];
+		WalletUtils.secureRandom().nextBytes(initialEntropy);
+
+		String mnemonic = MnemonicUtils.generateMnemonic(initialEntropy);
+		byte[] seed = MnemonicUtils.generateSeed(mnemonic, walletPassPhrase);
+
+		return new Derived(walletPassPhrase, mnemonic, ECKeyPair.create(sha256(seed)));
+	}
+
+	private PaperWallet encrypt(Derived derived) {
+		try {
+			String fileName = WalletUtils.generateWalletFile(derived.passPhrase, derived.keyPair, new File(pathToFile), false);
+			Bip39Wallet wallet = new Bip39Wallet(fileName, derived.mnemonic);
+
+			return new PaperWallet(derived.passPhrase, pathToFile, wallet, Credentials.create(derived.keyPair));
+		}
+		catch(Exception e) {
+			throw new CompletionException("Failed to create account", e);
+		}
+	}
+
+	private PaperWallet output(PaperWallet wallet) {
+		outputWriter.accept(wallet);
+		return wallet;
+	}
+
+	private static class Derived {
+		private final String passPhrase;
+		private final String mnemonic;
+		private final ECKeyPair keyPair;
+
+		private Derived(String passPhrase, String mnemonic, ECKeyPair keyPair) {
+			this.passPhrase = passPhrase;
+			this.mnemonic = mnemonic;
+			this.keyPair = keyPair;
+		}
+	}
+
+	/** Outcome of a batch run. */
+	public static class Summary {
+		private final List<String> files;
+		private final List<Throwable> failures;
+		private final int encryptThreads;
+		private final long elapsedNanos;
+
+		private Summary(List<String> files, List<Throwable> failures, int encryptThreads, long elapsedNanos) {
+			this.files = files;
+			this.failures = failures;
+			this.encryptThreads = encryptThreads;
+			this.elapsedNanos = elapsedNanos;
+		}
+
+		public List<String> getFiles() {
+			return files;
+		}
+
+		public List<Throwable> getFailures() {
+			return failures;
+		}
+
+		public int getEncryptThreads() {
+			return encryptThreads;
+		}
+
+		public double getSeconds() {
+			return elapsedNanos / 1e9;
+		}
+
+		public double getWalletsPerSecond() {
+			return files.size() / getSeconds();
+		}
+
+		@Override
+		public String toString() {
+			return String.format("%d wallets created, %d failed in %.2f s (%.2f wallets/s, %d encrypt threads)",
+					files.size(), failures.size(), getSeconds(), getWalletsPerSecond(), encryptThreads);
+		}
+	}
+}
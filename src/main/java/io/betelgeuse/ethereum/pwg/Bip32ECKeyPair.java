@@ -0,0 +1,231 @@
+package io.betelgeuse.ethereum.pwg;
+
+import org.bouncycastle.crypto.digests.RIPEMD160Digest;
+import org.bouncycastle.crypto.digests.SHA512Digest;
+import org.bouncycastle.crypto.macs.HMac;
+import org.bouncycastle.crypto.params.KeyParameter;
+import org.bouncycastle.math.ec.ECPoint;
+
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * BIP-32 extended private key: a key pair with its chain code and its place in the tree.
+ *
+ * @see <a href="https://github.com/bitcoin/bips/blob/master/bip-0032.mediawiki">Hierarchical
+ *     Deterministic Wallets</a>
+ */
+public class Bip32ECKeyPair extends ECKeyPair {
+
+    /** Bit of hardened child numbers, {@code i'} is {@code i | HARDENED_BIT}. */
+    public static final int HARDENED_BIT = 0x80000000;
+
+    private static final byte[] MASTER_KEY = "Bitcoin seed".getBytes(UTF_8);
+
+    private final ECPoint publicPoint;
+    private final byte[] chainCode;
+    private final int depth;
+    private final int childNumber;
+    private final int parentFingerprint;
+    private volatile byte[] identifier;
+
+    private Bip32ECKeyPair(
+            BigInteger privateKey,
+            ECPoint publicPoint,
+            byte[] chainCode,
+            int depth,
+            int childNumber,
+            int parentFingerprint) {
+        super(privateKey, Sign.publicFromPoint(publicPoint.getEncoded(false)));
+        this.publicPoint = publicPoint;
+        this.chainCode = chainCode;
+        this.depth = depth;
+        this.childNumber = childNumber;
+        this.parentFingerprint = parentFingerprint;
+    }
+
+    /**
+     * The master key of a seed, for example a BIP-39 seed from {@link
+     * MnemonicUtils#generateSeed}.
+     *
+     * @throws IllegalArgumentException if the seed does not give a valid key, which is
+     *     astronomically unlikely
+     */
+    public static Bip32ECKeyPair generateKeyPair(byte[] seed) {
+        byte[] i = hmacSha512(MASTER_KEY, seed);
+        BigInteger privateKey = new BigInteger(1, Arrays.copyOfRange(i, 0, 32));
+
+        if (privateKey.signum() == 0 || privateKey.compareTo(Sign.CURVE.getN()) >= 0) {
+            throw new IllegalArgumentException("Seed gives an invalid master key");
+        }
+
+        return new Bip32ECKeyPair(
+                privateKey,
+                Sign.publicPointFromPrivate(privateKey),
+                Arrays.copyOfRange(i, 32, 64),
+                0,
+                0,
+                0);
+    }
+
+    /**
+     * Derives the key at {@code path} below {@code parent}, one child step per element.
+     *
+     * @param path child numbers, hardened ones with {@link #HARDENED_BIT} set
+     */
+    public static Bip32ECKeyPair deriveKeyPair(Bip32ECKeyPair parent, int[] path) {
+        Bip32ECKeyPair key = parent;
+
+        for (int childNumber : path) {
+            key = key.deriveChildKey(childNumber);
+        }
+
+        return key;
+    }
+
+    /**
+     * Parses a path like {@code m/44'/60'/0'/0/5}, hardened steps marked with {@code '} or {@code
+     * H}.
+     *
+     * @throws IllegalArgumentException if the path is malformed
+     */
+    public static int[] parsePath(String path) {
+        String[] parts = path.trim().split("/");
+
+        if (!parts[0].equals("m")) {
+            throw new IllegalArgumentException("Path must start with m: " + path);
+        }
+
+        int[] result = new int[parts.length - 1];
+
+        for (int i = 1; i < parts.length; i++) {
+            String part = parts[i];
+            boolean hardened = part.endsWith("'") || part.endsWith("H") || part.endsWith("h");
+            String number = hardened ? part.substring(0, part.length() - 1) : part;
+
+            try {
+                int index = Integer.parseInt(number);
+                if (index < 0) {
+                    throw new NumberFormatException();
+                }
+                result[i - 1] = hardened ? index | HARDENED_BIT : index;
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid path element '" + part + "': " + path);
+            }
+        }
+
+        return result;
+    }
+
+    public static boolean isHardened(int childNumber) {
+        return (childNumber & HARDENED_BIT) != 0;
+    }
+
+    /**
+     * Derives child {@code childNumber}, CKDpriv of BIP-32.
+     *
+     * @throws IllegalArgumentException for the child numbers BIP-32 declares invalid, which are
+     *     astronomically unlikely; the caller should continue with the next child number
+     */
+    public Bip32ECKeyPair deriveChildKey(int childNumber) {
+        ByteBuffer data = ByteBuffer.allocate(37);
+
+        if (isHardened(childNumber)) {
+            data.put((byte) 0).put(Numeric.toBytesPadded(getPrivateKey(), 32));
+        } else {
+            data.put(getCompressedPublicKey());
+        }
+        data.putInt(childNumber);
+
+        byte[] i = hmacSha512(chainCode, data.array());
+        BigInteger tweak = new BigInteger(1, Arrays.copyOfRange(i, 0, 32));
+        BigInteger n = Sign.CURVE.getN();
+        BigInteger privateKey = tweak.add(getPrivateKey()).mod(n);
+
+        if (tweak.compareTo(n) >= 0 || privateKey.signum() == 0) {
+            throw new IllegalArgumentException("Invalid child " + childNumber);
+        }
+
+        return new Bip32ECKeyPair(
+                privateKey,
+                Sign.publicPointFromPrivate(privateKey),
+                Arrays.copyOfRange(i, 32, 64),
+                depth + 1,
+                childNumber,
+                getFingerprint());
+    }
+
+    /** The watch-only extended public key of this key, its {@code xpub}. */
+    public Bip32PublicKey getExtendedPublicKey() {
+        return new Bip32PublicKey(publicPoint, chainCode, depth, childNumber, parentFingerprint);
+    }
+
+    public ECPoint getPublicPoint() {
+        return publicPoint;
+    }
+
+    /** The public key in the 33 byte compressed encoding. */
+    public byte[] getCompressedPublicKey() {
+        return publicPoint.getEncoded(true);
+    }
+
+    public byte[] getChainCode() {
+        return chainCode.clone();
+    }
+
+    /** Number of child steps from the master key. */
+    public int getDepth() {
+        return depth;
+    }
+
+    /** Child number of this key in its parent, 0 for the master key. */
+    public int getChildNumber() {
+        return childNumber;
+    }
+
+    /** Fingerprint of the parent key, 0 for the master key. */
+    public int getParentFingerprint() {
+        return parentFingerprint;
+    }
+
+    /** First 4 bytes of the key identifier, the RIPEMD-160 of the SHA-256 of the public key. */
+    public int getFingerprint() {
+        return ByteBuffer.wrap(getIdentifier()).getInt();
+    }
+
+    /** RIPEMD-160 of the SHA-256 of the compressed public key. */
+    public byte[] getIdentifier() {
+        byte[] result = identifier;
+
+        if (result == null) {
+            result = hash160(getCompressedPublicKey());
+            identifier = result;
+        }
+
+        return result.clone();
+    }
+
+    // RIPEMD-160 of the SHA-256
+    static byte[] hash160(byte[] input) {
+        byte[] sha256 = Hash.sha256(input);
+        RIPEMD160Digest digest = new RIPEMD160Digest();
+        digest.update(sha256, 0, sha256.length);
+
+        byte[] result = new byte[digest.getDigestSize()];
+        digest.doFinal(result, 0);
+        return result;
+    }
+
+    private static byte[] hmacSha512(byte[] key, byte[] data) {
+        HMac mac = new HMac(new SHA512Digest());
+        mac.init(new KeyParameter(key));
+        mac.update(data, 0, data.length);
+
+        byte[] result = new byte[mac.getMacSize()];
+        mac.doFinal(result, 0);
+        return result;
+    }
+}
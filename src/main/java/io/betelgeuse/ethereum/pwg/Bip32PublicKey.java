@@ -0,0 +1,256 @@
+package io.betelgeuse.ethereum.pwg;
+
+import org.bouncycastle.math.ec.ECPoint;
+import org.bouncycastle.math.ec.FixedPointCombMultiplier;
+
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * BIP-32 extended public key, the watch-only half of a {@link Bip32ECKeyPair}.
+ *
+ * <p>It derives the public keys and addresses of all non-hardened descendants without any
+ * private key: a child public key is the parent point plus a point derived from the parent chain
+ * code (CKDpub). It is exchanged in the serialized {@code xpub...} form.
+ *
+ * @see <a href="https://github.com/bitcoin/bips/blob/master/bip-0032.mediawiki">Hierarchical
+ *     Deterministic Wallets</a>
+ */
+public class Bip32PublicKey {
+
+    /** Version bytes of a mainnet extended public key, {@code xpub}. */
+    public static final int XPUB_VERSION = 0x0488B21E;
+
+    /** Version bytes of a mainnet extended private key, {@code xprv}. */
+    public static final int XPRV_VERSION = 0x0488ADE4;
+
+    static final int SERIALIZED_LENGTH = 78;
+
+    private static final int COMPRESSED_KEY_LENGTH = 33;
+    private static final int CHAIN_CODE_LENGTH = 32;
+
+    private final ECPoint publicPoint;
+    private final byte[] chainCode;
+    private final int depth;
+    private final int childNumber;
+    private final int parentFingerprint;
+
+    Bip32PublicKey(
+            ECPoint publicPoint,
+            byte[] chainCode,
+            int depth,
+            int childNumber,
+            int parentFingerprint) {
+        this.publicPoint = publicPoint.normalize();
+        this.chainCode = chainCode;
+        this.depth = depth;
+        this.childNumber = childNumber;
+        this.parentFingerprint = parentFingerprint;
+    }
+
+    /**
+     * Parses a serialized extended public key.
+     *
+     * @throws IllegalArgumentException if the string is not a valid mainnet {@code xpub}
+     */
+    public static Bip32PublicKey fromXpub(String xpub) {
+        byte[] data = Base58.decodeChecked(xpub.trim());
+
+        if (data.length != SERIALIZED_LENGTH) {
+            throw new IllegalArgumentException("Extended key must have 78 bytes: " + data.length);
+        }
+
+        ByteBuffer buffer = ByteBuffer.wrap(data);
+        int version = buffer.getInt();
+
+        if (version == XPRV_VERSION) {
+            throw new IllegalArgumentException("Extended private key given, xpub expected");
+        }
+        if (version != XPUB_VERSION) {
+            throw new IllegalArgumentException(
+                    "Not a mainnet extended public key, version " + Integer.toHexString(version));
+        }
+
+        int depth = buffer.get() & 0xff;
+        int parentFingerprint = buffer.getInt();
+        int childNumber = buffer.getInt();
+        byte[] chainCode = new byte[CHAIN_CODE_LENGTH];
+        buffer.get(chainCode);
+        byte[] key = new byte[COMPRESSED_KEY_LENGTH];
+        buffer.get(key);
+
+        if (depth == 0 && (parentFingerprint != 0 || childNumber != 0)) {
+            throw new IllegalArgumentException("Master key with parent fingerprint or index");
+        }
+        if (key[0] != 2 && key[0] != 3) {
+            throw new IllegalArgumentException("Invalid public key prefix " + key[0]);
+        }
+
+        ECPoint publicPoint;
+        try {
+            publicPoint = Sign.CURVE.getCurve().decodePoint(key);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Public key is not on the curve", e);
+        }
+
+        return new Bip32PublicKey(publicPoint, chainCode, depth, childNumber, parentFingerprint);
+    }
+
+    /** The serialized form, {@code xpub...}. */
+    public String toXpub() {
+        return Base58.encodeChecked(serialize(XPUB_VERSION, getCompressedPublicKey()));
+    }
+
+    /**
+     * Derives non-hardened child {@code childNumber}, CKDpub of BIP-32.
+     *
+     * @throws IllegalArgumentException if the child number is hardened, or for the child numbers
+     *     BIP-32 declares invalid, which are astronomically unlikely; the caller should continue
+     *     with the next child number
+     */
+    public Bip32PublicKey deriveChildKey(int childNumber) {
+        byte[] i = childHmac(new HmacSha512(chainCode), getCompressedPublicKey(), childNumber);
+
+        return new Bip32PublicKey(
+                childPoint(publicPoint, i, childNumber),
+                Arrays.copyOfRange(i, CHAIN_CODE_LENGTH, 2 * CHAIN_CODE_LENGTH),
+                depth + 1,
+                childNumber,
+                getFingerprint());
+    }
+
+    /**
+     * Derives the key at {@code path} below this key, one child step per element.
+     *
+     * @param path non-hardened child numbers
+     */
+    public Bip32PublicKey deriveKey(int... path) {
+        Bip32PublicKey key = this;
+
+        for (int childNumber : path) {
+            key = key.deriveChildKey(childNumber);
+        }
+
+        return key;
+    }
+
+    /** The address of this key, see {@link Keys#getAddressBytes(ECPoint)}. */
+    public String getAddress() {
+        return Keys.toChecksumAddress(Keys.getAddressBytes(publicPoint));
+    }
+
+    public ECPoint getPublicPoint() {
+        return publicPoint;
+    }
+
+    /** The public key in the 64 byte form of {@link ECKeyPair#getPublicKey()}. */
+    public BigInteger getPublicKey() {
+        return Sign.publicFromPoint(publicPoint.getEncoded(false));
+    }
+
+    /** The public key in the 33 byte compressed encoding. */
+    public byte[] getCompressedPublicKey() {
+        return publicPoint.getEncoded(true);
+    }
+
+    public byte[] getChainCode() {
+        return chainCode.clone();
+    }
+
+    /** Number of child steps from the master key. */
+    public int getDepth() {
+        return depth;
+    }
+
+    /** Child number of this key in its parent, 0 for the master key. */
+    public int getChildNumber() {
+        return childNumber;
+    }
+
+    /** Fingerprint of the parent key, 0 for the master key. */
+    public int getParentFingerprint() {
+        return parentFingerprint;
+    }
+
+    /** First 4 bytes of the RIPEMD-160 of the SHA-256 of the compressed public key. */
+    public int getFingerprint() {
+        return ByteBuffer.wrap(Bip32ECKeyPair.hash160(getCompressedPublicKey())).getInt();
+    }
+
+    // the 78 bytes of the serialization, before the checksum
+    byte[] serialize(int version, byte[] key) {
+        if (depth > 0xff) {
+            throw new IllegalStateException("Depth exceeds 255: " + depth);
+        }
+
+        return ByteBuffer.allocate(SERIALIZED_LENGTH)
+                .putInt(version)
+                .put((byte) depth)
+                .putInt(parentFingerprint)
+                .putInt(childNumber)
+                .put(chainCode)
+                .put(key)
+                .array();
+    }
+
+    // I = HMAC-SHA512(chain code, ser_P(K) || ser_32(i)), the MAC keyed with the chain code
+    static byte[] childHmac(HmacSha512 mac, byte[] compressedKey, int childNumber) {
+        if (Bip32ECKeyPair.isHardened(childNumber)) {
+            throw new IllegalArgumentException(
+                    "Hardened child " + (childNumber & ~Bip32ECKeyPair.HARDENED_BIT)
+                            + "' needs the private key");
+        }
+
+        // the message of a single PBKDF2 iteration is the salt followed by the 4 byte index
+        byte[] i = new byte[HmacSha512.LENGTH];
+        mac.pbkdf2Block(compressedKey, childNumber, 1, i, 0, i.length);
+        return i;
+    }
+
+    // K_i = parse_256(I_L) * G + K_par, not normalized
+    static ECPoint childPoint(ECPoint parent, byte[] i, int childNumber) {
+        BigInteger tweak = new BigInteger(1, Arrays.copyOf(i, CHAIN_CODE_LENGTH));
+
+        if (tweak.compareTo(Sign.CURVE.getN()) >= 0) {
+            throw new IllegalArgumentException("Invalid child " + childNumber);
+        }
+
+        ECPoint point = new FixedPointCombMultiplier().multiply(Sign.CURVE.getG(), tweak);
+        point = point.add(parent);
+
+        if (point.isInfinity()) {
+            throw new IllegalArgumentException("Invalid child " + childNumber);
+        }
+
+        return point;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+
+        Bip32PublicKey that = (Bip32PublicKey) o;
+
+        return depth == that.depth
+                && childNumber == that.childNumber
+                && parentFingerprint == that.parentFingerprint
+                && publicPoint.equals(that.publicPoint)
+                && Arrays.equals(chainCode, that.chainCode);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * publicPoint.hashCode() + Arrays.hashCode(chainCode);
+    }
+
+    @Override
+    public String toString() {
+        return toXpub();
+    }
+}
@@ -0,0 +1,384 @@
+package io.betelgeuse.ethereum.pwg;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectReader;
+import io.betelgeuse.ethereum.transaction.AccessList;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Signs a list of payouts from one unlocked wallet.
+ *
+ * <p>The input has one payout per line, either as CSV ({@code to,amount}) or as a JSON object
+ * ({@code {"to": "0x...", "amount": "0.5"}}), amounts in ether. Blank lines, lines starting with
+ * {@code #} and a {@code to,amount} header are skipped. Payouts get sequential nonces in input
+ * order and are signed as EIP-1559 transactions on all cores.
+ *
+ * <p>For a token payout the transactions call {@code transfer(to, amount)} of the token contract
+ * instead of sending ether, with the amount given in whole tokens and scaled by the decimals of
+ * the token.
+ *
+ * <p>The whole input is validated before anything is signed, so a bad line never leaves a gap
+ * in the nonce sequence. Signed transactions are written in nonce order as {@code
+ * nonce,to,amount,transaction,hash} lines while the input is still being read. Only a fixed
+ * window of transactions is held in memory, whatever the input size.
+ */
+public class BulkSigner {
+
+    public static final String OUTPUT_HEADER = "nonce,to,amount,transaction,hash";
+    public static final int WINDOW_PER_THREAD = 16;
+    public static final int ETHER_DECIMALS = 18;
+
+    private final Credentials credentials;
+    private final long chainId;
+    private final BigInteger gasLimit;
+    private final BigInteger maxPriorityFeePerGas;
+    private final BigInteger maxFeePerGas;
+    private final int threads;
+    private final String token;
+    private final int decimals;
+
+    /** Signer for ether payouts. */
+    public BulkSigner(
+            Credentials credentials,
+            long chainId,
+            BigInteger gasLimit,
+            BigInteger maxPriorityFeePerGas,
+            BigInteger maxFeePerGas,
+            int threads) {
+        this(
+                credentials,
+                chainId,
+                gasLimit,
+                maxPriorityFeePerGas,
+                maxFeePerGas,
+                threads,
+                null,
+                ETHER_DECIMALS);
+    }
+
+    /**
+     * Signer for ERC-20 token payouts.
+     *
+     * @param token address of the token contract, null for ether payouts
+     * @param decimals decimals of the token, amounts are multiplied by 10^decimals
+     */
+    public BulkSigner(
+            Credentials credentials,
+            long chainId,
+            BigInteger gasLimit,
+            BigInteger maxPriorityFeePerGas,
+            BigInteger maxFeePerGas,
+            int threads,
+            String token,
+            int decimals) {
+        if (threads <= 0) {
+            throw new IllegalArgumentException("Threads must be positive, threads=" + threads);
+        }
+
+        this.credentials = credentials;
+        this.chainId = chainId;
+        this.gasLimit = gasLimit;
+        this.maxPriorityFeePerGas = maxPriorityFeePerGas;
+        this.maxFeePerGas = maxFeePerGas;
+        this.threads = threads;
+        this.token = token;
+        this.decimals = decimals;
+
+        if (decimals < 0) {
+            throw new IllegalArgumentException("Decimals must not be negative");
+        }
+        if (token != null) {
+            AddressChecksum.Status status = AddressChecksum.forCurrentThread().check(token);
+
+            if (status == AddressChecksum.Status.INVALID_FORMAT
+                    || status == AddressChecksum.Status.INVALID_CHECKSUM) {
+                throw new IllegalArgumentException(
+                        String.format("Invalid token address %s (%s)", token, status));
+            }
+        }
+    }
+
+    /**
+     * Signs all payouts of the input file.
+     *
+     * @param input the payout file
+     * @param output the file for the signed transactions, created only if the input is valid
+     * @param firstNonce nonce of the first payout
+     * @return the number of signed transactions and the nonce range
+     * @throws IllegalArgumentException if a line of the input is invalid, with its line number
+     * @throws IOException if a file cannot be read or written
+     */
+    public Summary sign(Path input, Path output, BigInteger firstNonce) throws IOException {
+        long payouts = validate(input, decimals);
+        long start = System.nanoTime();
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        Deque<CompletableFuture<String>> window = new ArrayDeque<>();
+        int windowSize = WINDOW_PER_THREAD * threads;
+        BigInteger nonce = firstNonce;
+
+        try (BufferedReader reader = Files.newBufferedReader(input, StandardCharsets.UTF_8);
+                BufferedWriter writer = Files.newBufferedWriter(output, StandardCharsets.UTF_8)) {
+            writer.write(OUTPUT_HEADER);
+            writer.newLine();
+
+            String line;
+            while ((line = reader.readLine()) != null) {
+                Payout payout = Payout.parse(line, decimals);
+
+                if (payout == null) {
+                    continue;
+                }
+
+                BigInteger payoutNonce = nonce;
+                window.addLast(
+                        CompletableFuture.supplyAsync(() -> sign(payout, payoutNonce), pool));
+                nonce = nonce.add(BigInteger.ONE);
+
+                // the oldest transaction is written before the window grows any further
+                if (window.size() >= windowSize) {
+                    write(writer, window.removeFirst());
+                }
+            }
+
+            while (!window.isEmpty()) {
+                write(writer, window.removeFirst());
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        return new Summary(payouts, firstNonce, nonce, System.nanoTime() - start);
+    }
+
+    private String sign(Payout payout, BigInteger nonce) {
+        BigInteger units = payout.amount.movePointRight(decimals).toBigIntegerExact();
+        RawTransaction rawTransaction;
+
+        if (token == null) {
+            rawTransaction =
+                    RawTransaction.createEtherTransaction(
+                            chainId,
+                            nonce,
+                            gasLimit,
+                            payout.to,
+                            units,
+                            maxPriorityFeePerGas,
+                            maxFeePerGas);
+        } else {
+            rawTransaction =
+                    RawTransaction.createTransaction(
+                            chainId,
+                            nonce,
+                            gasLimit,
+                            token,
+                            BigInteger.ZERO,
+                            CallData.wrap(Erc20.transfer(payout.to, units)),
+                            maxPriorityFeePerGas,
+                            maxFeePerGas,
+                            AccessList.EMPTY);
+        }
+
+        SignedTransaction signed =
+                TransactionEncoder.signTransaction(rawTransaction, chainId, credentials);
+
+        return String.format(
+                "%s,%s,%s,%s,%s",
+                nonce,
+                payout.to,
+                payout.amount.toPlainString(),
+                signed.getEncodedHex(),
+                signed.getTransactionHashHex());
+    }
+
+    private static void write(BufferedWriter writer, CompletableFuture<String> signed)
+            throws IOException {
+        try {
+            writer.write(signed.join());
+            writer.newLine();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            throw cause instanceof RuntimeException
+                    ? (RuntimeException) cause
+                    : new IllegalStateException("Signing failed", cause);
+        }
+    }
+
+    private static long validate(Path input, int decimals) throws IOException {
+        long payouts = 0;
+        long lineNumber = 0;
+
+        try (BufferedReader reader = Files.newBufferedReader(input, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+
+                try {
+                    if (Payout.parse(line, decimals) != null) {
+                        payouts++;
+                    }
+                } catch (IllegalArgumentException e) {
+                    throw new IllegalArgumentException(
+                            String.format("line %d: %s", lineNumber, e.getMessage()), e);
+                }
+            }
+        }
+
+        return payouts;
+    }
+
+    /** Recipient and amount of a single payout. */
+    static class Payout {
+        // JSON numbers as BigDecimal, a double does not hold 18 decimals
+        private static final ObjectReader JSON_READER =
+                ObjectMapperFactory.getObjectReader()
+                        .with(DeserializationFeature.USE_BIG_DECIMAL_FOR_FLOATS);
+
+        private final String to;
+        private final BigDecimal amount;
+
+        private Payout(String to, BigDecimal amount) {
+            this.to = to;
+            this.amount = amount;
+        }
+
+        /** @return the ether payout of the line, null for lines without a payout */
+        static Payout parse(String line) {
+            return parse(line, ETHER_DECIMALS);
+        }
+
+        /** @return the payout of the line, null for lines without a payout */
+        static Payout parse(String line, int decimals) {
+            String trimmed = line.trim();
+
+            if (trimmed.isEmpty() || trimmed.startsWith("#")) {
+                return null;
+            }
+
+            String to;
+            String amount;
+
+            if (trimmed.startsWith("{")) {
+                JsonNode node;
+
+                try {
+                    node = JSON_READER.readTree(trimmed);
+                } catch (IOException e) {
+                    throw new IllegalArgumentException("Invalid JSON: " + e.getMessage(), e);
+                }
+
+                to = node.path("to").asText("");
+                JsonNode amountNode = node.path("amount");
+                amount =
+                        amountNode.isNumber()
+                                ? amountNode.decimalValue().toPlainString()
+                                : amountNode.asText("");
+            } else {
+                String[] columns = trimmed.split(",", -1);
+
+                if (columns.length != 2) {
+                    throw new IllegalArgumentException("Expected to,amount: " + trimmed);
+                }
+
+                to = columns[0].trim();
+                amount = columns[1].trim();
+
+                if (to.equalsIgnoreCase("to")) {
+                    return null;
+                }
+            }
+
+            AddressChecksum.Status status = AddressChecksum.forCurrentThread().check(to);
+
+            if (status == AddressChecksum.Status.INVALID_FORMAT
+                    || status == AddressChecksum.Status.INVALID_CHECKSUM) {
+                throw new IllegalArgumentException(
+                        String.format("Invalid recipient %s (%s)", to, status));
+            }
+
+            return new Payout(to, parseAmount(amount, decimals));
+        }
+
+        private static BigDecimal parseAmount(String amount, int decimals) {
+            BigDecimal value;
+
+            try {
+                value = new BigDecimal(amount);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid amount " + amount, e);
+            }
+
+            if (value.signum() < 0) {
+                throw new IllegalArgumentException("Negative amount " + amount);
+            }
+            if (value.movePointRight(decimals).stripTrailingZeros().scale() > 0) {
+                throw new IllegalArgumentException("Amount below the smallest unit " + amount);
+            }
+
+            return value;
+        }
+    }
+
+    /** Outcome of a bulk signing run. */
+    public static class Summary {
+        private final long transactions;
+        private final BigInteger firstNonce;
+        private final BigInteger nextNonce;
+        private final long elapsedNanos;
+
+        private Summary(
+                long transactions, BigInteger firstNonce, BigInteger nextNonce, long elapsedNanos) {
+            this.transactions = transactions;
+            this.firstNonce = firstNonce;
+            this.nextNonce = nextNonce;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        public long getTransactions() {
+            return transactions;
+        }
+
+        public BigInteger getFirstNonce() {
+            return firstNonce;
+        }
+
+        /** Nonce to use for the next transaction of the wallet. */
+        public BigInteger getNextNonce() {
+            return nextNonce;
+        }
+
+        public double getSeconds() {
+            return elapsedNanos / 1e9;
+        }
+
+        public double getTransactionsPerSecond() {
+            return transactions / getSeconds();
+        }
+
+        @Override
+        public String toString() {
+            return String.format(
+                    "%d transactions signed with nonces %s to %s in %.2f s (%.0f transactions/s)",
+                    transactions,
+                    firstNonce,
+                    nextNonce.subtract(BigInteger.ONE),
+                    getSeconds(),
+                    getTransactionsPerSecond());
+        }
+    }
+}
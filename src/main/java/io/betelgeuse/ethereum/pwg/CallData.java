@@ -0,0 +1,38 @@
+package io.betelgeuse.ethereum.pwg;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Binary call data for the transaction builders that take a {@link ByteBuffer}, such as {@link
+ * RawTransaction#createContractTransaction}.
+ */
+public final class CallData {
+
+    private CallData() {}
+
+    /**
+     * Maps a file of binary call data, for example contract init code, read-only into memory.
+     *
+     * <p>The bytes are read by the operating system as the encoder copies them into the signed
+     * transaction, they never pass through a hex string or a heap array of their own. The file
+     * must not change while the transaction is in use.
+     *
+     * @param file the call data file, binary not hex
+     * @return read-only buffer over the whole file
+     * @throws IOException if the file cannot be mapped
+     */
+    public static ByteBuffer map(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+    }
+
+    /** Read-only view of call data held in an array. */
+    public static ByteBuffer wrap(byte[] data) {
+        return ByteBuffer.wrap(data).asReadOnlyBuffer();
+    }
+}
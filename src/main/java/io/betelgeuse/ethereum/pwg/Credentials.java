@@ -6,6 +6,7 @@ public class Credentials {
 
     private final ECKeyPair ecKeyPair;
     private final String address;
+    private volatile SigningContext signingContext;
 
     private Credentials(ECKeyPair ecKeyPair, String address) {
         this.ecKeyPair = ecKeyPair;
@@ -20,6 +21,18 @@ public class Credentials {
         return address;
     }
 
+    /**
+     * @return the signing context of these credentials, created on first use
+     */
+    public SigningContext getSigningContext() {
+        SigningContext context = signingContext;
+        if (context == null) {
+            context = new SigningContext(ecKeyPair);
+            signingContext = context;
+        }
+        return context;
+    }
+
     public static Credentials create(ECKeyPair ecKeyPair) {
         String address = Numeric.prependHexPrefix(Keys.getAddress(ecKeyPair));
         return new Credentials(ecKeyPair, address);
@@ -7,9 +7,28 @@ public class ECDSASignature {
     public final BigInteger r;
     public final BigInteger s;
 
+    // recovery id, -1 if unknown
+    private final int recId;
+
     public ECDSASignature(BigInteger r, BigInteger s) {
+        this(r, s, -1);
+    }
+
+    /**
+     * @param recId recovery id: bit 0 is the y parity of the nonce point R, bit 1 is set if the x
+     *     coordinate of R was not smaller than the curve order
+     */
+    public ECDSASignature(BigInteger r, BigInteger s, int recId) {
         this.r = r;
         this.s = s;
+        this.recId = recId;
+    }
+
+    /**
+     * @return the recovery id known from signing, or -1 if the signature was created without it.
+     */
+    public int getRecId() {
+        return recId;
     }
 
     /**
@@ -40,7 +59,9 @@ public class ECDSASignature {
             //    N = 10
             //    s = 8, so (-8 % 10 == 2) thus both (r, 8) and (r, 2) are valid solutions.
             //    10 - 8 == 2, giving us always the latter solution, which is canonical.
-            return new ECDSASignature(r, Sign.CURVE.getN().subtract(s));
+            // negating s corresponds to negating R, which flips the y parity of the recovery id
+            return new ECDSASignature(
+                    r, Sign.CURVE.getN().subtract(s), recId < 0 ? recId : recId ^ 1);
         } else {
             return this;
         }
@@ -1,11 +1,12 @@
 package io.betelgeuse.ethereum.pwg;
 
 import org.bouncycastle.crypto.digests.SHA256Digest;
-import org.bouncycastle.crypto.params.ECPrivateKeyParameters;
-import org.bouncycastle.crypto.signers.ECDSASigner;
 import org.bouncycastle.crypto.signers.HMacDSAKCalculator;
 import org.bouncycastle.jcajce.provider.asymmetric.ec.BCECPrivateKey;
 import org.bouncycastle.jcajce.provider.asymmetric.ec.BCECPublicKey;
+import org.bouncycastle.math.ec.ECMultiplier;
+import org.bouncycastle.math.ec.ECPoint;
+import org.bouncycastle.math.ec.FixedPointCombMultiplier;
 
 import java.math.BigInteger;
 import java.security.KeyPair;
@@ -16,6 +17,8 @@ import java.util.Arrays;
  */
 public class ECKeyPair {
 
+    private static final ECMultiplier BASE_POINT_MULTIPLIER = new FixedPointCombMultiplier();
+
     private final BigInteger privateKey;
     private final BigInteger publicKey;
 
@@ -35,17 +38,56 @@ public class ECKeyPair {
     /**
      * Sign a hash with the private key of this key pair.
      *
+     * <p>The signature is generated as by the Bouncy Castle {@link
+     * org.bouncycastle.crypto.signers.ECDSASigner} with deterministic RFC 6979 nonces. In addition
+     * the recovery id is read off the nonce point R while signing, so it does not have to be found
+     * by trial key recovery afterwards.
+     *
      * @param transactionHash the hash to sign
-     * @return An {@link ECDSASignature} of the hash
+     * @return An {@link ECDSASignature} of the hash, including its recovery id
      */
     public ECDSASignature sign(byte[] transactionHash) {
-        ECDSASigner signer = new ECDSASigner(new HMacDSAKCalculator(new SHA256Digest()));
+        return sign(transactionHash, new HMacDSAKCalculator(new SHA256Digest()));
+    }
+
+    ECDSASignature sign(byte[] transactionHash, HMacDSAKCalculator kCalculator) {
+        BigInteger n = Sign.CURVE.getN();
+        BigInteger e = calculateE(n, transactionHash);
+
+        kCalculator.init(n, privateKey, transactionHash);
+
+        BigInteger r;
+        BigInteger s;
+        int recId;
+
+        do {
+            BigInteger k;
 
-        ECPrivateKeyParameters privKey = new ECPrivateKeyParameters(privateKey, Sign.CURVE);
-        signer.init(true, privKey);
-        BigInteger[] components = signer.generateSignature(transactionHash);
+            do {
+                k = kCalculator.nextK();
 
-        return new ECDSASignature(components[0], components[1]).toCanonicalised();
+                ECPoint p = BASE_POINT_MULTIPLIER.multiply(Sign.CURVE.getG(), k).normalize();
+                BigInteger x = p.getAffineXCoord().toBigInteger();
+
+                r = x.mod(n);
+                recId = (p.getAffineYCoord().testBitZero() ? 1 : 0) | (x.compareTo(n) >= 0 ? 2 : 0);
+            } while (r.signum() == 0);
+
+            s = k.modInverse(n).multiply(e.add(privateKey.multiply(r))).mod(n);
+        } while (s.signum() == 0);
+
+        return new ECDSASignature(r, s, recId).toCanonicalised();
+    }
+
+    private static BigInteger calculateE(BigInteger n, byte[] message) {
+        int log2n = n.bitLength();
+        int messageBitLength = message.length * 8;
+
+        BigInteger e = new BigInteger(1, message);
+        if (log2n < messageBitLength) {
+            e = e.shiftRight(messageBitLength - log2n);
+        }
+        return e;
     }
 
     public static ECKeyPair create(KeyPair keyPair) {
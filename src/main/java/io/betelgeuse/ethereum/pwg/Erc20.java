@@ -0,0 +1,121 @@
+package io.betelgeuse.ethereum.pwg;
+
+import java.math.BigInteger;
+import java.nio.Buffer;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+
+/**
+ * Call data of the ERC-20 {@code transfer(address,uint256)} and {@code approve(address,uint256)}
+ * functions.
+ *
+ * <p>Both calls are the 4 byte function selector followed by two 32 byte words, the left padded
+ * address and the big endian amount. They are written directly into the target buffer, the
+ * address is decoded from its hex digits in place and the amount is copied from its two's
+ * complement bytes.
+ */
+public final class Erc20 {
+
+    /** Selector of {@code transfer(address,uint256)}. */
+    public static final int TRANSFER_SELECTOR = 0xa9059cbb;
+
+    /** Selector of {@code approve(address,uint256)}. */
+    public static final int APPROVE_SELECTOR = 0x095ea7b3;
+
+    public static final int WORD_LENGTH = 32;
+    public static final int CALL_DATA_LENGTH = 4 + 2 * WORD_LENGTH;
+
+    private static final int ADDRESS_PADDING = WORD_LENGTH - Keys.ADDRESS_SIZE_IN_BYTES;
+    private static final int ADDRESS_HEX_LENGTH = 2 * Keys.ADDRESS_SIZE_IN_BYTES;
+
+    private Erc20() {}
+
+    /** Call data of {@code transfer(to, amount)}. */
+    public static byte[] transfer(String to, BigInteger amount) {
+        return call(TRANSFER_SELECTOR, to, amount);
+    }
+
+    /** Call data of {@code approve(spender, amount)}. */
+    public static byte[] approve(String spender, BigInteger amount) {
+        return call(APPROVE_SELECTOR, spender, amount);
+    }
+
+    /**
+     * Writes the call data of {@code transfer(to, amount)} at the position of {@code out} and
+     * advances the position by {@link #CALL_DATA_LENGTH}.
+     *
+     * @throws IllegalArgumentException if the address or the amount is invalid, the position is
+     *     left unchanged then
+     * @throws BufferOverflowException if fewer than {@link #CALL_DATA_LENGTH} bytes remain
+     */
+    public static void encodeTransfer(String to, BigInteger amount, ByteBuffer out) {
+        encode(TRANSFER_SELECTOR, to, amount, out);
+    }
+
+    /** @see #encodeTransfer(String, BigInteger, ByteBuffer) */
+    public static void encodeApprove(String spender, BigInteger amount, ByteBuffer out) {
+        encode(APPROVE_SELECTOR, spender, amount, out);
+    }
+
+    /**
+     * Writes the call data of the function with the given selector and an {@code
+     * (address,uint256)} parameter list.
+     *
+     * @see #encodeTransfer(String, BigInteger, ByteBuffer)
+     */
+    public static void encode(int selector, String address, BigInteger amount, ByteBuffer out) {
+        int start = Numeric.containsHexPrefix(address) ? 2 : 0;
+
+        if (address.length() - start != ADDRESS_HEX_LENGTH) {
+            throw new IllegalArgumentException("Invalid address " + address);
+        }
+        if (amount.signum() < 0 || amount.bitLength() > 8 * WORD_LENGTH) {
+            throw new IllegalArgumentException("Amount out of uint256 range " + amount);
+        }
+        if (out.remaining() < CALL_DATA_LENGTH) {
+            throw new BufferOverflowException();
+        }
+
+        int position = out.position();
+        out.putInt(selector);
+
+        for (int i = 0; i < ADDRESS_PADDING; i++) {
+            out.put((byte) 0);
+        }
+
+        for (int i = start; i < address.length(); i += 2) {
+            int high = Character.digit(address.charAt(i), 16);
+            int low = Character.digit(address.charAt(i + 1), 16);
+
+            if (high < 0 || low < 0) {
+                // leave the buffer as it was
+                ((Buffer) out).position(position);
+                throw new IllegalArgumentException("Invalid address " + address);
+            }
+
+            out.put((byte) ((high << 4) | low));
+        }
+
+        writeWord(amount, out);
+    }
+
+    private static byte[] call(int selector, String address, BigInteger amount) {
+        ByteBuffer result = ByteBuffer.allocate(CALL_DATA_LENGTH);
+        encode(selector, address, amount, result);
+        return result.array();
+    }
+
+    // the magnitude of a non negative value, left padded to a word
+    private static void writeWord(BigInteger value, ByteBuffer out) {
+        byte[] bytes = value.toByteArray();
+        // a 256 bit value has a leading sign byte
+        int offset = bytes.length > WORD_LENGTH ? 1 : 0;
+        int length = bytes.length - offset;
+
+        for (int i = length; i < WORD_LENGTH; i++) {
+            out.put((byte) 0);
+        }
+
+        out.put(bytes, offset, length);
+    }
+}
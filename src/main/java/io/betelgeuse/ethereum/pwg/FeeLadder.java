@@ -0,0 +1,231 @@
+package io.betelgeuse.ethereum.pwg;
+
+import io.betelgeuse.ethereum.rlp.RlpEncoder;
+import io.betelgeuse.ethereum.rlp.RlpString;
+import io.betelgeuse.ethereum.rlp.RlpType;
+import io.betelgeuse.ethereum.transaction.Transaction1559;
+import io.betelgeuse.ethereum.transaction.TransactionType;
+
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Signs one EIP-1559 transaction at several fee levels, so a stuck transaction can be replaced
+ * without signing again.
+ *
+ * <p>Only the two fee fields differ between the variants. The fields before them (chain id,
+ * nonce) and after them (gas limit, to, value, data, access list) are encoded once and shared by
+ * all variants, each variant encodes just its two fees, hashes and signs. Variants are signed in
+ * parallel.
+ */
+public class FeeLadder {
+
+    private static final byte TYPE = TransactionType.EIP1559.getRlpType();
+    // chain id and nonce come before the fees, see Transaction1559#asRlpValues
+    private static final int FEES_INDEX = 2;
+
+    private final Credentials credentials;
+    private final int threads;
+
+    public FeeLadder(Credentials credentials) {
+        this(credentials, Runtime.getRuntime().availableProcessors());
+    }
+
+    public FeeLadder(Credentials credentials, int threads) {
+        if (threads <= 0) {
+            throw new IllegalArgumentException("Threads must be positive, threads=" + threads);
+        }
+
+        this.credentials = credentials;
+        this.threads = threads;
+    }
+
+    /**
+     * Fee levels from {@code maxPriorityFeePerGas} up to {@code lastMaxPriorityFeePerGas} in
+     * steps of {@code step}. The max fee of every level is raised by the same amount as its
+     * priority fee, the head room for the base fee stays the same.
+     *
+     * @param maxPriorityFeePerGas priority fee of the first level
+     * @param maxFeePerGas max fee of the first level
+     * @param lastMaxPriorityFeePerGas highest priority fee, included if it is on a step
+     * @param step increase of the fees from level to level
+     */
+    public static List<Level> levels(
+            BigInteger maxPriorityFeePerGas,
+            BigInteger maxFeePerGas,
+            BigInteger lastMaxPriorityFeePerGas,
+            BigInteger step) {
+        if (step.signum() <= 0) {
+            throw new IllegalArgumentException("Step must be positive, step=" + step);
+        }
+        if (maxPriorityFeePerGas.compareTo(maxFeePerGas) > 0) {
+            throw new IllegalArgumentException("Priority fee must not exceed the max fee");
+        }
+        if (lastMaxPriorityFeePerGas.compareTo(maxPriorityFeePerGas) < 0) {
+            throw new IllegalArgumentException(
+                    "Last priority fee must not be below the first priority fee");
+        }
+
+        List<Level> levels = new ArrayList<>();
+        BigInteger headRoom = maxFeePerGas.subtract(maxPriorityFeePerGas);
+
+        for (BigInteger fee = maxPriorityFeePerGas;
+                fee.compareTo(lastMaxPriorityFeePerGas) <= 0;
+                fee = fee.add(step)) {
+            levels.add(new Level(fee, fee.add(headRoom)));
+        }
+
+        return levels;
+    }
+
+    /**
+     * Signs the transaction once per level.
+     *
+     * @param transaction the transaction, its own fees are ignored
+     * @param levels the fee levels
+     * @return the signed variants in the order of the levels
+     */
+    public List<Variant> sign(Transaction1559 transaction, List<Level> levels) {
+        if (levels.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        List<RlpType> values = transaction.asRlpValues(null);
+        byte[] head = RlpEncoder.encodeListPayload(values.subList(0, FEES_INDEX));
+        byte[] tail = RlpEncoder.encodeListPayload(values.subList(FEES_INDEX + 2, values.size()));
+
+        ExecutorService pool = Executors.newFixedThreadPool(Math.min(threads, levels.size()));
+
+        try {
+            List<Future<Variant>> futures = new ArrayList<>(levels.size());
+
+            for (Level level : levels) {
+                futures.add(pool.submit(() -> sign(transaction, head, tail, level)));
+            }
+
+            List<Variant> variants = new ArrayList<>(levels.size());
+
+            for (Future<Variant> future : futures) {
+                variants.add(future.get());
+            }
+
+            return Collections.unmodifiableList(variants);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while signing", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            throw cause instanceof RuntimeException
+                    ? (RuntimeException) cause
+                    : new IllegalStateException("Signing failed", cause);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private Variant sign(Transaction1559 transaction, byte[] head, byte[] tail, Level level) {
+        byte[] fees =
+                RlpEncoder.encodeListPayload(
+                        Arrays.asList(
+                                RlpString.create(level.maxPriorityFeePerGas),
+                                RlpString.create(level.maxFeePerGas)));
+        int fieldsLength = head.length + fees.length + tail.length;
+
+        ByteBuffer header = ByteBuffer.allocate(RlpEncoder.listHeaderLength(fieldsLength));
+        RlpEncoder.encodeListHeader(fieldsLength, header);
+
+        byte[] hash =
+                Hash.keccak256()
+                        .update(TYPE)
+                        .update(header.array())
+                        .update(head)
+                        .update(fees)
+                        .update(tail)
+                        .digest();
+
+        Sign.SignatureData signatureData = credentials.getSigningContext().sign(hash);
+        byte[] signature =
+                RlpEncoder.encodeListPayload(transaction.asSignatureRlpValues(signatureData));
+        int payloadLength = fieldsLength + signature.length;
+
+        ByteBuffer envelope =
+                ByteBuffer.allocate(
+                        1 + RlpEncoder.listHeaderLength(payloadLength) + payloadLength);
+        envelope.put(TYPE);
+        RlpEncoder.encodeListHeader(payloadLength, envelope);
+        envelope.put(head).put(fees).put(tail).put(signature);
+
+        byte[] signed = envelope.array();
+        RawTransaction rawTransaction =
+                RawTransaction.createTransaction(
+                        transaction.getChainId(),
+                        transaction.getNonce(),
+                        transaction.getGasLimit(),
+                        transaction.getTo(),
+                        transaction.getValue(),
+                        transaction.getData(),
+                        level.maxPriorityFeePerGas,
+                        level.maxFeePerGas,
+                        transaction.getAccessList());
+
+        return new Variant(
+                level,
+                new SignedTransaction(
+                        rawTransaction, signatureData, signed, hash, Hash.sha3(signed)));
+    }
+
+    /** Priority fee and max fee of a variant. */
+    public static class Level {
+        private final BigInteger maxPriorityFeePerGas;
+        private final BigInteger maxFeePerGas;
+
+        public Level(BigInteger maxPriorityFeePerGas, BigInteger maxFeePerGas) {
+            this.maxPriorityFeePerGas = maxPriorityFeePerGas;
+            this.maxFeePerGas = maxFeePerGas;
+        }
+
+        public BigInteger getMaxPriorityFeePerGas() {
+            return maxPriorityFeePerGas;
+        }
+
+        public BigInteger getMaxFeePerGas() {
+            return maxFeePerGas;
+        }
+    }
+
+    /** A fee level with its signed transaction. */
+    public static class Variant {
+        private final Level level;
+        private final SignedTransaction transaction;
+
+        private Variant(Level level, SignedTransaction transaction) {
+            this.level = level;
+            this.transaction = transaction;
+        }
+
+        public Level getLevel() {
+            return level;
+        }
+
+        public SignedTransaction getTransaction() {
+            return transaction;
+        }
+
+        public byte[] getSignedTransaction() {
+            return transaction.getEncoded();
+        }
+
+        /** Keccak-256 hash of the signed transaction, the hash it is known by on chain. */
+        public byte[] getTransactionHash() {
+            return transaction.getTransactionHash();
+        }
+    }
+}
@@ -1,15 +1,36 @@
 package io.betelgeuse.ethereum.pwg;
 
-import org.bouncycastle.jcajce.provider.digest.Keccak;
+import org.bouncycastle.crypto.digests.KeccakDigest;
 
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 
 /** Cryptographic hash functions. */
 public class Hash {
+    public static final int SHA3_LENGTH = 32;
+
+    private static final ThreadLocal<Keccak256> KECCAK_256 = ThreadLocal.withInitial(Keccak256::new);
+
     private Hash() {}
 
+    /**
+     * Keccak-256 hasher of the current thread, reset and ready for input.
+     *
+     * <p>The hasher is reused by all hashing on the current thread, including the static {@code
+     * sha3} methods. Finish it with {@link Keccak256#digest()} or {@link
+     * Keccak256#digestInto(byte[], int)} before hashing anything else on the same thread.
+     *
+     * @return the reusable hasher
+     */
+    public static Keccak256 keccak256() {
+        Keccak256 hasher = KECCAK_256.get();
+        hasher.reset();
+        return hasher;
+    }
+
     /**
      * Keccak-256 hash function.
      *
@@ -31,9 +52,7 @@ public class Hash {
      * @return hash value
      */
     public static byte[] sha3(byte[] input, int offset, int length) {
-        Keccak.DigestKeccak kecc = new Keccak.Digest256();
-        kecc.update(input, offset, length);
-        return kecc.digest();
+        return keccak256().update(input, offset, length).digest();
     }
 
     /**
@@ -71,4 +90,82 @@ public class Hash {
             throw new RuntimeException("Couldn't find a SHA-256 provider", e);
         }
     }
+
+    /** Incremental Keccak-256 hasher, see {@link #keccak256()}. Not thread-safe. */
+    public static final class Keccak256 {
+        private static final int BUFFER_SIZE = 256;
+
+        private final KeccakDigest digest = new KeccakDigest(256);
+        private byte[] buffer;
+
+        private Keccak256() {}
+
+        public Keccak256 update(byte[] input) {
+            digest.update(input, 0, input.length);
+            return this;
+        }
+
+        public Keccak256 update(byte[]... inputs) {
+            for (byte[] input : inputs) {
+                digest.update(input, 0, input.length);
+            }
+            return this;
+        }
+
+        public Keccak256 update(byte[] input, int offset, int length) {
+            digest.update(input, offset, length);
+            return this;
+        }
+
+        public Keccak256 update(byte input) {
+            digest.update(input);
+            return this;
+        }
+
+        /** Hashes the remaining bytes of the buffer and moves its position to the limit. */
+        public Keccak256 update(ByteBuffer input) {
+            int length = input.remaining();
+
+            if (input.hasArray()) {
+                int position = input.position();
+                digest.update(input.array(), input.arrayOffset() + position, length);
+                ((Buffer) input).position(position + length);
+                return this;
+            }
+
+            if (buffer == null) {
+                buffer = new byte[BUFFER_SIZE];
+            }
+
+            while (length > 0) {
+                int chunk = Math.min(length, BUFFER_SIZE);
+                input.get(buffer, 0, chunk);
+                digest.update(buffer, 0, chunk);
+                length -= chunk;
+            }
+
+            return this;
+        }
+
+        /**
+         * Writes the hash to {@code out[offset..offset+32)} and resets the hasher.
+         *
+         * @param out the output array
+         * @param offset the offset of the hash in the output array
+         */
+        public void digestInto(byte[] out, int offset) {
+            digest.doFinal(out, offset);
+        }
+
+        /** Returns the hash and resets the hasher. */
+        public byte[] digest() {
+            byte[] result = new byte[SHA3_LENGTH];
+            digest.doFinal(result, 0);
+            return result;
+        }
+
+        public void reset() {
+            digest.reset();
+        }
+    }
 }
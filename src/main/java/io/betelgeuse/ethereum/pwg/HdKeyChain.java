@@ -0,0 +1,158 @@
+package io.betelgeuse.ethereum.pwg;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * BIP-32 key tree of a seed with the BIP-44 Ethereum accounts {@code m/44'/60'/0'/0/i}.
+ *
+ * <p>Every intermediate key derived on the way to a requested key is kept in a bounded cache,
+ * least recently used keys are dropped first. A request starts from the deepest cached ancestor,
+ * so accounts {@code 0..N} cost the four steps to {@code m/44'/60'/0'/0} once and then one child
+ * step each. Requested keys themselves are not cached. Instances are thread safe.
+ */
+public class HdKeyChain {
+
+    /** BIP-44 path of the Ethereum external chain, the parent of the account keys. */
+    public static final String ETHEREUM_ACCOUNT_PATH = "m/44'/60'/0'/0";
+
+    private static final int[] ACCOUNT_PATH = Bip32ECKeyPair.parsePath(ETHEREUM_ACCOUNT_PATH);
+
+    public static final int DEFAULT_CACHE_SIZE = 64;
+
+    private final Bip32ECKeyPair master;
+    private final Map<Path, Bip32ECKeyPair> cache;
+    private final AtomicLong childDerivations = new AtomicLong();
+
+    public HdKeyChain(byte[] seed) {
+        this(seed, DEFAULT_CACHE_SIZE);
+    }
+
+    /**
+     * @param seed the seed, for example from {@link MnemonicUtils#generateSeed}
+     * @param cacheSize maximum number of intermediate keys kept, 0 to derive every path in full
+     */
+    public HdKeyChain(byte[] seed, int cacheSize) {
+        if (cacheSize < 0) {
+            throw new IllegalArgumentException("Cache size must not be negative: " + cacheSize);
+        }
+
+        this.master = Bip32ECKeyPair.generateKeyPair(seed);
+        this.cache =
+                new LinkedHashMap<Path, Bip32ECKeyPair>(16, 0.75f, true) {
+                    @Override
+                    protected boolean removeEldestEntry(Map.Entry<Path, Bip32ECKeyPair> eldest) {
+                        return size() > cacheSize;
+                    }
+                };
+    }
+
+    /** Key tree of the BIP-39 seed of a mnemonic and passphrase. */
+    public static HdKeyChain fromMnemonic(String mnemonic, String passphrase) {
+        return new HdKeyChain(MnemonicUtils.generateSeed(mnemonic, passphrase));
+    }
+
+    public Bip32ECKeyPair getMasterKeyPair() {
+        return master;
+    }
+
+    /** The key at a path like {@code m/44'/60'/0'/0/5}, see {@link Bip32ECKeyPair#parsePath}. */
+    public Bip32ECKeyPair deriveKeyPair(String path) {
+        return deriveKeyPair(Bip32ECKeyPair.parsePath(path));
+    }
+
+    /**
+     * The key at {@code path} below the master key.
+     *
+     * @param path child numbers, hardened ones with {@link Bip32ECKeyPair#HARDENED_BIT} set
+     */
+    public Bip32ECKeyPair deriveKeyPair(int... path) {
+        Bip32ECKeyPair key = master;
+        int start = 0;
+
+        for (int length = path.length - 1; length > 0; length--) {
+            Bip32ECKeyPair cached = get(new Path(path, length));
+            if (cached != null) {
+                key = cached;
+                start = length;
+                break;
+            }
+        }
+
+        for (int i = start; i < path.length; i++) {
+            key = key.deriveChildKey(path[i]);
+            childDerivations.incrementAndGet();
+
+            if (i < path.length - 1) {
+                put(new Path(path, i + 1), key);
+            }
+        }
+
+        return key;
+    }
+
+    /** The key of Ethereum account {@code index}, {@code m/44'/60'/0'/0/index}. */
+    public Bip32ECKeyPair deriveAccountKeyPair(int index) {
+        if (index < 0) {
+            throw new IllegalArgumentException("Account index must not be negative: " + index);
+        }
+
+        int[] path = Arrays.copyOf(ACCOUNT_PATH, ACCOUNT_PATH.length + 1);
+        path[ACCOUNT_PATH.length] = index;
+        return deriveKeyPair(path);
+    }
+
+    /**
+     * The extended public key of {@code m/44'/60'/0'/0}, the parent of all account keys. Its
+     * {@code xpub} gives the addresses of all accounts without the seed, see {@link
+     * AddressDeriver}.
+     */
+    public Bip32PublicKey getAccountPublicKey() {
+        return deriveKeyPair(ACCOUNT_PATH).getExtendedPublicKey();
+    }
+
+    /** Credentials of Ethereum account {@code index}, {@code m/44'/60'/0'/0/index}. */
+    public Credentials getAccount(int index) {
+        return Credentials.create(deriveAccountKeyPair(index));
+    }
+
+    /** Number of child steps taken so far, a measure of the work saved by the cache. */
+    public long getChildDerivations() {
+        return childDerivations.get();
+    }
+
+    private Bip32ECKeyPair get(Path path) {
+        synchronized (cache) {
+            return cache.get(path);
+        }
+    }
+
+    private void put(Path path, Bip32ECKeyPair key) {
+        synchronized (cache) {
+            cache.put(path, key);
+        }
+    }
+
+    // the first length elements of a path, as cache key
+    private static final class Path {
+        private final int[] elements;
+        private final int hashCode;
+
+        private Path(int[] path, int length) {
+            this.elements = Arrays.copyOf(path, length);
+            this.hashCode = Arrays.hashCode(elements);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Path && Arrays.equals(elements, ((Path) o).elements);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package io.betelgeuse.ethereum.pwg;
+
+import java.security.DigestException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * HMAC-SHA256 for PBKDF2 on the JDK digest.
+ *
+ * <p>The JDK computes SHA-256 with the SHA instructions of the CPU where there are any, which no
+ * compression written in Java comes close to. The digests after the ipad and the opad key block
+ * are kept and every MAC continues from copies of them.
+ */
+final class HmacSha256 extends Pbkdf2Hmac {
+
+    /** Length of the MAC in bytes. */
+    static final int LENGTH = 32;
+
+    private static final int BLOCK_LENGTH = 64;
+
+    private final MessageDigest inner;
+    private final MessageDigest outer;
+    private final byte[] index = new byte[4];
+    private final byte[] hash = new byte[LENGTH];
+    private final byte[] u = new byte[LENGTH];
+    private final byte[] t = new byte[LENGTH];
+
+    HmacSha256(byte[] key) {
+        try {
+            inner = MessageDigest.getInstance("SHA-256");
+            outer = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+
+        byte[] block = new byte[BLOCK_LENGTH];
+        if (key.length > BLOCK_LENGTH) {
+            key = inner.digest(key);
+        }
+        System.arraycopy(key, 0, block, 0, key.length);
+
+        xor(block, (byte) 0x36);
+        inner.update(block);
+        xor(block, (byte) (0x36 ^ 0x5c));
+        outer.update(block);
+    }
+
+    @Override
+    int length() {
+        return LENGTH;
+    }
+
+    @Override
+    void pbkdf2Block(byte[] salt, int index, int c, byte[] out, int offset, int length) {
+        writeIndex(index, this.index, 0);
+
+        MessageDigest digest = copy(inner);
+        digest.update(salt);
+        digest.update(this.index);
+        finish(digest);
+        System.arraycopy(u, 0, t, 0, LENGTH);
+
+        for (int j = 1; j < c; j++) {
+            digest = copy(inner);
+            digest.update(u);
+            finish(digest);
+
+            for (int i = 0; i < LENGTH; i++) {
+                t[i] ^= u[i];
+            }
+        }
+
+        System.arraycopy(t, 0, out, offset, length);
+    }
+
+    // completes the inner digest and puts the MAC into u
+    private void finish(MessageDigest innerDigest) {
+        try {
+            innerDigest.digest(hash, 0, LENGTH);
+
+            MessageDigest outerDigest = copy(outer);
+            outerDigest.update(hash);
+            outerDigest.digest(u, 0, LENGTH);
+        } catch (DigestException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static MessageDigest copy(MessageDigest digest) {
+        try {
+            return (MessageDigest) digest.clone();
+        } catch (CloneNotSupportedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
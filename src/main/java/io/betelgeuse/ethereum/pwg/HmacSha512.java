@@ -0,0 +1,208 @@
+package io.betelgeuse.ethereum.pwg;
+
+import org.bouncycastle.crypto.digests.SHA512Digest;
+
+/**
+ * HMAC-SHA512 for PBKDF2 on its own SHA-512 compression.
+ *
+ * <p>The states after the inner (ipad) and the outer (opad) key block are computed once per key.
+ * Every PBKDF2 iteration then hashes a 64 byte value, which is a single padded block on top of
+ * each state, so an iteration is exactly two compressions on 64 bit words, without byte
+ * conversions and without allocation. Few CPUs have SHA-512 instructions, this is faster than
+ * the JDK digest.
+ */
+final class HmacSha512 extends Pbkdf2Hmac {
+
+    /** Length of the MAC in bytes. */
+    static final int LENGTH = 64;
+
+    private static final int BLOCK_LENGTH = 128;
+
+    private static final long[] K = {
+        0x428a2f98d728ae22L, 0x7137449123ef65cdL, 0xb5c0fbcfec4d3b2fL,
+        0xe9b5dba58189dbbcL, 0x3956c25bf348b538L, 0x59f111f1b605d019L,
+        0x923f82a4af194f9bL, 0xab1c5ed5da6d8118L, 0xd807aa98a3030242L,
+        0x12835b0145706fbeL, 0x243185be4ee4b28cL, 0x550c7dc3d5ffb4e2L,
+        0x72be5d74f27b896fL, 0x80deb1fe3b1696b1L, 0x9bdc06a725c71235L,
+        0xc19bf174cf692694L, 0xe49b69c19ef14ad2L, 0xefbe4786384f25e3L,
+        0x0fc19dc68b8cd5b5L, 0x240ca1cc77ac9c65L, 0x2de92c6f592b0275L,
+        0x4a7484aa6ea6e483L, 0x5cb0a9dcbd41fbd4L, 0x76f988da831153b5L,
+        0x983e5152ee66dfabL, 0xa831c66d2db43210L, 0xb00327c898fb213fL,
+        0xbf597fc7beef0ee4L, 0xc6e00bf33da88fc2L, 0xd5a79147930aa725L,
+        0x06ca6351e003826fL, 0x142929670a0e6e70L, 0x27b70a8546d22ffcL,
+        0x2e1b21385c26c926L, 0x4d2c6dfc5ac42aedL, 0x53380d139d95b3dfL,
+        0x650a73548baf63deL, 0x766a0abb3c77b2a8L, 0x81c2c92e47edaee6L,
+        0x92722c851482353bL, 0xa2bfe8a14cf10364L, 0xa81a664bbc423001L,
+        0xc24b8b70d0f89791L, 0xc76c51a30654be30L, 0xd192e819d6ef5218L,
+        0xd69906245565a910L, 0xf40e35855771202aL, 0x106aa07032bbd1b8L,
+        0x19a4c116b8d2d0c8L, 0x1e376c085141ab53L, 0x2748774cdf8eeb99L,
+        0x34b0bcb5e19b48a8L, 0x391c0cb3c5c95a63L, 0x4ed8aa4ae3418acbL,
+        0x5b9cca4f7763e373L, 0x682e6ff3d6b2b8a3L, 0x748f82ee5defb2fcL,
+        0x78a5636f43172f60L, 0x84c87814a1f0ab72L, 0x8cc702081a6439ecL,
+        0x90befffa23631e28L, 0xa4506cebde82bde9L, 0xbef9a3f7b2c67915L,
+        0xc67178f2e372532bL, 0xca273eceea26619cL, 0xd186b8c721c0c207L,
+        0xeada7dd6cde0eb1eL, 0xf57d4f7fee6ed178L, 0x06f067aa72176fbaL,
+        0x0a637dc5a2c898a6L, 0x113f9804bef90daeL, 0x1b710b35131c471bL,
+        0x28db77f523047d84L, 0x32caab7b40c72493L, 0x3c9ebe0a15c9bebcL,
+        0x431d67c49c100d4cL, 0x4cc5d4becb3e42b6L, 0x597f299cfc657e2aL,
+        0x5fcb6fab3ad6faecL, 0x6c44198c4a475817L
+    };
+
+    private static final long[] IV = {
+        0x6a09e667f3bcc908L, 0xbb67ae8584caa73bL, 0x3c6ef372fe94f82bL, 0xa54ff53a5f1d36f1L,
+        0x510e527fade682d1L, 0x9b05688c2b3e6c1fL, 0x1f83d9abfb41bd6bL, 0x5be0cd19137e2179L
+    };
+
+    private final long[] innerState = new long[8];
+    private final long[] outerState = new long[8];
+    // message schedule, words 8 to 15 hold the padding of a 64 byte message between iterations
+    private final long[] w = new long[80];
+    private final long[] hash = new long[8];
+    private final long[] u = new long[8];
+    private final long[] t = new long[8];
+
+    HmacSha512(byte[] key) {
+        if (key.length > BLOCK_LENGTH) {
+            SHA512Digest digest = new SHA512Digest();
+            digest.update(key, 0, key.length);
+            key = new byte[LENGTH];
+            digest.doFinal(key, 0);
+        }
+
+        byte[] block = new byte[BLOCK_LENGTH];
+        System.arraycopy(key, 0, block, 0, key.length);
+
+        xor(block, (byte) 0x36);
+        System.arraycopy(IV, 0, innerState, 0, 8);
+        compressBlock(innerState, block, 0);
+
+        xor(block, (byte) (0x36 ^ 0x5c));
+        System.arraycopy(IV, 0, outerState, 0, 8);
+        compressBlock(outerState, block, 0);
+    }
+
+    @Override
+    int length() {
+        return LENGTH;
+    }
+
+    @Override
+    void pbkdf2Block(byte[] salt, int index, int c, byte[] out, int offset, int length) {
+        // U_1, the only MAC of a message of arbitrary length
+        System.arraycopy(innerState, 0, hash, 0, 8);
+        byte[] message = padded(salt, index);
+        for (int block = 0; block < message.length; block += BLOCK_LENGTH) {
+            compressBlock(hash, message, block);
+        }
+
+        w[8] = 0x8000000000000000L;
+        for (int i = 9; i < 15; i++) {
+            w[i] = 0;
+        }
+        w[15] = (BLOCK_LENGTH + LENGTH) * 8;
+
+        System.arraycopy(hash, 0, w, 0, 8);
+        compress(outerState, u);
+        System.arraycopy(u, 0, t, 0, 8);
+
+        for (int j = 1; j < c; j++) {
+            System.arraycopy(u, 0, w, 0, 8);
+            compress(innerState, hash);
+            System.arraycopy(hash, 0, w, 0, 8);
+            compress(outerState, u);
+
+            for (int i = 0; i < 8; i++) {
+                t[i] ^= u[i];
+            }
+        }
+
+        for (int i = 0; i < length; i++) {
+            out[offset + i] = (byte) (t[i >>> 3] >>> (56 - 8 * (i & 7)));
+        }
+    }
+
+    // salt || INT(index) with the SHA-512 padding, the key block before it counted in the length
+    private static byte[] padded(byte[] salt, int index) {
+        int messageLength = salt.length + 4;
+        byte[] message = new byte[(messageLength + 17 + BLOCK_LENGTH - 1) & -BLOCK_LENGTH];
+
+        System.arraycopy(salt, 0, message, 0, salt.length);
+        message[salt.length] = (byte) (index >>> 24);
+        message[salt.length + 1] = (byte) (index >>> 16);
+        message[salt.length + 2] = (byte) (index >>> 8);
+        message[salt.length + 3] = (byte) index;
+        message[messageLength] = (byte) 0x80;
+
+        long bits = (BLOCK_LENGTH + (long) messageLength) * 8;
+        for (int i = 0; i < 8; i++) {
+            message[message.length - 1 - i] = (byte) (bits >>> (8 * i));
+        }
+
+        return message;
+    }
+
+    private void compressBlock(long[] state, byte[] block, int offset) {
+        for (int i = 0; i < 16; i++) {
+            long word = 0;
+            for (int j = 0; j < 8; j++) {
+                word = (word << 8) | (block[offset + 8 * i + j] & 0xff);
+            }
+            w[i] = word;
+        }
+
+        compress(state, state);
+    }
+
+    // one SHA-512 compression of w[0..15] on top of state, state and result may be the same
+    private void compress(long[] state, long[] result) {
+        long[] w = this.w;
+
+        for (int i = 16; i < 80; i++) {
+            long w15 = w[i - 15];
+            long w2 = w[i - 2];
+            long s0 = Long.rotateRight(w15, 1) ^ Long.rotateRight(w15, 8) ^ (w15 >>> 7);
+            long s1 = Long.rotateRight(w2, 19) ^ Long.rotateRight(w2, 61) ^ (w2 >>> 6);
+            w[i] = w[i - 16] + s0 + w[i - 7] + s1;
+        }
+
+        long a = state[0];
+        long b = state[1];
+        long c = state[2];
+        long d = state[3];
+        long e = state[4];
+        long f = state[5];
+        long g = state[6];
+        long h = state[7];
+
+        for (int i = 0; i < 80; i++) {
+            long t1 =
+                    h
+                            + (Long.rotateRight(e, 14)
+                                    ^ Long.rotateRight(e, 18)
+                                    ^ Long.rotateRight(e, 41))
+                            + ((e & f) ^ (~e & g))
+                            + K[i]
+                            + w[i];
+            long t2 =
+                    (Long.rotateRight(a, 28) ^ Long.rotateRight(a, 34) ^ Long.rotateRight(a, 39))
+                            + ((a & b) ^ (a & c) ^ (b & c));
+            h = g;
+            g = f;
+            f = e;
+            e = d + t1;
+            d = c;
+            c = b;
+            b = a;
+            a = t1 + t2;
+        }
+
+        result[0] = state[0] + a;
+        result[1] = state[1] + b;
+        result[2] = state[2] + c;
+        result[3] = state[3] + d;
+        result[4] = state[4] + e;
+        result[5] = state[5] + f;
+        result[6] = state[6] + g;
+        result[7] = state[7] + h;
+    }
+}
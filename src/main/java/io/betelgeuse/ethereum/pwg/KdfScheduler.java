@@ -0,0 +1,286 @@
+package io.betelgeuse.ethereum.pwg;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Admission scheduler for keystore decryption.
+ *
+ * <p>Before a job starts, the scheduler reads its {@link WalletFile.ScryptKdfParams} and reserves
+ * the exact scrypt memory the job needs against a memory budget. Jobs run as soon as their
+ * reservation fits, as many at once as there are worker threads.
+ *
+ * <p>Jobs are admitted in submission order. When the oldest waiting job does not fit, smaller jobs
+ * behind it may overtake it, so a big-N keystore does not hold up cheap ones. Each waiting job
+ * can be overtaken at most {@link #MAX_OVERTAKES} times, after which admission stops until it
+ * fits, so big jobs are not starved either.
+ *
+ * <p>The time a job spends waiting for admission is reported separately from the time spent in
+ * the key derivation itself, see {@link Stats}.
+ */
+public class KdfScheduler {
+
+    public static final int MAX_OVERTAKES = 8;
+
+    private static final KdfScheduler DEFAULT =
+            new KdfScheduler(
+                    ScryptMemoryPool.getDefault(), Runtime.getRuntime().availableProcessors());
+
+    private final long memoryBudget;
+    private final int threads;
+    private final ScryptMemoryPool memoryPool;
+    private final ExecutorService executor;
+
+    private final Deque<Job> pending = new ArrayDeque<>();
+    private long reservedBytes = 0;
+    private long peakReservedBytes = 0;
+    private int running = 0;
+
+    private long jobs = 0;
+    private long totalWaitNanos = 0;
+    private long maxWaitNanos = 0;
+    private long totalComputeNanos = 0;
+
+    /**
+     * @param memoryBudget max number of bytes reserved by concurrently running jobs
+     * @param threads max number of concurrently running jobs
+     */
+    public KdfScheduler(long memoryBudget, int threads) {
+        this(new ScryptMemoryPool(memoryBudget, Long.MAX_VALUE), threads);
+    }
+
+    private KdfScheduler(ScryptMemoryPool memoryPool, int threads) {
+        if (threads <= 0) {
+            throw new IllegalArgumentException("Threads must be positive, threads=" + threads);
+        }
+
+        this.memoryBudget = memoryPool.getCapacity();
+        this.threads = threads;
+        this.memoryPool = memoryPool;
+        this.executor = Executors.newFixedThreadPool(threads, daemonThreads());
+    }
+
+    /** Scheduler shared by all keystore decryptions, backed by the default scrypt memory pool. */
+    public static KdfScheduler getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * Memory reserved for decrypting the provided wallet file: the scrypt working memory for
+     * scrypt keystores, nothing for pbkdf2 keystores.
+     */
+    public static long requiredMemory(WalletFile walletFile) {
+        WalletFile.Crypto crypto = walletFile.getCrypto();
+
+        if (crypto == null || !(crypto.getKdfparams() instanceof WalletFile.ScryptKdfParams)) {
+            return 0;
+        }
+
+        WalletFile.ScryptKdfParams params = (WalletFile.ScryptKdfParams) crypto.getKdfparams();
+
+        if (params.getN() <= 1 || params.getR() < 1 || params.getP() < 1) {
+            // invalid parameters are rejected by the key derivation itself
+            return 0;
+        }
+
+        return Wallet.scryptMemory(params.getN(), params.getR(), params.getP());
+    }
+
+    /** Queues the decryption of the provided wallet file. */
+    public CompletableFuture<ECKeyPair> submit(String password, WalletFile walletFile) {
+        Job job = new Job(password, walletFile, requiredMemory(walletFile));
+
+        synchronized (this) {
+            pending.addLast(job);
+            dispatch();
+        }
+
+        return job.future;
+    }
+
+    /** Decrypts the provided wallet file and waits for the result. */
+    public ECKeyPair decrypt(String password, WalletFile walletFile) throws CipherException {
+        try {
+            return submit(password, walletFile).get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+
+            if (cause instanceof CipherException) {
+                throw (CipherException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+
+            throw new CipherException(cause);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CipherException("Interrupted waiting for key derivation", e);
+        }
+    }
+
+    public synchronized Stats getStats() {
+        return new Stats(
+                jobs, totalWaitNanos, maxWaitNanos, totalComputeNanos, peakReservedBytes);
+    }
+
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    // caller must hold the lock
+    private void dispatch() {
+        Job blocked = null;
+        Iterator<Job> iterator = pending.iterator();
+
+        while (running < threads && iterator.hasNext()) {
+            Job job = iterator.next();
+
+            // a job bigger than the whole budget runs alone
+            if (reservedBytes + job.memory <= memoryBudget || running == 0) {
+                if (blocked != null) {
+                    blocked.overtakes++;
+                }
+
+                iterator.remove();
+                start(job);
+            } else if (blocked == null) {
+                blocked = job;
+
+                if (blocked.overtakes >= MAX_OVERTAKES) {
+                    break;
+                }
+            }
+        }
+    }
+
+    // caller must hold the lock
+    private void start(Job job) {
+        reservedBytes += job.memory;
+        peakReservedBytes = Math.max(peakReservedBytes, reservedBytes);
+        running++;
+
+        executor.execute(() -> run(job));
+    }
+
+    private void run(Job job) {
+        long started = System.nanoTime();
+        ECKeyPair keyPair = null;
+        Throwable failure = null;
+
+        try {
+            keyPair = Wallet.decrypt(job.password, job.walletFile, memoryPool);
+        } catch (Throwable e) {
+            failure = e;
+        }
+
+        // stats and reservation are settled before the caller sees the result
+        finish(job, started, System.nanoTime());
+
+        if (failure != null) {
+            job.future.completeExceptionally(failure);
+        } else {
+            job.future.complete(keyPair);
+        }
+    }
+
+    private synchronized void finish(Job job, long started, long finished) {
+        long waitNanos = started - job.submitted;
+
+        jobs++;
+        totalWaitNanos += waitNanos;
+        maxWaitNanos = Math.max(maxWaitNanos, waitNanos);
+        totalComputeNanos += finished - started;
+
+        reservedBytes -= job.memory;
+        running--;
+
+        dispatch();
+    }
+
+    private static ThreadFactory daemonThreads() {
+        return runnable -> {
+            Thread thread = Executors.defaultThreadFactory().newThread(runnable);
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private static class Job {
+        private final String password;
+        private final WalletFile walletFile;
+        private final long memory;
+        private final long submitted = System.nanoTime();
+        private final CompletableFuture<ECKeyPair> future = new CompletableFuture<>();
+        private int overtakes = 0;
+
+        private Job(String password, WalletFile walletFile, long memory) {
+            this.password = password;
+            this.walletFile = walletFile;
+            this.memory = memory;
+        }
+    }
+
+    /** Queue wait and compute times of all finished jobs and the peak memory reservation. */
+    public static class Stats {
+        private final long jobs;
+        private final long totalWaitNanos;
+        private final long maxWaitNanos;
+        private final long totalComputeNanos;
+        private final long peakReservedBytes;
+
+        private Stats(
+                long jobs,
+                long totalWaitNanos,
+                long maxWaitNanos,
+                long totalComputeNanos,
+                long peakReservedBytes) {
+            this.jobs = jobs;
+            this.totalWaitNanos = totalWaitNanos;
+            this.maxWaitNanos = maxWaitNanos;
+            this.totalComputeNanos = totalComputeNanos;
+            this.peakReservedBytes = peakReservedBytes;
+        }
+
+        public long getJobs() {
+            return jobs;
+        }
+
+        public double getAverageWaitMillis() {
+            return jobs == 0 ? 0 : totalWaitNanos / 1e6 / jobs;
+        }
+
+        public double getMaxWaitMillis() {
+            return maxWaitNanos / 1e6;
+        }
+
+        public double getAverageComputeMillis() {
+            return jobs == 0 ? 0 : totalComputeNanos / 1e6 / jobs;
+        }
+
+        /**
+         * Most memory reserved by jobs running at the same time. It stays within the budget,
+         * unless a single job bigger than the budget ran alone.
+         */
+        public long getPeakReservedBytes() {
+            return peakReservedBytes;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(
+                    "%d kdf jobs, queue wait avg %.1f ms / max %.1f ms, compute avg %.1f ms,"
+                            + " peak memory %d MB",
+                    jobs,
+                    getAverageWaitMillis(),
+                    getMaxWaitMillis(),
+                    getAverageComputeMillis(),
+                    peakReservedBytes >> 20);
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package io.betelgeuse.ethereum.pwg;
 
 import org.bouncycastle.jce.provider.BouncyCastleProvider;
+import org.bouncycastle.math.ec.ECPoint;
 
 import java.math.BigInteger;
 import java.security.*;
@@ -18,6 +19,7 @@ public class Keys {
 
     static final int PRIVATE_KEY_SIZE = 32;
     static final int PUBLIC_KEY_SIZE = 64;
+    static final int ADDRESS_SIZE_IN_BYTES = 20;
 
     public static final int ADDRESS_SIZE = 160;
     public static final int ADDRESS_LENGTH_IN_HEX = ADDRESS_SIZE >> 2;
@@ -77,8 +79,32 @@ public class Keys {
     }
 
     public static String getAddress(BigInteger publicKey) {
-        return getAddress(
-                Numeric.toHexStringWithPrefixZeroPadded(publicKey, PUBLIC_KEY_LENGTH_IN_HEX));
+        return Numeric.toHexStringNoPrefix(getAddressBytes(publicKey));
+    }
+
+    /**
+     * Derives the 20 byte address of a key pair without hex round-trips.
+     *
+     * @param ecKeyPair the key pair
+     * @return right most 160 bits of the Keccak-256 hash of the public key
+     */
+    public static byte[] getAddressBytes(ECKeyPair ecKeyPair) {
+        return getAddressBytes(ecKeyPair.getPublicKey());
+    }
+
+    public static byte[] getAddressBytes(BigInteger publicKey) {
+        return hashToAddress(Numeric.toBytesPadded(publicKey, PUBLIC_KEY_SIZE), 0);
+    }
+
+    /**
+     * Derives the 20 byte address of a public key point.
+     *
+     * @param publicPoint the public key point
+     * @return right most 160 bits of the Keccak-256 hash of the uncompressed point
+     */
+    public static byte[] getAddressBytes(ECPoint publicPoint) {
+        byte[] encoded = publicPoint.getEncoded(false);
+        return hashToAddress(encoded, 1); // skip the 0x04 prefix
     }
 
     public static String getAddress(String publicKey) {
@@ -94,18 +120,41 @@ public class Keys {
     }
 
     public static byte[] getAddress(byte[] publicKey) {
-        byte[] hash = Hash.sha3(publicKey);
-        return Arrays.copyOfRange(hash, hash.length - 20, hash.length); // right most 160 bits
+        byte[] hash = new byte[Hash.SHA3_LENGTH];
+        Hash.keccak256().update(publicKey).digestInto(hash, 0);
+        // right most 160 bits
+        return Arrays.copyOfRange(hash, Hash.SHA3_LENGTH - ADDRESS_SIZE_IN_BYTES, Hash.SHA3_LENGTH);
+    }
+
+    // hashes the public key in key[offset..offset+64) and writes the hash over it, the caller
+    // owns the array and has no further use for the key bytes
+    private static byte[] hashToAddress(byte[] key, int offset) {
+        Hash.keccak256().update(key, offset, PUBLIC_KEY_SIZE).digestInto(key, offset);
+        // right most 160 bits
+        return Arrays.copyOfRange(
+                key, offset + Hash.SHA3_LENGTH - ADDRESS_SIZE_IN_BYTES, offset + Hash.SHA3_LENGTH);
     }
 
     /**
      * Checksum address encoding as per <a
      * href="https://github.com/ethereum/EIPs/blob/master/EIPS/eip-55.md">EIP-55</a>.
      *
+     * <p>Input that is not 40 hex digits with an optional 0x prefix is not rejected, its hex
+     * digits are cased by the Keccak-256 hash of the lower case input as before.
+     *
      * @param address a valid hex encoded address
      * @return hex encoded checksum address
      */
     public static String toChecksumAddress(String address) {
+        try {
+            return AddressChecksum.forCurrentThread().encode(address);
+        } catch (IllegalArgumentException e) {
+            return toChecksumAddressLenient(address);
+        }
+    }
+
+    // the original encoding over hex strings, for input AddressChecksum does not accept
+    private static String toChecksumAddressLenient(String address) {
         String lowercaseAddress = Numeric.cleanHexPrefix(address).toLowerCase();
         String addressHash = Numeric.cleanHexPrefix(Hash.sha3String(lowercaseAddress));
 
@@ -124,6 +173,16 @@ public class Keys {
         return result.toString();
     }
 
+    /**
+     * Checksum address encoding of a binary address.
+     *
+     * @param address the 20 byte address
+     * @return hex encoded checksum address
+     */
+    public static String toChecksumAddress(byte[] address) {
+        return AddressChecksum.forCurrentThread().encode(address);
+    }
+
     public static byte[] serialize(ECKeyPair ecKeyPair) {
         byte[] privateKey = Numeric.toBytesPadded(ecKeyPair.getPrivateKey(), PRIVATE_KEY_SIZE);
         byte[] publicKey = Numeric.toBytesPadded(ecKeyPair.getPublicKey(), PUBLIC_KEY_SIZE);
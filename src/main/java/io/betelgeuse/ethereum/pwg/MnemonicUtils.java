@@ -1,14 +1,16 @@
 package io.betelgeuse.ethereum.pwg;
 
-import org.bouncycastle.crypto.digests.SHA512Digest;
-import org.bouncycastle.crypto.generators.PKCS5S2ParametersGenerator;
-import org.bouncycastle.crypto.params.KeyParameter;
-
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
-import java.util.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.StringTokenizer;
 
 import static io.betelgeuse.ethereum.pwg.Hash.sha256;
 import static java.nio.charset.StandardCharsets.UTF_8;
@@ -16,6 +18,9 @@ import static java.nio.charset.StandardCharsets.UTF_8;
 /**
  * Provides utility methods to generate random mnemonics and also generate seeds from mnemonics.
  *
+ * <p>Words are looked up in a hash index of the word list. The 11 bit word indexes are packed
+ * into and unpacked from the entropy bytes with shifts on an accumulator.
+ *
  * @see <a href="https://github.com/bitcoin/bips/blob/master/bip-0039.mediawiki">Mnemonic code for
  *     generating deterministic keys</a>
  */
@@ -23,7 +28,10 @@ public class MnemonicUtils {
 
     private static final int SEED_ITERATIONS = 2048;
     private static final int SEED_KEY_SIZE = 512;
-    private static List<String> WORD_LIST = null;
+    private static final int WORD_BITS = 11;
+    private static final int WORD_MASK = (1 << WORD_BITS) - 1;
+    private static volatile List<String> WORD_LIST = null;
+    private static volatile Map<String, Integer> WORD_INDEX = null;
 
     /**
      * The mnemonic must encode entropy in a multiple of 32 bits. With more entropy security is
@@ -49,12 +57,25 @@ public class MnemonicUtils {
         int checksumLength = ent / 32;
 
         byte checksum = calculateChecksum(initialEntropy);
-        boolean[] bits = convertToBits(initialEntropy, checksum);
 
-        int iterations = (ent + checksumLength) / 11;
-        StringBuilder mnemonicBuilder = new StringBuilder();
+        int iterations = (ent + checksumLength) / WORD_BITS;
+        StringBuilder mnemonicBuilder = new StringBuilder(iterations * 9);
+        // bits not yet turned into words, the lowest accumulatedBits bits of accumulator
+        int accumulator = 0;
+        int accumulatedBits = 0;
+        int next = 0;
+
         for (int i = 0; i < iterations; i++) {
-            int index = toInt(nextElevenBits(bits, i));
+            while (accumulatedBits < WORD_BITS) {
+                // the checksum bits follow the entropy, its unused low bits are zero
+                byte b = next < initialEntropy.length ? initialEntropy[next] : checksum;
+                next++;
+                accumulator = (accumulator << 8) | (b & 0xff);
+                accumulatedBits += 8;
+            }
+
+            accumulatedBits -= WORD_BITS;
+            int index = (accumulator >>> accumulatedBits) & WORD_MASK;
             mnemonicBuilder.append(words.get(index));
 
             boolean notLastIteration = i < iterations - 1;
@@ -74,8 +95,9 @@ public class MnemonicUtils {
      * @return Byte array representation of the entropy
      */
     public static byte[] generateEntropy(String mnemonic) {
-        final BitSet bits = new BitSet();
-        final int size = mnemonicToBits(mnemonic, bits);
+        final StringTokenizer words = new StringTokenizer(mnemonic, " ");
+        final int size = words.countTokens() * WORD_BITS;
+        final byte[] bits = mnemonicToBits(words, size);
         if (size == 0) {
             throw new IllegalArgumentException("Empty mnemonic");
         }
@@ -84,14 +106,11 @@ public class MnemonicUtils {
         if (ent % 8 != 0) {
             throw new IllegalArgumentException("Wrong mnemonic size");
         }
-        final byte[] entropy = new byte[ent / 8];
-        for (int i = 0; i < entropy.length; i++) {
-            entropy[i] = readByte(bits, i);
-        }
+        final byte[] entropy = Arrays.copyOf(bits, ent / 8);
         validateEntropy(entropy);
 
         final byte expectedChecksum = calculateChecksum(entropy);
-        final byte actualChecksum = readByte(bits, entropy.length);
+        final byte actualChecksum = bits[entropy.length];
         if (expectedChecksum != actualChecksum) {
             throw new IllegalArgumentException("Wrong checksum");
         }
@@ -101,11 +120,33 @@ public class MnemonicUtils {
 
     public static List<String> getWords() {
         if (WORD_LIST == null) {
-            WORD_LIST = Collections.unmodifiableList(populateWordList());
+            loadWords();
         }
         return WORD_LIST;
     }
 
+    private static Map<String, Integer> getWordIndex() {
+        if (WORD_INDEX == null) {
+            loadWords();
+        }
+        return WORD_INDEX;
+    }
+
+    private static synchronized void loadWords() {
+        if (WORD_INDEX != null) {
+            return;
+        }
+
+        List<String> words = populateWordList();
+        Map<String, Integer> index = new HashMap<>(2 * words.size());
+        for (int i = 0; i < words.size(); i++) {
+            index.put(words.get(i), i);
+        }
+
+        WORD_LIST = Collections.unmodifiableList(words);
+        WORD_INDEX = index;
+    }
+
     /**
      * To create a binary seed from the mnemonic, we use the PBKDF2 function with a mnemonic
      * sentence (in UTF-8 NFKD) used as the password and the string "mnemonic" + passphrase (again
@@ -124,10 +165,9 @@ public class MnemonicUtils {
         passphrase = passphrase == null ? "" : passphrase;
 
         String salt = String.format("mnemonic%s", passphrase);
-        PKCS5S2ParametersGenerator gen = new PKCS5S2ParametersGenerator(new SHA512Digest());
-        gen.init(mnemonic.getBytes(UTF_8), salt.getBytes(UTF_8), SEED_ITERATIONS);
 
-        return ((KeyParameter) gen.generateDerivedParameters(SEED_KEY_SIZE)).getKey();
+        return PBKDF.pbkdf2HmacSha512(
+                mnemonic.getBytes(UTF_8), salt.getBytes(UTF_8), SEED_ITERATIONS, SEED_KEY_SIZE / 8);
     }
 
     public static boolean validateMnemonic(String mnemonic) {
@@ -143,12 +183,6 @@ public class MnemonicUtils {
         return mnemonic == null || mnemonic.trim().isEmpty();
     }
 
-    private static boolean[] nextElevenBits(boolean[] bits, int i) {
-        int from = i * 11;
-        int to = from + 11;
-        return Arrays.copyOfRange(bits, from, to);
-    }
-
     private static void validateEntropy(byte[] entropy) {
         if (entropy == null) {
             throw new IllegalArgumentException("Entropy is required");
@@ -161,72 +195,40 @@ public class MnemonicUtils {
         }
     }
 
-    private static boolean[] convertToBits(byte[] initialEntropy, byte checksum) {
-        int ent = initialEntropy.length * 8;
-        int checksumLength = ent / 32;
-        int totalLength = ent + checksumLength;
-        boolean[] bits = new boolean[totalLength];
-
-        for (int i = 0; i < initialEntropy.length; i++) {
-            for (int j = 0; j < 8; j++) {
-                byte b = initialEntropy[i];
-                bits[8 * i + j] = toBit(b, j);
-            }
-        }
-
-        for (int i = 0; i < checksumLength; i++) {
-            bits[ent + i] = toBit(checksum, i);
-        }
-
-        return bits;
-    }
-
-    private static boolean toBit(byte value, int index) {
-        return ((value >>> (7 - index)) & 1) > 0;
-    }
-
-    private static int toInt(boolean[] bits) {
-        int value = 0;
-        for (int i = 0; i < bits.length; i++) {
-            boolean isSet = bits[i];
-            if (isSet) {
-                value += 1 << bits.length - i - 1;
-            }
-        }
+    /**
+     * Packs the word indexes, 11 bits each, into {@code size} bits. The last partial byte is
+     * filled up with zero bits.
+     */
+    private static byte[] mnemonicToBits(StringTokenizer tokenizer, int size) {
+        final Map<String, Integer> vocabulary = getWordIndex();
+        final byte[] bits = new byte[(size + 7) / 8];
 
-        return value;
-    }
+        int accumulator = 0;
+        int accumulatedBits = 0;
+        int next = 0;
 
-    private static int mnemonicToBits(String mnemonic, BitSet bits) {
-        int bit = 0;
-        final List<String> vocabulary = getWords();
-        final StringTokenizer tokenizer = new StringTokenizer(mnemonic, " ");
         while (tokenizer.hasMoreTokens()) {
             final String word = tokenizer.nextToken();
-            final int index = vocabulary.indexOf(word);
-            if (index < 0) {
+            final Integer index = vocabulary.get(word);
+            if (index == null) {
                 throw new IllegalArgumentException(
                         String.format("Mnemonic word '%s' should be in the word list", word));
             }
-            for (int k = 0; k < 11; k++) {
-                bits.set(bit++, isBitSet(index, 10 - k));
+
+            accumulator = (accumulator << WORD_BITS) | index;
+            accumulatedBits += WORD_BITS;
+
+            while (accumulatedBits >= 8) {
+                accumulatedBits -= 8;
+                bits[next++] = (byte) (accumulator >>> accumulatedBits);
             }
         }
-        return bit;
-    }
 
-    private static byte readByte(BitSet bits, int startByte) {
-        byte res = 0;
-        for (int k = 0; k < 8; k++) {
-            if (bits.get(startByte * 8 + k)) {
-                res = (byte) (res | (1 << (7 - k)));
-            }
+        if (accumulatedBits > 0) {
+            bits[next] = (byte) (accumulator << (8 - accumulatedBits));
         }
-        return res;
-    }
 
-    private static boolean isBitSet(int n, int k) {
-        return ((n >> k) & 1) == 1;
+        return bits;
     }
 
     public static byte calculateChecksum(byte[] initialEntropy) {
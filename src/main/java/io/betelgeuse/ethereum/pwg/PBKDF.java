@@ -10,9 +10,17 @@ import static java.lang.System.arraycopy;
  * An implementation of the Password-Based Key Derivation Function as specified
  * in RFC 2898.
  *
+ * <p>HMAC-SHA256 and HMAC-SHA512, the functions of pbkdf2 keystores and of BIP-39 seeds, run on
+ * an engine that computes the HMAC key states once per password, see {@link Pbkdf2Hmac}. Other
+ * algorithms use a {@link Mac}.
+ *
  * @author  Will Glozer
  */
 public class PBKDF {
+
+    public static final String HMAC_SHA256 = "HmacSHA256";
+    public static final String HMAC_SHA512 = "HmacSHA512";
+
     /**
      * Implementation of PBKDF2 (RFC2898).
      *
@@ -27,6 +35,13 @@ public class PBKDF {
      * @throws GeneralSecurityException
      */
     public static byte[] pbkdf2(String alg, byte[] P, byte[] S, int c, int dkLen) throws GeneralSecurityException {
+        if (HMAC_SHA256.equalsIgnoreCase(alg)) {
+            return pbkdf2HmacSha256(P, S, c, dkLen);
+        }
+        if (HMAC_SHA512.equalsIgnoreCase(alg)) {
+            return pbkdf2HmacSha512(P, S, c, dkLen);
+        }
+
         Mac mac = Mac.getInstance(alg);
         mac.init(new SecretKeySpec(P, alg));
         byte[] DK = new byte[dkLen];
@@ -34,6 +49,34 @@ public class PBKDF {
         return DK;
     }
 
+    /**
+     * PBKDF2 (RFC2898) with HMAC-SHA256, as used by pbkdf2 keystores and inside scrypt.
+     *
+     * @param   P       Password.
+     * @param   S       Salt.
+     * @param   c       Iteration count, at least 1.
+     * @param   dkLen   Intended length, in octets, of the derived key.
+     *
+     * @return  The derived key.
+     */
+    public static byte[] pbkdf2HmacSha256(byte[] P, byte[] S, int c, int dkLen) {
+        return Pbkdf2Hmac.sha256(P).pbkdf2(S, c, dkLen);
+    }
+
+    /**
+     * PBKDF2 (RFC2898) with HMAC-SHA512, as used for BIP-39 seeds.
+     *
+     * @param   P       Password.
+     * @param   S       Salt.
+     * @param   c       Iteration count, at least 1.
+     * @param   dkLen   Intended length, in octets, of the derived key.
+     *
+     * @return  The derived key.
+     */
+    public static byte[] pbkdf2HmacSha512(byte[] P, byte[] S, int c, int dkLen) {
+        return Pbkdf2Hmac.sha512(P).pbkdf2(S, c, dkLen);
+    }
+
     /**
      * Implementation of PBKDF2 (RFC2898).
      *
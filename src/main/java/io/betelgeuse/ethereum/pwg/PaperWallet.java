@@ -55,6 +55,14 @@ public class PaperWallet {
 		}
 	}
 
+	PaperWallet(String passPhrase, String pathToFile, Bip39Wallet wallet, Credentials credentials) {
+		this.passPhrase = passPhrase;
+		this.pathToFile = pathToFile;
+		this.fileName = wallet.getFilename();
+		this.mnemonic = wallet.getMnemonic();
+		this.credentials = credentials;
+	}
+
 	/**
 	 * EIP-1559 changed how Ethereum transaction fees are calculated and where those fees go.
 	 * Instead of a singular Gas Price, you now have to pay attention to three separate values:
@@ -97,6 +105,19 @@ public class PaperWallet {
 								  BigInteger maxPriorityFeePerGas,
 								  BigInteger maxFeePerGas) {
 
+		return signOfflineTx(toAddress, gasLimit, amountWei, nonce, maxPriorityFeePerGas, maxFeePerGas).getEncodedHex();
+	}
+
+	/**
+	 * Same as {@link #createOfflineTx}, the result also carries the signing and the transaction hash.
+	 */
+	public SignedTransaction signOfflineTx(String toAddress,
+								  BigInteger gasLimit,
+								  BigInteger amountWei,
+								  BigInteger nonce,
+								  BigInteger maxPriorityFeePerGas,
+								  BigInteger maxFeePerGas) {
+
 		RawTransaction rawTransaction  = RawTransaction.createEtherTransaction(
 				ChainIdLong.MAINNET,
 				nonce,
@@ -107,8 +128,7 @@ public class PaperWallet {
 				maxFeePerGas
 				);
 
-		byte[] signedMessage = TransactionEncoder.signMessage(rawTransaction, ChainIdLong.MAINNET, credentials);
-		return Numeric.toHexString(signedMessage);
+		return TransactionEncoder.signTransaction(rawTransaction, ChainIdLong.MAINNET, credentials);
 	}
 
 	public static String getPathToFileDefault() {
@@ -142,7 +162,7 @@ public class PaperWallet {
 		ECKeyPair keyPair;
 		
 		try {
-	        keyPair = Wallet.decrypt(passPhrase, walletFile);
+	        keyPair = KdfScheduler.getDefault().decrypt(passPhrase, walletFile);
 		} 
 		catch (Exception e) {
 			String message = e.getMessage();
@@ -255,7 +275,7 @@ public class PaperWallet {
 			throws IOException, CipherException {
 		ObjectMapper objectMapper = ObjectMapperFactory.getObjectMapper();
 		WalletFile walletFile = objectMapper.readValue(source, WalletFile.class);
-		return Credentials.create(Wallet.decrypt(password, walletFile));
+		return Credentials.create(KdfScheduler.getDefault().decrypt(password, walletFile));
 	}
 
 	public static Bip39Wallet generateWalletFile(
@@ -0,0 +1,61 @@
+package io.betelgeuse.ethereum.pwg;
+
+/**
+ * HMAC as pseudo random function of {@link PBKDF}, with the key states computed once.
+ *
+ * <p>Implementations keep the hash states after the inner (ipad) and the outer (opad) key block
+ * and continue every MAC from them, so a PBKDF2 iteration costs two compressions instead of the
+ * four of a {@link javax.crypto.Mac}, which hashes both key blocks again for every MAC. The U and
+ * T blocks live in buffers of the instance. Instances are not thread safe.
+ */
+abstract class Pbkdf2Hmac {
+
+    /** HMAC-SHA256 keyed with {@code key}. */
+    static Pbkdf2Hmac sha256(byte[] key) {
+        return new HmacSha256(key);
+    }
+
+    /** HMAC-SHA512 keyed with {@code key}. */
+    static Pbkdf2Hmac sha512(byte[] key) {
+        return new HmacSha512(key);
+    }
+
+    /** Length of the MAC in bytes. */
+    abstract int length();
+
+    /**
+     * Writes {@code length} bytes of PBKDF2 block {@code index}, the xor of the {@code c} chained
+     * MACs of {@code salt || INT(index)}, to {@code out} at {@code offset}.
+     */
+    abstract void pbkdf2Block(byte[] salt, int index, int c, byte[] out, int offset, int length);
+
+    /** The PBKDF2 key of {@code dkLen} bytes with the key of this HMAC as password. */
+    final byte[] pbkdf2(byte[] salt, int c, int dkLen) {
+        if (c < 1 || dkLen < 0) {
+            throw new IllegalArgumentException("Invalid iteration count or key length");
+        }
+
+        int hLen = length();
+        byte[] key = new byte[dkLen];
+
+        for (int i = 1, offset = 0; offset < dkLen; i++, offset += hLen) {
+            pbkdf2Block(salt, i, c, key, offset, Math.min(hLen, dkLen - offset));
+        }
+
+        return key;
+    }
+
+    /** INT(index), the block index as 4 byte big endian. */
+    static void writeIndex(int index, byte[] out, int offset) {
+        out[offset] = (byte) (index >>> 24);
+        out[offset + 1] = (byte) (index >>> 16);
+        out[offset + 2] = (byte) (index >>> 8);
+        out[offset + 3] = (byte) index;
+    }
+
+    static void xor(byte[] block, byte pad) {
+        for (int i = 0; i < block.length; i++) {
+            block[i] ^= pad;
+        }
+    }
+}
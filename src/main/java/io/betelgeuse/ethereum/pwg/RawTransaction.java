@@ -1,11 +1,14 @@
 package io.betelgeuse.ethereum.pwg;
 
+import io.betelgeuse.ethereum.transaction.AccessList;
 import io.betelgeuse.ethereum.transaction.ITransaction;
 import io.betelgeuse.ethereum.transaction.LegacyTransaction;
 import io.betelgeuse.ethereum.transaction.Transaction1559;
+import io.betelgeuse.ethereum.transaction.Transaction2930;
 import io.betelgeuse.ethereum.transaction.TransactionType;
 
 import java.math.BigInteger;
+import java.nio.ByteBuffer;
 
 /**
  * Transaction class used for signing transactions locally.<br>
@@ -41,6 +44,42 @@ public class RawTransaction {
                         nonce, gasPrice, gasLimit, value, init));
     }
 
+    /**
+     * Contract creation with binary init code, for example from {@link CallData#map}. The code
+     * is encoded and hashed straight from the buffer, without a hex copy.
+     */
+    public static RawTransaction createContractTransaction(
+            BigInteger nonce,
+            BigInteger gasPrice,
+            BigInteger gasLimit,
+            BigInteger value,
+            ByteBuffer init) {
+        return new RawTransaction(
+                LegacyTransaction.createContractTransaction(
+                        nonce, gasPrice, gasLimit, value, init));
+    }
+
+    /** EIP-1559 contract creation with binary init code, see above. */
+    public static RawTransaction createContractTransaction(
+            long chainId,
+            BigInteger nonce,
+            BigInteger gasLimit,
+            BigInteger value,
+            ByteBuffer init,
+            BigInteger maxPriorityFeePerGas,
+            BigInteger maxFeePerGas) {
+        return createTransaction(
+                chainId,
+                nonce,
+                gasLimit,
+                "",
+                value,
+                init,
+                maxPriorityFeePerGas,
+                maxFeePerGas,
+                AccessList.EMPTY);
+    }
+
     public static RawTransaction createEtherTransaction(
             BigInteger nonce,
             BigInteger gasPrice,
@@ -104,6 +143,87 @@ public class RawTransaction {
                         maxFeePerGas));
     }
 
+    public static RawTransaction createTransaction(
+            long chainId,
+            BigInteger nonce,
+            BigInteger gasLimit,
+            String to,
+            BigInteger value,
+            String data,
+            BigInteger maxPriorityFeePerGas,
+            BigInteger maxFeePerGas,
+            AccessList accessList) {
+
+        return new RawTransaction(
+                Transaction1559.createTransaction(
+                        chainId,
+                        nonce,
+                        gasLimit,
+                        to,
+                        value,
+                        data,
+                        maxPriorityFeePerGas,
+                        maxFeePerGas,
+                        accessList));
+    }
+
+    /** EIP-1559 transaction with binary call data, encoded straight from the buffer. */
+    public static RawTransaction createTransaction(
+            long chainId,
+            BigInteger nonce,
+            BigInteger gasLimit,
+            String to,
+            BigInteger value,
+            ByteBuffer data,
+            BigInteger maxPriorityFeePerGas,
+            BigInteger maxFeePerGas,
+            AccessList accessList) {
+
+        return new RawTransaction(
+                Transaction1559.createTransaction(
+                        chainId,
+                        nonce,
+                        gasLimit,
+                        to,
+                        value,
+                        data,
+                        maxPriorityFeePerGas,
+                        maxFeePerGas,
+                        accessList));
+    }
+
+    /** EIP-2930 transaction, a gas price transaction with an access list. */
+    public static RawTransaction createTransaction(
+            long chainId,
+            BigInteger nonce,
+            BigInteger gasPrice,
+            BigInteger gasLimit,
+            String to,
+            BigInteger value,
+            String data,
+            AccessList accessList) {
+
+        return new RawTransaction(
+                Transaction2930.createTransaction(
+                        chainId, nonce, gasPrice, gasLimit, to, value, data, accessList));
+    }
+
+    /** EIP-2930 transaction with binary call data, encoded straight from the buffer. */
+    public static RawTransaction createTransaction(
+            long chainId,
+            BigInteger nonce,
+            BigInteger gasPrice,
+            BigInteger gasLimit,
+            String to,
+            BigInteger value,
+            ByteBuffer data,
+            AccessList accessList) {
+
+        return new RawTransaction(
+                new Transaction2930(
+                        chainId, nonce, gasPrice, gasLimit, to, value, data, accessList));
+    }
+
     public BigInteger getNonce() {
         return transaction.getNonce();
     }
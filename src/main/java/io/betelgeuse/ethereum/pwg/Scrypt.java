@@ -0,0 +1,216 @@
+package io.betelgeuse.ethereum.pwg;
+
+import org.bouncycastle.crypto.engines.Salsa20Engine;
+import org.bouncycastle.util.Pack;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Scrypt key derivation function as specified in <a href="https://tools.ietf.org/html/rfc7914">RFC
+ * 7914</a>.
+ *
+ * <p>The {@code p} ROMix lanes of scrypt are independent of each other. Unlike the Bouncy Castle
+ * {@link org.bouncycastle.crypto.generators.SCrypt} implementation, which runs them one after
+ * another, this implementation runs the lanes in parallel on the common fork-join pool. The
+ * output and the parameter validation are identical to the Bouncy Castle implementation.
+ *
+ * <p>The V array and block scratch space of each lane are borrowed from a {@link
+ * ScryptMemoryPool} instead of being allocated per invocation.
+ */
+public class Scrypt {
+
+    private static final int SALSA_ROUNDS = 8;
+
+    private Scrypt() {}
+
+    /**
+     * Generate a key using the scrypt key derivation function.
+     *
+     * @param P the bytes of the pass phrase.
+     * @param S the salt to use for this invocation.
+     * @param N CPU/Memory cost parameter. Must be larger than 1, a power of 2 and less than {@code
+     *     2^(128 * r / 8)}.
+     * @param r the block size, must be &gt;= 1.
+     * @param p Parallelization parameter. Must be a positive integer less than or equal to {@code
+     *     Integer.MAX_VALUE / (128 * r * 8)}.
+     * @param dkLen the length of the key to generate.
+     * @return the generated key.
+     */
+    public static byte[] generate(byte[] P, byte[] S, int N, int r, int p, int dkLen) {
+        return generate(P, S, N, r, p, dkLen, ScryptMemoryPool.getDefault());
+    }
+
+    /**
+     * Generate a key using the scrypt key derivation function, borrowing the working memory from
+     * the provided pool.
+     *
+     * @throws IllegalStateException if the pool could not provide the working memory in time
+     * @see #generate(byte[], byte[], int, int, int, int)
+     */
+    public static byte[] generate(
+            byte[] P, byte[] S, int N, int r, int p, int dkLen, ScryptMemoryPool pool) {
+        validate(P, S, N, r, p, dkLen);
+
+        int laneWords = r * 32;
+        byte[] bytes = singleIterationPBKDF2(P, S, p * laneWords * 4);
+        int[] B = new int[bytes.length >>> 2];
+
+        try {
+            Pack.littleEndianToInt(bytes, 0, B);
+            runLanes(B, N, r, p, pool);
+            Pack.intToLittleEndian(B, bytes, 0);
+
+            return singleIterationPBKDF2(P, bytes, dkLen);
+        } finally {
+            Arrays.fill(bytes, (byte) 0);
+            Arrays.fill(B, 0);
+        }
+    }
+
+    private static void validate(byte[] P, byte[] S, int N, int r, int p, int dkLen) {
+        if (P == null) {
+            throw new IllegalArgumentException("Passphrase P must be provided.");
+        }
+        if (S == null) {
+            throw new IllegalArgumentException("Salt S must be provided.");
+        }
+        if (N <= 1 || !isPowerOf2(N)) {
+            throw new IllegalArgumentException("Cost parameter N must be > 1 and a power of 2");
+        }
+        // Only value of r that cost (as an int) could be exceeded for is 1
+        if (r == 1 && N >= 65536) {
+            throw new IllegalArgumentException("Cost parameter N must be > 1 and < 65536.");
+        }
+        if (r < 1) {
+            throw new IllegalArgumentException("Block size r must be >= 1.");
+        }
+        int maxParallel = Integer.MAX_VALUE / (128 * r * 8);
+        if (p < 1 || p > maxParallel) {
+            throw new IllegalArgumentException(
+                    "Parallelisation parameter p must be >= 1 and <= "
+                            + maxParallel
+                            + " (based on block size r of "
+                            + r
+                            + ")");
+        }
+        if (dkLen < 1) {
+            throw new IllegalArgumentException("Generated key length dkLen must be >= 1.");
+        }
+        if (workspaceLength(N, r) > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException(
+                    "Cost parameter N and block size r exceed the max lane size: N="
+                            + N
+                            + ", r="
+                            + r);
+        }
+    }
+
+    /**
+     * Size of a lane workspace in ints: the {@code N} blocks of V followed by the X and Y blocks.
+     */
+    static long workspaceLength(int N, int r) {
+        return (N + 2L) * r * 32;
+    }
+
+    private static void runLanes(int[] B, int N, int r, int p, ScryptMemoryPool pool) {
+        int laneWords = r * 32;
+        // the pool either hands out all workspaces or takes back its reservation
+        int[][] workspaces = pool.acquire(p, (int) workspaceLength(N, r));
+
+        try {
+            if (p == 1) {
+                smix(B, 0, N, r, workspaces[0]);
+                return;
+            }
+
+            List<RecursiveAction> lanes = new ArrayList<>(p);
+            for (int i = 0; i < p; i++) {
+                int offset = i * laneWords;
+                int[] workspace = workspaces[i];
+                lanes.add(
+                        new RecursiveAction() {
+                            @Override
+                            protected void compute() {
+                                smix(B, offset, N, r, workspace);
+                            }
+                        });
+            }
+
+            ForkJoinTask.invokeAll(lanes);
+        } finally {
+            pool.release(workspaces);
+        }
+    }
+
+    /** ROMix of a single lane, reading from and writing back to {@code B[offset..]}. */
+    private static void smix(int[] B, int offset, int N, int r, int[] W) {
+        int laneWords = r * 32;
+        int xOffset = N * laneWords;
+        int yOffset = xOffset + laneWords;
+
+        int[] blockX1 = new int[16];
+        int[] blockX2 = new int[16];
+
+        System.arraycopy(B, offset, W, xOffset, laneWords);
+
+        int vOffset = 0;
+        for (int i = 0; i < N; i++) {
+            System.arraycopy(W, xOffset, W, vOffset, laneWords);
+            vOffset += laneWords;
+            blockMix(W, xOffset, yOffset, blockX1, blockX2, r);
+        }
+
+        int mask = N - 1;
+        for (int i = 0; i < N; i++) {
+            int j = W[yOffset - 16] & mask;
+            xor(W, xOffset, W, j * laneWords, laneWords);
+            blockMix(W, xOffset, yOffset, blockX1, blockX2, r);
+        }
+
+        System.arraycopy(W, xOffset, B, offset, laneWords);
+        Arrays.fill(blockX1, 0);
+        Arrays.fill(blockX2, 0);
+    }
+
+    private static void blockMix(int[] W, int xOffset, int yOffset, int[] X1, int[] X2, int r) {
+        int laneWords = r * 32;
+        System.arraycopy(W, xOffset + laneWords - 16, X1, 0, 16);
+
+        int bOffset = 0;
+        int yBlock = 0;
+        int halfLen = laneWords >>> 1;
+
+        for (int i = 2 * r; i > 0; --i) {
+            for (int k = 0; k < 16; k++) {
+                X2[k] = X1[k] ^ W[xOffset + bOffset + k];
+            }
+
+            Salsa20Engine.salsaCore(SALSA_ROUNDS, X2, X1);
+            System.arraycopy(X1, 0, W, yOffset + yBlock, 16);
+
+            // even blocks go to the first half of Y, odd blocks to the second half
+            yBlock = halfLen + bOffset - yBlock;
+            bOffset += 16;
+        }
+
+        System.arraycopy(W, yOffset, W, xOffset, laneWords);
+    }
+
+    private static void xor(int[] a, int aOffset, int[] b, int bOffset, int length) {
+        for (int i = 0; i < length; i++) {
+            a[aOffset + i] ^= b[bOffset + i];
+        }
+    }
+
+    private static byte[] singleIterationPBKDF2(byte[] P, byte[] S, int dkLen) {
+        return PBKDF.pbkdf2HmacSha256(P, S, 1, dkLen);
+    }
+
+    private static boolean isPowerOf2(int x) {
+        return (x & (x - 1)) == 0;
+    }
+}
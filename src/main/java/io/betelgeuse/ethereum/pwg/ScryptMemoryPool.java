@@ -0,0 +1,253 @@
+package io.betelgeuse.ethereum.pwg;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bounded pool of scrypt working memory.
+ *
+ * <p>A standard keystore (N = 2^18, r = 8) needs a 256 MB V array per ROMix lane. Allocating it
+ * on every unlock and throwing it away right after causes full GCs, and overlapping unlocks can
+ * run out of heap. This pool hands out reusable {@code int[]} workspaces and keeps the bytes in
+ * use plus the bytes cached for reuse within a fixed capacity. Workspaces are zeroed when they
+ * are returned.
+ *
+ * <p>When the capacity is used up, callers wait for up to {@code maxWaitMillis} and then fail
+ * with an {@link IllegalStateException}. A wait of 0 fails fast. A request larger than the whole
+ * capacity is only served while nothing else is borrowed, and its memory is not cached.
+ *
+ * <p>A pool created with {@code retainIdle} keeps its cached workspaces until {@link #clear()} or
+ * until it is garbage collected itself. The {@link #getDefault() default pool} does not: once the
+ * last workspace is returned it drops its cache, so a single keystore unlock does not pin 256 MB
+ * for the life of the process. Batches that want reuse across consecutive runs on the default
+ * pool hold a {@link #retain() retention} for their duration.
+ */
+public class ScryptMemoryPool {
+
+    private static final ScryptMemoryPool DEFAULT =
+            new ScryptMemoryPool(Runtime.getRuntime().maxMemory() / 2, Long.MAX_VALUE, false);
+
+    private final long capacity;
+    private final long maxWaitMillis;
+    private final boolean retainIdle;
+
+    private final Map<Integer, ArrayDeque<int[]>> cached = new HashMap<>();
+    private long cachedBytes = 0;
+    private long inUseBytes = 0;
+    private int retentions = 0;
+
+    /**
+     * Pool that keeps its cached workspaces while idle.
+     *
+     * @param capacity max number of bytes borrowed and cached by this pool
+     * @param maxWaitMillis max time to wait for memory, 0 to fail fast
+     */
+    public ScryptMemoryPool(long capacity, long maxWaitMillis) {
+        this(capacity, maxWaitMillis, true);
+    }
+
+    /**
+     * @param capacity max number of bytes borrowed and cached by this pool
+     * @param maxWaitMillis max time to wait for memory, 0 to fail fast
+     * @param retainIdle keep cached workspaces when nothing is borrowed, otherwise they are
+     *     dropped as soon as the last workspace is returned and no retention is held
+     */
+    public ScryptMemoryPool(long capacity, long maxWaitMillis, boolean retainIdle) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive, capacity=" + capacity);
+        }
+
+        this.capacity = capacity;
+        this.maxWaitMillis = maxWaitMillis;
+        this.retainIdle = retainIdle;
+    }
+
+    /**
+     * Pool shared by all scrypt key derivations, sized to half of the max heap. It caches
+     * workspaces only while they are in use or a {@link #retain() retention} is held.
+     */
+    public static ScryptMemoryPool getDefault() {
+        return DEFAULT;
+    }
+
+    public long getCapacity() {
+        return capacity;
+    }
+
+    public synchronized long getInUseBytes() {
+        return inUseBytes;
+    }
+
+    public synchronized long getCachedBytes() {
+        return cachedBytes;
+    }
+
+    /**
+     * Keeps cached workspaces while the pool is idle, until the returned retention is closed. Meant
+     * for batches of consecutive key derivations, where the next run reuses the memory of the
+     * previous one.
+     */
+    public synchronized Retention retain() {
+        retentions++;
+        return new Retention();
+    }
+
+    /**
+     * Borrows {@code count} workspaces of {@code length} ints each. All workspaces are taken at
+     * once, so concurrent callers never hold part of what they need while waiting for the rest.
+     *
+     * @return the workspaces, to be handed back with {@link #release(int[][])}
+     * @throws IllegalStateException if the memory did not become available in time
+     */
+    public int[][] acquire(int count, int length) {
+        if (count < 0 || length < 0) {
+            throw new IllegalArgumentException(
+                    "Invalid workspaces: count=" + count + ", length=" + length);
+        }
+
+        long bytes = bytes(count, length);
+        long deadline = maxWaitMillis == Long.MAX_VALUE
+                ? Long.MAX_VALUE
+                : System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(maxWaitMillis);
+        int[][] workspaces = new int[count][];
+        int reused = 0;
+
+        synchronized (this) {
+            while (inUseBytes > 0 && inUseBytes + bytes > capacity) {
+                long remaining = deadline - System.nanoTime();
+
+                if (remaining <= 0) {
+                    throw new IllegalStateException(
+                            String.format(
+                                    "Scrypt memory budget exhausted: %d of %d bytes in use, %d bytes requested",
+                                    inUseBytes, capacity, bytes));
+                }
+
+                try {
+                    TimeUnit.NANOSECONDS.timedWait(this, remaining);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Interrupted waiting for scrypt memory", e);
+                }
+            }
+
+            inUseBytes += bytes;
+
+            ArrayDeque<int[]> free = cached.get(length);
+
+            while (reused < count && free != null && !free.isEmpty()) {
+                workspaces[reused++] = free.pop();
+                cachedBytes -= bytes(1, length);
+            }
+
+            evict(inUseBytes + cachedBytes - capacity);
+        }
+
+        // fresh workspaces are allocated outside of the lock, the budget is already reserved
+        int allocated = reused;
+
+        try {
+            for (; allocated < count; allocated++) {
+                workspaces[allocated] = new int[length];
+            }
+        } catch (Throwable e) {
+            // an OutOfMemoryError must not leave the reservation behind, later callers would
+            // wait for it forever
+            release(Arrays.copyOf(workspaces, allocated));
+
+            synchronized (this) {
+                inUseBytes -= bytes(count - allocated, length);
+                dropIfIdle();
+                notifyAll();
+            }
+
+            throw e;
+        }
+
+        return workspaces;
+    }
+
+    /** Zeroes the workspaces and hands them back for reuse. */
+    public void release(int[][] workspaces) {
+        long bytes = 0;
+
+        for (int[] workspace : workspaces) {
+            Arrays.fill(workspace, 0);
+            bytes += bytes(1, workspace.length);
+        }
+
+        synchronized (this) {
+            inUseBytes -= bytes;
+
+            for (int[] workspace : workspaces) {
+                long size = bytes(1, workspace.length);
+
+                if (inUseBytes + cachedBytes + size <= capacity) {
+                    cached.computeIfAbsent(workspace.length, k -> new ArrayDeque<>()).push(workspace);
+                    cachedBytes += size;
+                }
+            }
+
+            dropIfIdle();
+            notifyAll();
+        }
+    }
+
+    /** Drops all cached workspaces, leaving them to the garbage collector. */
+    public synchronized void clear() {
+        cached.clear();
+        cachedBytes = 0;
+    }
+
+    // caller must hold the lock
+    private void dropIfIdle() {
+        if (!retainIdle && inUseBytes == 0 && retentions == 0) {
+            clear();
+        }
+    }
+
+    private void evict(long excess) {
+        Iterator<Map.Entry<Integer, ArrayDeque<int[]>>> entries = cached.entrySet().iterator();
+
+        while (excess > 0 && entries.hasNext()) {
+            Map.Entry<Integer, ArrayDeque<int[]>> entry = entries.next();
+            ArrayDeque<int[]> free = entry.getValue();
+
+            while (excess > 0 && !free.isEmpty()) {
+                long size = bytes(1, free.pop().length);
+                cachedBytes -= size;
+                excess -= size;
+            }
+
+            if (free.isEmpty()) {
+                entries.remove();
+            }
+        }
+    }
+
+    private static long bytes(int count, int length) {
+        return 4L * count * length;
+    }
+
+    /** Keeps the cache of an idle pool until closed, see {@link #retain()}. */
+    public final class Retention implements AutoCloseable {
+        private boolean closed = false;
+
+        private Retention() {}
+
+        @Override
+        public void close() {
+            synchronized (ScryptMemoryPool.this) {
+                if (!closed) {
+                    closed = true;
+                    retentions--;
+                    dropIfIdle();
+                }
+            }
+        }
+    }
+}
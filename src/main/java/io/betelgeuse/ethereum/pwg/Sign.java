@@ -45,11 +45,7 @@ public class Sign {
     public static byte[] getEthereumMessageHash(byte[] message) {
         byte[] prefix = getEthereumMessagePrefix(message.length);
 
-        byte[] result = new byte[prefix.length + message.length];
-        System.arraycopy(prefix, 0, result, 0, prefix.length);
-        System.arraycopy(message, 0, result, prefix.length, message.length);
-
-        return Hash.sha3(result);
+        return Hash.keccak256().update(prefix).update(message).digest();
     }
 
     public static SignatureData signPrefixedMessage(byte[] message, ECKeyPair keyPair) {
@@ -61,7 +57,6 @@ public class Sign {
     }
 
     public static SignatureData signMessage(byte[] message, ECKeyPair keyPair, boolean needToHash) {
-        BigInteger publicKey = keyPair.getPublicKey();
         byte[] messageHash;
         if (needToHash) {
             messageHash = Hash.sha3(message);
@@ -70,16 +65,19 @@ public class Sign {
         }
 
         ECDSASignature sig = keyPair.sign(messageHash);
-        // Now we have to work backwards to figure out the recId needed to recover the signature.
-        int recId = -1;
-        for (int i = 0; i < 4; i++) {
-            BigInteger k = recoverFromSignature(i, sig, messageHash);
-            if (k != null && k.equals(publicKey)) {
-                recId = i;
-                break;
-            }
-        }
-        if (recId == -1) {
+        return createSignatureData(sig);
+    }
+
+    /**
+     * Creates the Ethereum signature data from a signature that carries its recovery id, as
+     * returned by {@link ECKeyPair#sign(byte[])}.
+     *
+     * @param sig the signature
+     * @return the signature data with header byte {@code 27 + recId}
+     */
+    static SignatureData createSignatureData(ECDSASignature sig) {
+        int recId = sig.getRecId();
+        if (recId < 0) {
             throw new RuntimeException(
                     "Could not construct a recoverable key. Are your credentials valid?");
         }
@@ -0,0 +1,93 @@
+package io.betelgeuse.ethereum.pwg;
+
+import io.betelgeuse.ethereum.transaction.ITransaction;
+import io.betelgeuse.ethereum.transaction.TransactionType;
+
+import java.security.SignatureException;
+
+import static io.betelgeuse.ethereum.pwg.SignatureDataOperations.CHAIN_ID_INC;
+import static io.betelgeuse.ethereum.pwg.SignatureDataOperations.LOWER_REAL_V;
+
+/**
+ * Transaction read back from its signed encoding, see {@link TransactionDecoder}.
+ *
+ * <p>The sender is not part of the encoding, it is recovered from the signature and the
+ * re-encoded signing payload.
+ */
+public class SignedRawTransaction extends RawTransaction {
+
+    private final Sign.SignatureData signatureData;
+    private final Long chainId;
+
+    /**
+     * @param transaction the decoded transaction
+     * @param signatureData the signature with v as encoded: 27/28, the EIP-155 value or, for
+     *     typed transactions, 27/28 derived from the y parity
+     * @param chainId chain id of the signature, null for legacy signatures without EIP-155
+     */
+    SignedRawTransaction(
+            ITransaction transaction, Sign.SignatureData signatureData, Long chainId) {
+        super(transaction);
+        this.signatureData = signatureData;
+        this.chainId = chainId;
+    }
+
+    public Sign.SignatureData getSignatureData() {
+        return signatureData;
+    }
+
+    /** Chain id the transaction was signed for, null for legacy signatures without EIP-155. */
+    public Long getChainId() {
+        return chainId;
+    }
+
+    /** Keccak-256 hash of the payload the sender signed. */
+    public byte[] getSigningHash() {
+        if (getType() == TransactionType.LEGACY && chainId != null) {
+            return Hash.sha3(TransactionEncoder.encode(this, chainId));
+        }
+
+        return Hash.sha3(TransactionEncoder.encode(this));
+    }
+
+    /**
+     * Recovers the sender address from the signature.
+     *
+     * @return 0x prefixed lower case address
+     * @throws SignatureException if no public key can be recovered from the signature
+     */
+    public String getFrom() throws SignatureException {
+        Sign.SignatureData recoverable =
+                new Sign.SignatureData(
+                        Sign.getVFromRecId(getRecId()), signatureData.getR(), signatureData.getS());
+
+        return Numeric.prependHexPrefix(
+                Keys.getAddress(Sign.signedMessageHashToKey(getSigningHash(), recoverable)));
+    }
+
+    /**
+     * Checks the recovered sender against the expected address.
+     *
+     * @param from expected sender, in any case with optional 0x prefix
+     * @throws SignatureException if the sender cannot be recovered or is not the expected one
+     */
+    public void verify(String from) throws SignatureException {
+        String actual = getFrom();
+
+        if (!Numeric.cleanHexPrefix(actual).equalsIgnoreCase(Numeric.cleanHexPrefix(from))) {
+            throw new SignatureException(
+                    String.format("Sender %s does not match expected sender %s", actual, from));
+        }
+    }
+
+    private int getRecId() {
+        long v = Numeric.toBigInt(signatureData.getV()).longValue();
+
+        // typed transactions sign the y parity, stored as 27/28
+        if (getType() != TransactionType.LEGACY || chainId == null) {
+            return (int) (v - LOWER_REAL_V);
+        }
+
+        return (int) (v - CHAIN_ID_INC - 2 * chainId);
+    }
+}
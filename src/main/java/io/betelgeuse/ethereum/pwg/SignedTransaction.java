@@ -0,0 +1,63 @@
+package io.betelgeuse.ethereum.pwg;
+
+/**
+ * Result of signing a transaction with {@link TransactionEncoder#signTransaction}: the signed
+ * encoding together with the hash that was signed and the transaction hash.
+ *
+ * <p>Both hashes are computed once while signing and kept, the getters return copies.
+ */
+public class SignedTransaction {
+
+    private final RawTransaction rawTransaction;
+    private final Sign.SignatureData signatureData;
+    private final byte[] encoded;
+    private final byte[] signingHash;
+    private final byte[] transactionHash;
+
+    SignedTransaction(
+            RawTransaction rawTransaction,
+            Sign.SignatureData signatureData,
+            byte[] encoded,
+            byte[] signingHash,
+            byte[] transactionHash) {
+        this.rawTransaction = rawTransaction;
+        this.signatureData = signatureData;
+        this.encoded = encoded;
+        this.signingHash = signingHash;
+        this.transactionHash = transactionHash;
+    }
+
+    public RawTransaction getRawTransaction() {
+        return rawTransaction;
+    }
+
+    /** The signature as encoded, v includes the EIP-155 chain id for legacy transactions. */
+    public Sign.SignatureData getSignatureData() {
+        return signatureData;
+    }
+
+    /** The signed transaction, as sent to the network. */
+    public byte[] getEncoded() {
+        return encoded.clone();
+    }
+
+    /** The signed transaction as 0x prefixed hex. */
+    public String getEncodedHex() {
+        return Numeric.toHexString(encoded);
+    }
+
+    /** Keccak-256 hash of the payload the sender signed. */
+    public byte[] getSigningHash() {
+        return signingHash.clone();
+    }
+
+    /** Keccak-256 hash of the signed transaction, the hash it is known by on chain. */
+    public byte[] getTransactionHash() {
+        return transactionHash.clone();
+    }
+
+    /** The transaction hash as 0x prefixed hex. */
+    public String getTransactionHashHex() {
+        return Numeric.toHexString(transactionHash);
+    }
+}
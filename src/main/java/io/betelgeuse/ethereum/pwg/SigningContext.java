@@ -0,0 +1,55 @@
+package io.betelgeuse.ethereum.pwg;
+
+import org.bouncycastle.crypto.digests.SHA256Digest;
+import org.bouncycastle.crypto.signers.HMacDSAKCalculator;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Signs hashes with one key, for callers that sign many of them.
+ *
+ * <p>A convenience, not a shortcut: the time of a signature is the scalar multiplication, whose
+ * table is already shared by all keys, so a context is no faster than {@link
+ * Sign#signMessage(byte[], ECKeyPair, boolean)}. Signatures are deterministic (RFC 6979) and
+ * identical to the ones of {@link ECKeyPair#sign(byte[])}.
+ */
+public class SigningContext {
+
+    private final ECKeyPair ecKeyPair;
+
+    public SigningContext(ECKeyPair ecKeyPair) {
+        this.ecKeyPair = ecKeyPair;
+    }
+
+    public ECKeyPair getEcKeyPair() {
+        return ecKeyPair;
+    }
+
+    /**
+     * Sign a hash with the private key of this context.
+     *
+     * @param hash the hash to sign
+     * @return the signature data including the recovery id header byte
+     */
+    public Sign.SignatureData sign(byte[] hash) {
+        return Sign.createSignatureData(ecKeyPair.sign(hash));
+    }
+
+    /**
+     * Sign a list of hashes with the private key of this context.
+     *
+     * @param hashes the hashes to sign
+     * @return the signature data in the order of the hashes
+     */
+    public List<Sign.SignatureData> sign(List<byte[]> hashes) {
+        HMacDSAKCalculator calculator = new HMacDSAKCalculator(new SHA256Digest());
+        List<Sign.SignatureData> signatures = new ArrayList<>(hashes.size());
+
+        for (byte[] hash : hashes) {
+            signatures.add(Sign.createSignatureData(ecKeyPair.sign(hash, calculator)));
+        }
+
+        return signatures;
+    }
+}
@@ -0,0 +1,232 @@
+package io.betelgeuse.ethereum.pwg;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Verifies a file of signed raw transactions on all cores.
+ *
+ * <p>Every non-blank line holds a hex encoded transaction, optionally followed by a comma and the
+ * expected sender address. Each transaction is decoded, its sender is recovered and compared
+ * with the expected sender of the line or, if the line has none, the expected sender of the
+ * batch. Lines are read and verified in chunks, the number of chunks in flight is bounded so the
+ * memory use does not grow with the file size.
+ *
+ * <p>Every non-blank line ends up as either verified or failed. A line that cannot be decoded,
+ * for whatever reason, is a failed line. If a chunk dies on a VM error before all of its lines are
+ * accounted for, the whole run fails instead of reporting the missing lines as neither.
+ */
+public class TransactionBatchVerifier {
+
+    public static final int CHUNK_SIZE = 256;
+    public static final int MAX_REPORTED_FAILURES = 100;
+
+    private final int threads;
+
+    public TransactionBatchVerifier() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    public TransactionBatchVerifier(int threads) {
+        if (threads <= 0) {
+            throw new IllegalArgumentException("Threads must be positive, threads=" + threads);
+        }
+
+        this.threads = threads;
+    }
+
+    /**
+     * @param file the transaction file
+     * @param expectedFrom sender expected for lines without their own, null to only check that a
+     *     sender can be recovered
+     * @return number of verified and failed transactions, the first failures and the throughput
+     * @throws IllegalStateException if not every non-blank line was verified or failed
+     * @throws IOException if the file cannot be read
+     * @throws InterruptedException if interrupted while waiting for the verification
+     */
+    public Report verifyFile(Path file, String expectedFrom)
+            throws IOException, InterruptedException {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        Semaphore inFlight = new Semaphore(2 * threads);
+        Report report = new Report();
+        AtomicReference<Throwable> chunkError = new AtomicReference<>();
+        long start = System.nanoTime();
+        long transactions = 0;
+
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            List<String> chunk = new ArrayList<>(CHUNK_SIZE);
+            long firstLine = 1;
+            long lineNumber = 0;
+            String line;
+
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                chunk.add(line);
+
+                if (!line.trim().isEmpty()) {
+                    transactions++;
+                }
+
+                if (chunk.size() == CHUNK_SIZE) {
+                    submit(pool, inFlight, chunk, firstLine, expectedFrom, report, chunkError);
+                    chunk = new ArrayList<>(CHUNK_SIZE);
+                    firstLine = lineNumber + 1;
+                }
+            }
+
+            submit(pool, inFlight, chunk, firstLine, expectedFrom, report, chunkError);
+
+            // all chunks are done once every permit is back
+            inFlight.acquire(2 * threads);
+        } finally {
+            pool.shutdown();
+        }
+
+        report.elapsedNanos = System.nanoTime() - start;
+
+        if (report.getVerified() + report.getFailed() != transactions) {
+            throw new IllegalStateException(
+                    String.format(
+                            "Only %d of %d transactions were verified or failed",
+                            report.getVerified() + report.getFailed(), transactions),
+                    chunkError.get());
+        }
+
+        return report;
+    }
+
+    private static void submit(
+            ExecutorService pool,
+            Semaphore inFlight,
+            List<String> chunk,
+            long firstLine,
+            String expectedFrom,
+            Report report,
+            AtomicReference<Throwable> chunkError)
+            throws InterruptedException {
+        inFlight.acquire();
+
+        pool.execute(
+                () -> {
+                    try {
+                        for (int i = 0; i < chunk.size(); i++) {
+                            verifyLine(chunk.get(i), firstLine + i, expectedFrom, report);
+                        }
+                    } catch (Throwable e) {
+                        // the rest of the chunk is lost, verifyFile sees the missing lines
+                        chunkError.compareAndSet(null, e);
+                    } finally {
+                        inFlight.release();
+                    }
+                });
+    }
+
+    private static void verifyLine(
+            String line, long lineNumber, String expectedFrom, Report report) {
+        String trimmed = line.trim();
+
+        if (trimmed.isEmpty()) {
+            return;
+        }
+
+        int comma = trimmed.indexOf(',');
+        String hexTransaction = comma < 0 ? trimmed : trimmed.substring(0, comma).trim();
+        String expected = comma < 0 ? expectedFrom : trimmed.substring(comma + 1).trim();
+
+        try {
+            RawTransaction transaction = TransactionDecoder.decode(hexTransaction);
+
+            if (!(transaction instanceof SignedRawTransaction)) {
+                report.failed(lineNumber, "transaction is not signed");
+                return;
+            }
+
+            SignedRawTransaction signed = (SignedRawTransaction) transaction;
+
+            if (expected != null && !expected.isEmpty()) {
+                signed.verify(expected);
+            } else {
+                signed.getFrom();
+            }
+
+            report.verified();
+        } catch (VirtualMachineError e) {
+            throw e;
+        } catch (Throwable e) {
+            report.failed(lineNumber, e.getMessage() != null ? e.getMessage() : e.toString());
+        }
+    }
+
+    /** Result of verifying a transaction file. */
+    public static class Report {
+        private long verified = 0;
+        private long failed = 0;
+        // first failures by line number, chunks finish in any order
+        private final TreeMap<Long, String> failures = new TreeMap<>();
+        private long elapsedNanos;
+
+        private Report() {}
+
+        private synchronized void verified() {
+            verified++;
+        }
+
+        private synchronized void failed(long lineNumber, String message) {
+            failed++;
+
+            if (failures.size() < MAX_REPORTED_FAILURES || lineNumber < failures.lastKey()) {
+                failures.put(lineNumber, message);
+
+                if (failures.size() > MAX_REPORTED_FAILURES) {
+                    failures.pollLastEntry();
+                }
+            }
+        }
+
+        public synchronized long getVerified() {
+            return verified;
+        }
+
+        public synchronized long getFailed() {
+            return failed;
+        }
+
+        /** Line number and reason of the first {@link #MAX_REPORTED_FAILURES} failures. */
+        public synchronized List<String> getFailures() {
+            List<String> result = new ArrayList<>(failures.size());
+
+            for (Map.Entry<Long, String> failure : failures.entrySet()) {
+                result.add(String.format("line %d: %s", failure.getKey(), failure.getValue()));
+            }
+
+            return Collections.unmodifiableList(result);
+        }
+
+        public double getSeconds() {
+            return elapsedNanos / 1e9;
+        }
+
+        public double getTransactionsPerSecond() {
+            return (getVerified() + getFailed()) / getSeconds();
+        }
+
+        @Override
+        public String toString() {
+            return String.format(
+                    "%d transactions verified, %d failed in %.2f s (%.0f transactions/s)",
+                    getVerified(), getFailed(), getSeconds(), getTransactionsPerSecond());
+        }
+    }
+}
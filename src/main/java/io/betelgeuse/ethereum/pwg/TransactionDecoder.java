@@ -0,0 +1,215 @@
+package io.betelgeuse.ethereum.pwg;
+
+import io.betelgeuse.ethereum.rlp.RlpDecoder;
+import io.betelgeuse.ethereum.rlp.RlpItem;
+import io.betelgeuse.ethereum.transaction.AccessList;
+import io.betelgeuse.ethereum.transaction.ITransaction;
+import io.betelgeuse.ethereum.transaction.LegacyTransaction;
+import io.betelgeuse.ethereum.transaction.Transaction1559;
+import io.betelgeuse.ethereum.transaction.Transaction2930;
+import io.betelgeuse.ethereum.transaction.TransactionType;
+
+import java.nio.ByteBuffer;
+
+import static io.betelgeuse.ethereum.pwg.SignatureDataOperations.CHAIN_ID_INC;
+import static io.betelgeuse.ethereum.pwg.SignatureDataOperations.LOWER_REAL_V;
+
+/**
+ * Reads back transactions encoded by {@link TransactionEncoder}: legacy transactions with or
+ * without EIP-155 replay protection and typed EIP-2930 (0x01) and EIP-1559 (0x02) transactions
+ * with their access lists.
+ *
+ * <p>Signed transactions are returned as {@link SignedRawTransaction}, which recovers the sender.
+ * Malformed input is rejected with an {@link IllegalArgumentException}.
+ */
+public class TransactionDecoder {
+
+    private static final int LEGACY_FIELDS = 6;
+    private static final int EIP2930_FIELDS = 8;
+    private static final int EIP1559_FIELDS = 9;
+    private static final int SIGNATURE_FIELDS = 3;
+    private static final int SIGNATURE_PART_SIZE = 32;
+
+    private TransactionDecoder() {}
+
+    /**
+     * Decodes a hex encoded transaction.
+     *
+     * @param hexTransaction the transaction with optional 0x prefix
+     * @return the transaction, a {@link SignedRawTransaction} if it carries a signature
+     */
+    public static RawTransaction decode(String hexTransaction) {
+        return decode(Numeric.hexStringToByteArray(hexTransaction));
+    }
+
+    /** @see #decode(String) */
+    public static RawTransaction decode(byte[] transaction) {
+        if (transaction.length == 0) {
+            throw new IllegalArgumentException("Empty transaction");
+        }
+
+        int first = transaction[0] & 0xff;
+
+        if (first >= 0xc0) {
+            return decodeLegacy(RlpDecoder.decode(transaction));
+        }
+
+        ByteBuffer payload = ByteBuffer.wrap(transaction, 1, transaction.length - 1);
+
+        if (transaction[0] == TransactionType.EIP1559.getRlpType()) {
+            return decode1559(RlpDecoder.decode(payload));
+        }
+        if (transaction[0] == TransactionType.EIP2930.getRlpType()) {
+            return decode2930(RlpDecoder.decode(payload));
+        }
+
+        throw new IllegalArgumentException(
+                String.format("Unsupported transaction type 0x%02x", first));
+    }
+
+    private static RawTransaction decodeLegacy(RlpItem values) {
+        checkFields(values, LEGACY_FIELDS, -1);
+
+        LegacyTransaction transaction =
+                new LegacyTransaction(
+                        values.get(0).asBigInteger(),
+                        values.get(1).asBigInteger(),
+                        values.get(2).asBigInteger(),
+                        toAddress(values.get(3)),
+                        values.get(4).asBigInteger(),
+                        Numeric.toHexString(values.get(5).getBytes()));
+
+        if (values.size() == LEGACY_FIELDS) {
+            return new RawTransaction(transaction);
+        }
+
+        byte[] v = values.get(6).getBytes();
+        long vValue = values.get(6).asLong();
+        Long chainId = null;
+
+        if (vValue >= CHAIN_ID_INC) {
+            chainId = (vValue - CHAIN_ID_INC) / 2;
+        } else if (vValue != LOWER_REAL_V && vValue != LOWER_REAL_V + 1) {
+            throw new IllegalArgumentException("Invalid signature v " + vValue);
+        }
+
+        return new SignedRawTransaction(
+                transaction,
+                new Sign.SignatureData(
+                        v, signaturePart(values.get(7)), signaturePart(values.get(8))),
+                chainId);
+    }
+
+    private static RawTransaction decode1559(RlpItem values) {
+        checkFields(values, EIP1559_FIELDS, 8);
+
+        long chainId = values.get(0).asLong();
+
+        Transaction1559 transaction =
+                new Transaction1559(
+                        chainId,
+                        values.get(1).asBigInteger(),
+                        values.get(4).asBigInteger(),
+                        toAddress(values.get(5)),
+                        values.get(6).asBigInteger(),
+                        Numeric.toHexString(values.get(7).getBytes()),
+                        values.get(2).asBigInteger(),
+                        values.get(3).asBigInteger(),
+                        AccessList.fromRlp(values.get(8)));
+
+        return typed(transaction, values, EIP1559_FIELDS, chainId);
+    }
+
+    private static RawTransaction decode2930(RlpItem values) {
+        checkFields(values, EIP2930_FIELDS, 7);
+
+        long chainId = values.get(0).asLong();
+
+        Transaction2930 transaction =
+                new Transaction2930(
+                        chainId,
+                        values.get(1).asBigInteger(),
+                        values.get(2).asBigInteger(),
+                        values.get(3).asBigInteger(),
+                        toAddress(values.get(4)),
+                        values.get(5).asBigInteger(),
+                        Numeric.toHexString(values.get(6).getBytes()),
+                        AccessList.fromRlp(values.get(7)));
+
+        return typed(transaction, values, EIP2930_FIELDS, chainId);
+    }
+
+    // typed transactions end with the y parity, r and s
+    private static RawTransaction typed(
+            ITransaction transaction, RlpItem values, int unsignedFields, long chainId) {
+        if (values.size() == unsignedFields) {
+            return new RawTransaction(transaction);
+        }
+
+        long yParity = values.get(unsignedFields).asLong();
+
+        if (yParity > 1) {
+            throw new IllegalArgumentException("Invalid signature y parity " + yParity);
+        }
+
+        return new SignedRawTransaction(
+                transaction,
+                new Sign.SignatureData(
+                        Sign.getVFromRecId((int) yParity),
+                        signaturePart(values.get(unsignedFields + 1)),
+                        signaturePart(values.get(unsignedFields + 2))),
+                chainId);
+    }
+
+    // accessListIndex is the field holding the access list, -1 if there is none
+    private static void checkFields(RlpItem values, int unsignedFields, int accessListIndex) {
+        if (!values.isList()) {
+            throw new IllegalArgumentException("Transaction must be an RLP list");
+        }
+
+        int size = values.size();
+
+        if (size != unsignedFields && size != unsignedFields + SIGNATURE_FIELDS) {
+            throw new IllegalArgumentException(
+                    String.format(
+                            "Transaction must have %d or %d fields, found %d",
+                            unsignedFields, unsignedFields + SIGNATURE_FIELDS, size));
+        }
+
+        for (int i = 0; i < size; i++) {
+            // the access list of typed transactions is the only nested list
+            if (values.get(i).isList() != (i == accessListIndex)) {
+                throw new IllegalArgumentException(
+                        i == accessListIndex
+                                ? "Access list must be a list"
+                                : "Unexpected list in transaction field " + i);
+            }
+        }
+    }
+
+    private static String toAddress(RlpItem item) {
+        int length = item.getLength();
+
+        if (length == 0) {
+            return "";
+        }
+        if (length != Keys.ADDRESS_SIZE_IN_BYTES) {
+            throw new IllegalArgumentException("Invalid to address length " + length);
+        }
+
+        return Numeric.toHexString(item.getBytes());
+    }
+
+    // r and s are encoded without leading zeros, recovery expects 32 bytes
+    private static byte[] signaturePart(RlpItem item) {
+        byte[] bytes = item.getBytes();
+
+        if (bytes.length > SIGNATURE_PART_SIZE) {
+            throw new IllegalArgumentException("Signature part exceeds 32 bytes");
+        }
+
+        byte[] result = new byte[SIGNATURE_PART_SIZE];
+        System.arraycopy(bytes, 0, result, SIGNATURE_PART_SIZE - bytes.length, bytes.length);
+        return result;
+    }
+}
@@ -3,6 +3,7 @@ package io.betelgeuse.ethereum.pwg;
 import io.betelgeuse.ethereum.rlp.RlpEncoder;
 import io.betelgeuse.ethereum.rlp.RlpList;
 import io.betelgeuse.ethereum.rlp.RlpType;
+import io.betelgeuse.ethereum.transaction.ITransaction;
 import io.betelgeuse.ethereum.transaction.TransactionType;
 
 import java.math.BigInteger;
@@ -12,6 +13,13 @@ import java.util.List;
 /**
  * Create RLP encoded transaction, implementation as per p4 of the <a
  * href="http://gavwood.com/paper.pdf">yellow paper</a>.
+ *
+ * <p>Signing encodes the unsigned fields once. The signing hash is computed over the list
+ * header, those fields and, for EIP-155, the chain id tail without joining them first, and the
+ * signed envelope is the same fields followed by the encoded v/r/s tail.
+ *
+ * <p>{@link #signTransaction} also returns the signing hash and the transaction hash, the
+ * latter costs one more Keccak-256 pass over the signed envelope.
  */
 public class TransactionEncoder {
 
@@ -19,26 +27,39 @@ public class TransactionEncoder {
     private static final int LOWER_REAL_V = 27;
 
     public static byte[] signMessage(RawTransaction rawTransaction, Credentials credentials) {
-        byte[] encodedTransaction = encode(rawTransaction);
-        Sign.SignatureData signatureData =
-                Sign.signMessage(encodedTransaction, credentials.getEcKeyPair());
-
-        return encode(rawTransaction, signatureData);
+        return sign(rawTransaction, null, credentials).encoded;
     }
 
     public static byte[] signMessage(
             RawTransaction rawTransaction, long chainId, Credentials credentials) {
+        return sign(rawTransaction, eip155ChainId(rawTransaction, chainId), credentials).encoded;
+    }
 
-        if (!rawTransaction.getType().equals(TransactionType.LEGACY)) {
-            return signMessage(rawTransaction, credentials);
-        }
+    /** Signs the transaction, see {@link SignedTransaction} for the result. */
+    public static SignedTransaction signTransaction(
+            RawTransaction rawTransaction, Credentials credentials) {
+        return signTransaction(rawTransaction, null, credentials);
+    }
 
-        byte[] encodedTransaction = encode(rawTransaction, chainId);
-        Sign.SignatureData signatureData =
-                Sign.signMessage(encodedTransaction, credentials.getEcKeyPair());
+    /**
+     * Signs the transaction for the given chain, with EIP-155 replay protection for legacy
+     * transactions, see {@link SignedTransaction} for the result.
+     */
+    public static SignedTransaction signTransaction(
+            RawTransaction rawTransaction, long chainId, Credentials credentials) {
+        return signTransaction(rawTransaction, eip155ChainId(rawTransaction, chainId), credentials);
+    }
 
-        Sign.SignatureData eip155SignatureData = createEip155SignatureData(signatureData, chainId);
-        return encode(rawTransaction, eip155SignatureData);
+    private static SignedTransaction signTransaction(
+            RawTransaction rawTransaction, Long chainId, Credentials credentials) {
+        Signature signature = sign(rawTransaction, chainId, credentials);
+
+        return new SignedTransaction(
+                rawTransaction,
+                signature.signatureData,
+                signature.encoded,
+                signature.signingHash,
+                Hash.sha3(signature.encoded));
     }
 
     @Deprecated
@@ -91,6 +112,65 @@ public class TransactionEncoder {
         return encoded;
     }
 
+    // typed transactions carry the chain id in their fields
+    private static Long eip155ChainId(RawTransaction rawTransaction, long chainId) {
+        return rawTransaction.getType().equals(TransactionType.LEGACY) ? chainId : null;
+    }
+
+    // chainId is only set for EIP-155 signatures of legacy transactions
+    private static Signature sign(
+            RawTransaction rawTransaction, Long chainId, Credentials credentials) {
+        ITransaction transaction = rawTransaction.getTransaction();
+        Byte type = rawTransaction.getType().getRlpType();
+
+        byte[] fields = RlpEncoder.encodeListPayload(transaction.asRlpValues(null));
+        byte[] signingTail = new byte[0];
+
+        if (chainId != null) {
+            // EIP-155: chain id and two empty strings take the place of v, r and s
+            Sign.SignatureData chainIdData =
+                    new Sign.SignatureData(longToBytes(chainId), new byte[] {}, new byte[] {});
+            signingTail =
+                    RlpEncoder.encodeListPayload(transaction.asSignatureRlpValues(chainIdData));
+        }
+
+        Hash.Keccak256 hasher = Hash.keccak256();
+        if (type != null) {
+            hasher.update(type.byteValue());
+        }
+        byte[] hash =
+                hasher.update(listHeader(fields.length + signingTail.length))
+                        .update(fields)
+                        .update(signingTail)
+                        .digest();
+
+        Sign.SignatureData signatureData = credentials.getSigningContext().sign(hash);
+        if (chainId != null) {
+            signatureData = createEip155SignatureData(signatureData, chainId);
+        }
+
+        byte[] tail = RlpEncoder.encodeListPayload(transaction.asSignatureRlpValues(signatureData));
+        int payloadLength = fields.length + tail.length;
+
+        ByteBuffer envelope =
+                ByteBuffer.allocate(
+                        (type != null ? 1 : 0)
+                                + RlpEncoder.listHeaderLength(payloadLength)
+                                + payloadLength);
+        if (type != null) {
+            envelope.put(type.byteValue());
+        }
+        RlpEncoder.encodeListHeader(payloadLength, envelope);
+
+        return new Signature(signatureData, envelope.put(fields).put(tail).array(), hash);
+    }
+
+    private static byte[] listHeader(int payloadLength) {
+        ByteBuffer header = ByteBuffer.allocate(RlpEncoder.listHeaderLength(payloadLength));
+        RlpEncoder.encodeListHeader(payloadLength, header);
+        return header.array();
+    }
+
     private static byte[] longToBytes(long x) {
         ByteBuffer buffer = ByteBuffer.allocate(Long.BYTES);
         buffer.putLong(x);
@@ -101,4 +181,17 @@ public class TransactionEncoder {
             RawTransaction rawTransaction, Sign.SignatureData signatureData) {
         return rawTransaction.getTransaction().asRlpValues(signatureData);
     }
+
+    // signed envelope, signature and signing hash, without the transaction hash
+    private static final class Signature {
+        private final Sign.SignatureData signatureData;
+        private final byte[] encoded;
+        private final byte[] signingHash;
+
+        private Signature(Sign.SignatureData signatureData, byte[] encoded, byte[] signingHash) {
+            this.signatureData = signatureData;
+            this.encoded = encoded;
+            this.signingHash = signingHash;
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,678 @@
+package io.betelgeuse.ethereum.pwg;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import io.betelgeuse.ethereum.transaction.AccessList;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Signs a stream of unsigned transaction requests, one JSON object per line.
+ *
+ * <p>A request has the fields {@code chainId}, {@code nonce}, {@code to}, {@code value}, {@code
+ * gasLimit}, {@code data} and either {@code maxPriorityFeePerGas} and {@code maxFeePerGas} for an
+ * EIP-1559 transaction or {@code gasPrice} for a legacy EIP-155 transaction. Quantities are
+ * decimal numbers or 0x prefixed hex strings. {@code to} may be omitted for contract creation and
+ * {@code value} and {@code data} default to zero and empty. An optional {@code accessList} of
+ * {@code {"address": ..., "storageKeys": [...]}} objects is added to EIP-1559 transactions and
+ * turns gas price transactions into EIP-2930 transactions.
+ *
+ * <p>Lines flow through the stages parse, validate, build, sign and serialize. Each stage runs on
+ * its own threads, the sign stage on several, and takes its input from a bounded queue, so a slow
+ * signer or a slow disk blocks the reader instead of filling the heap. Requests that fail to
+ * parse or validate are reported with their line number and skipped, the others are written in
+ * input order as {@code line,nonce,transaction,hash} lines.
+ */
+public class TransactionPipeline {
+
+    public static final String OUTPUT_HEADER = "line,nonce,transaction,hash";
+    public static final int QUEUE_CAPACITY_DEFAULT = 256;
+    public static final int MAX_REPORTED_FAILURES = 100;
+
+    // marks the end of the input, passed from stage to stage
+    private static final Item END = new Item(-1, -1, null);
+
+    private final Credentials credentials;
+    private final int signers;
+    private final int queueCapacity;
+
+    public TransactionPipeline(Credentials credentials) {
+        this(credentials, Runtime.getRuntime().availableProcessors(), QUEUE_CAPACITY_DEFAULT);
+    }
+
+    public TransactionPipeline(Credentials credentials, int signers, int queueCapacity) {
+        if (signers <= 0) {
+            throw new IllegalArgumentException("Signers must be positive, signers=" + signers);
+        }
+        if (queueCapacity <= 0) {
+            throw new IllegalArgumentException(
+                    "Queue capacity must be positive, queueCapacity=" + queueCapacity);
+        }
+
+        this.credentials = credentials;
+        this.signers = signers;
+        this.queueCapacity = queueCapacity;
+    }
+
+    /**
+     * Signs all requests of the input file.
+     *
+     * @param input the request file
+     * @param output the file for the signed transactions
+     * @return number of signed and failed requests, the first failures and per-stage statistics
+     * @throws IOException if a file cannot be read or written
+     * @throws InterruptedException if interrupted while waiting for the stages
+     */
+    public Report sign(Path input, Path output) throws IOException, InterruptedException {
+        Report report = new Report();
+        Failure failure = new Failure();
+        long start = System.nanoTime();
+
+        Stage parse = new Stage("parse", 1, TransactionPipeline::parse);
+        Stage validate = new Stage("validate", 1, TransactionPipeline::validate);
+        Stage build = new Stage("build", 1, TransactionPipeline::build);
+        Stage sign = new Stage("sign", signers, this::sign);
+        Stage serialize = new Stage("serialize", 1, null);
+        List<Stage> stages = Arrays.asList(parse, validate, build, sign, serialize);
+
+        try (BufferedReader reader = Files.newBufferedReader(input, StandardCharsets.UTF_8);
+                BufferedWriter writer = Files.newBufferedWriter(output, StandardCharsets.UTF_8)) {
+            writer.write(OUTPUT_HEADER);
+            writer.newLine();
+
+            failure.threads.add(
+                    new Thread(
+                            failure.guard(() -> read(reader, parse)), "pipeline-read"));
+
+            for (int i = 0; i < stages.size() - 1; i++) {
+                failure.threads.addAll(stages.get(i).workers(stages.get(i + 1), failure));
+            }
+
+            failure.threads.add(
+                    new Thread(
+                            failure.guard(() -> serialize(serialize, writer, report)),
+                            "pipeline-serialize"));
+
+            failure.threads.forEach(Thread::start);
+
+            try {
+                for (Thread thread : failure.threads) {
+                    thread.join();
+                }
+            } catch (InterruptedException e) {
+                failure.fail(e);
+                throw e;
+            }
+        }
+
+        rethrow(failure.error.get());
+
+        for (Stage stage : stages) {
+            report.stages.add(stage.statistics());
+        }
+
+        report.elapsedNanos = System.nanoTime() - start;
+        return report;
+    }
+
+    private static void read(BufferedReader reader, Stage parse)
+            throws IOException, InterruptedException {
+        long sequence = 0;
+        long lineNumber = 0;
+        String line;
+
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+
+            if (!line.trim().isEmpty()) {
+                parse.put(new Item(sequence++, lineNumber, line));
+            }
+        }
+
+        parse.put(END);
+    }
+
+    // the sign stage finishes items out of order, they are written in input order
+    private static void serialize(Stage stage, BufferedWriter writer, Report report)
+            throws IOException, InterruptedException {
+        TreeMap<Long, Item> pending = new TreeMap<>();
+        long next = 0;
+
+        for (Item item = stage.take(); item != END; item = stage.take()) {
+            long start = System.nanoTime();
+            pending.put(item.sequence, item);
+
+            while (!pending.isEmpty() && pending.firstKey() == next) {
+                Item head = pending.pollFirstEntry().getValue();
+                next++;
+
+                if (head.error != null) {
+                    report.failed(head.lineNumber, head.error);
+                    continue;
+                }
+
+                writer.write(Long.toString(head.lineNumber));
+                writer.write(',');
+                writer.write(head.transaction.getNonce().toString());
+                writer.write(',');
+                writer.write(head.signed.getEncodedHex());
+                writer.write(',');
+                writer.write(head.signed.getTransactionHashHex());
+                writer.newLine();
+                report.signed();
+            }
+
+            stage.processed(System.nanoTime() - start);
+        }
+    }
+
+    private static void parse(Item item) {
+        JsonNode node;
+
+        try {
+            node = ObjectMapperFactory.getObjectMapper().readTree(item.line);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Invalid JSON: " + e.getMessage(), e);
+        }
+
+        if (!node.isObject()) {
+            throw new IllegalArgumentException("Request must be a JSON object");
+        }
+
+        Request request = new Request();
+        request.chainId = quantity(node, "chainId");
+        request.nonce = quantity(node, "nonce");
+        request.to = text(node, "to");
+        request.value = quantity(node, "value");
+        request.gasLimit = quantity(node, "gasLimit");
+        request.gasPrice = quantity(node, "gasPrice");
+        request.maxPriorityFeePerGas = quantity(node, "maxPriorityFeePerGas");
+        request.maxFeePerGas = quantity(node, "maxFeePerGas");
+        request.data = text(node, "data");
+        request.accessList = accessList(node.get("accessList"));
+
+        item.request = request;
+        item.line = null;
+    }
+
+    private static void validate(Item item) {
+        Request request = item.request;
+
+        require(request.chainId, "chainId");
+        require(request.nonce, "nonce");
+        require(request.gasLimit, "gasLimit");
+
+        if (request.chainId.signum() == 0 || request.chainId.bitLength() > 63) {
+            throw new IllegalArgumentException("Invalid chainId " + request.chainId);
+        }
+
+        if (request.gasPrice != null) {
+            if (request.maxPriorityFeePerGas != null || request.maxFeePerGas != null) {
+                throw new IllegalArgumentException(
+                        "gasPrice cannot be combined with maxPriorityFeePerGas or maxFeePerGas");
+            }
+        } else {
+            require(request.maxPriorityFeePerGas, "maxPriorityFeePerGas");
+            require(request.maxFeePerGas, "maxFeePerGas");
+
+            if (request.maxPriorityFeePerGas.compareTo(request.maxFeePerGas) > 0) {
+                throw new IllegalArgumentException(
+                        "maxPriorityFeePerGas must not exceed maxFeePerGas");
+            }
+        }
+
+        if (!request.to.isEmpty()) {
+            AddressChecksum.Status status = AddressChecksum.forCurrentThread().check(request.to);
+
+            if (status == AddressChecksum.Status.INVALID_FORMAT
+                    || status == AddressChecksum.Status.INVALID_CHECKSUM) {
+                throw new IllegalArgumentException(
+                        String.format("Invalid to address %s (%s)", request.to, status));
+            }
+        }
+
+        String data = Numeric.cleanHexPrefix(request.data);
+
+        if (data.length() % 2 != 0) {
+            throw new IllegalArgumentException("data must have an even number of hex digits");
+        }
+        for (int i = 0; i < data.length(); i++) {
+            if (Character.digit(data.charAt(i), 16) < 0) {
+                throw new IllegalArgumentException("data is not hex encoded");
+            }
+        }
+    }
+
+    private static void build(Item item) {
+        Request request = item.request;
+        BigInteger value = request.value != null ? request.value : BigInteger.ZERO;
+
+        if (request.gasPrice != null && !request.accessList.isEmpty()) {
+            item.transaction =
+                    RawTransaction.createTransaction(
+                            request.chainId.longValue(),
+                            request.nonce,
+                            request.gasPrice,
+                            request.gasLimit,
+                            request.to,
+                            value,
+                            request.data,
+                            request.accessList);
+        } else if (request.gasPrice != null) {
+            item.transaction =
+                    RawTransaction.createTransaction(
+                            request.nonce,
+                            request.gasPrice,
+                            request.gasLimit,
+                            request.to,
+                            value,
+                            request.data);
+        } else {
+            item.transaction =
+                    RawTransaction.createTransaction(
+                            request.chainId.longValue(),
+                            request.nonce,
+                            request.gasLimit,
+                            request.to,
+                            value,
+                            request.data,
+                            request.maxPriorityFeePerGas,
+                            request.maxFeePerGas,
+                            request.accessList);
+        }
+    }
+
+    private void sign(Item item) {
+        item.signed =
+                TransactionEncoder.signTransaction(
+                        item.transaction, item.request.chainId.longValue(), credentials);
+        item.request = null;
+    }
+
+    private static BigInteger quantity(JsonNode node, String field) {
+        JsonNode value = node.get(field);
+
+        if (value == null || value.isNull()) {
+            return null;
+        }
+
+        BigInteger result;
+
+        try {
+            if (value.isIntegralNumber()) {
+                result = value.bigIntegerValue();
+            } else if (value.isTextual() && Numeric.containsHexPrefix(value.asText())) {
+                result = new BigInteger(Numeric.cleanHexPrefix(value.asText()), 16);
+            } else if (value.isTextual()) {
+                result = new BigInteger(value.asText());
+            } else {
+                throw new NumberFormatException();
+            }
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(
+                    String.format("Invalid %s %s", field, value), e);
+        }
+
+        if (result.signum() < 0) {
+            throw new IllegalArgumentException(String.format("Negative %s %s", field, result));
+        }
+
+        return result;
+    }
+
+    private static AccessList accessList(JsonNode node) {
+        if (node == null || node.isNull()) {
+            return AccessList.EMPTY;
+        }
+        if (!node.isArray()) {
+            throw new IllegalArgumentException("accessList must be an array");
+        }
+
+        AccessList.Builder builder = AccessList.builder();
+
+        for (JsonNode entry : node) {
+            JsonNode keys = entry.path("storageKeys");
+
+            if (!entry.path("address").isTextual() || !(keys.isArray() || keys.isMissingNode())) {
+                throw new IllegalArgumentException(
+                        "accessList entries must have an address and storageKeys");
+            }
+
+            String[] storageKeys = new String[keys.size()];
+
+            for (int i = 0; i < storageKeys.length; i++) {
+                storageKeys[i] = keys.get(i).asText();
+            }
+
+            builder.add(entry.get("address").asText(), storageKeys);
+        }
+
+        return builder.build();
+    }
+
+    private static String text(JsonNode node, String field) {
+        JsonNode value = node.get(field);
+        return value == null || value.isNull() ? "" : value.asText();
+    }
+
+    private static void require(BigInteger value, String field) {
+        if (value == null) {
+            throw new IllegalArgumentException("Missing " + field);
+        }
+    }
+
+    private static void rethrow(Throwable error) throws IOException, InterruptedException {
+        if (error == null) {
+            return;
+        }
+        if (error instanceof InterruptedException) {
+            throw (InterruptedException) error;
+        }
+        if (error instanceof IOException) {
+            throw (IOException) error;
+        }
+        if (error instanceof RuntimeException) {
+            throw (RuntimeException) error;
+        }
+        if (error instanceof Error) {
+            throw (Error) error;
+        }
+
+        throw new IllegalStateException(error);
+    }
+
+    /** Fields of a request, null for fields the request does not set. */
+    private static class Request {
+        private BigInteger chainId;
+        private BigInteger nonce;
+        private String to;
+        private BigInteger value;
+        private BigInteger gasLimit;
+        private BigInteger gasPrice;
+        private BigInteger maxPriorityFeePerGas;
+        private BigInteger maxFeePerGas;
+        private String data;
+        private AccessList accessList;
+    }
+
+    /** A request on its way through the stages, filled in stage by stage. */
+    private static class Item {
+        private final long sequence;
+        private final long lineNumber;
+        private String line;
+        private Request request;
+        private RawTransaction transaction;
+        private SignedTransaction signed;
+        private String error;
+
+        private Item(long sequence, long lineNumber, String line) {
+            this.sequence = sequence;
+            this.lineNumber = lineNumber;
+            this.line = line;
+        }
+    }
+
+    /** Work of a pipeline thread. */
+    private interface Task {
+        void run() throws Exception;
+    }
+
+    /** The threads of a run and the first error of any of them. */
+    private static class Failure {
+        private final List<Thread> threads = new ArrayList<>();
+        private final AtomicReference<Throwable> error = new AtomicReference<>();
+
+        // the first error stops all threads, whatever queue they are blocked on
+        private void fail(Throwable e) {
+            if (error.compareAndSet(null, e)) {
+                threads.forEach(Thread::interrupt);
+            }
+        }
+
+        private Runnable guard(Task task) {
+            return () -> {
+                try {
+                    task.run();
+                } catch (Throwable e) {
+                    fail(e);
+                }
+            };
+        }
+    }
+
+    /** Work of a stage on a single item. */
+    private interface Step {
+        void apply(Item item);
+    }
+
+    /** A step with its input queue, worker threads and statistics. */
+    private class Stage {
+        private final String name;
+        private final int workers;
+        private final Step step;
+        private final BlockingQueue<Item> queue = new ArrayBlockingQueue<>(queueCapacity);
+        private final AtomicInteger running = new AtomicInteger();
+        private final LongAdder items = new LongAdder();
+        private final LongAdder busyNanos = new LongAdder();
+        private final LongAdder depthSum = new LongAdder();
+        private final LongAdder depthSamples = new LongAdder();
+        private final AtomicInteger maxDepth = new AtomicInteger();
+
+        private Stage(String name, int workers, Step step) {
+            this.name = name;
+            this.workers = workers;
+            this.step = step;
+        }
+
+        private void put(Item item) throws InterruptedException {
+            queue.put(item);
+
+            // sampled by the producer after every put
+            int depth = queue.size();
+            depthSum.add(depth);
+            depthSamples.increment();
+            maxDepth.accumulateAndGet(depth, Math::max);
+        }
+
+        private Item take() throws InterruptedException {
+            return queue.take();
+        }
+
+        private void processed(long nanos) {
+            items.increment();
+            busyNanos.add(nanos);
+        }
+
+        private List<Thread> workers(Stage next, Failure failure) {
+            List<Thread> threads = new ArrayList<>(workers);
+            running.set(workers);
+
+            for (int i = 0; i < workers; i++) {
+                threads.add(
+                        new Thread(
+                                failure.guard(() -> work(next)),
+                                String.format("pipeline-%s-%d", name, i)));
+            }
+
+            return threads;
+        }
+
+        private void work(Stage next) throws InterruptedException {
+            for (Item item = take(); item != END; item = take()) {
+                long start = System.nanoTime();
+
+                if (item.error == null) {
+                    try {
+                        step.apply(item);
+                    } catch (IllegalArgumentException e) {
+                        item.error = String.format("%s: %s", name, e.getMessage());
+                    }
+                }
+
+                processed(System.nanoTime() - start);
+                next.put(item);
+            }
+
+            // the end marker goes back for the other workers, the last one passes it on
+            if (running.decrementAndGet() > 0) {
+                queue.put(END);
+            } else {
+                next.put(END);
+            }
+        }
+
+        private StageStatistics statistics() {
+            long samples = depthSamples.sum();
+
+            return new StageStatistics(
+                    name,
+                    workers,
+                    items.sum(),
+                    busyNanos.sum(),
+                    samples == 0 ? 0 : (double) depthSum.sum() / samples,
+                    maxDepth.get(),
+                    queueCapacity);
+        }
+    }
+
+    /** Items, busy time and input queue depth of a stage. */
+    public static class StageStatistics {
+        private final String name;
+        private final int workers;
+        private final long items;
+        private final long busyNanos;
+        private final double averageQueueDepth;
+        private final int maxQueueDepth;
+        private final int queueCapacity;
+
+        private StageStatistics(
+                String name,
+                int workers,
+                long items,
+                long busyNanos,
+                double averageQueueDepth,
+                int maxQueueDepth,
+                int queueCapacity) {
+            this.name = name;
+            this.workers = workers;
+            this.items = items;
+            this.busyNanos = busyNanos;
+            this.averageQueueDepth = averageQueueDepth;
+            this.maxQueueDepth = maxQueueDepth;
+            this.queueCapacity = queueCapacity;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public long getItems() {
+            return items;
+        }
+
+        /** Items per second of busy time, summed over the workers of the stage. */
+        public double getItemsPerSecond() {
+            return busyNanos == 0 ? 0 : items / (busyNanos / 1e9);
+        }
+
+        /** Average depth of the input queue, sampled whenever an item is queued. */
+        public double getAverageQueueDepth() {
+            return averageQueueDepth;
+        }
+
+        public int getMaxQueueDepth() {
+            return maxQueueDepth;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(
+                    "%-9s %2d worker(s) %8d items %10.0f items/s queue depth avg %.1f max %d/%d",
+                    name,
+                    workers,
+                    items,
+                    getItemsPerSecond(),
+                    averageQueueDepth,
+                    maxQueueDepth,
+                    queueCapacity);
+        }
+    }
+
+    /** Result of running a request file through the pipeline. */
+    public static class Report {
+        private long signed = 0;
+        private long failed = 0;
+        private final TreeMap<Long, String> failures = new TreeMap<>();
+        private final List<StageStatistics> stages = new ArrayList<>();
+        private long elapsedNanos;
+
+        private Report() {}
+
+        private void signed() {
+            signed++;
+        }
+
+        // called by the serializer only, in line order
+        private void failed(long lineNumber, String message) {
+            failed++;
+
+            if (failures.size() < MAX_REPORTED_FAILURES) {
+                failures.put(lineNumber, message);
+            }
+        }
+
+        public long getSigned() {
+            return signed;
+        }
+
+        public long getFailed() {
+            return failed;
+        }
+
+        /** Line number and reason of the first {@link #MAX_REPORTED_FAILURES} failures. */
+        public List<String> getFailures() {
+            List<String> result = new ArrayList<>(failures.size());
+
+            for (Map.Entry<Long, String> failure : failures.entrySet()) {
+                result.add(String.format("line %d: %s", failure.getKey(), failure.getValue()));
+            }
+
+            return Collections.unmodifiableList(result);
+        }
+
+        public List<StageStatistics> getStages() {
+            return Collections.unmodifiableList(stages);
+        }
+
+        public double getSeconds() {
+            return elapsedNanos / 1e9;
+        }
+
+        public double getTransactionsPerSecond() {
+            return signed / getSeconds();
+        }
+
+        @Override
+        public String toString() {
+            return String.format(
+                    "%d transactions signed, %d requests failed in %.2f s (%.0f transactions/s)",
+                    signed, failed, getSeconds(), getTransactionsPerSecond());
+        }
+    }
+}
@@ -1,10 +1,5 @@
 package io.betelgeuse.ethereum.pwg;
 
-import org.bouncycastle.crypto.digests.SHA256Digest;
-import org.bouncycastle.crypto.generators.PKCS5S2ParametersGenerator;
-import org.bouncycastle.crypto.generators.SCrypt;
-import org.bouncycastle.crypto.params.KeyParameter;
-
 import javax.crypto.BadPaddingException;
 import javax.crypto.Cipher;
 import javax.crypto.IllegalBlockSizeException;
@@ -25,7 +20,11 @@ import static java.nio.charset.StandardCharsets.UTF_8;
  * href="https://github.com/ethereum/go-ethereum/blob/master/accounts/key_store_passphrase.go">Go
  * Ethereum client implementation</a>.
  *
- * <p><strong>Note:</strong> the Bouncy Castle Scrypt implementation {@link SCrypt}, fails to comply
+ * <p>Scrypt keys are derived by {@link Scrypt}, which runs the ROMix lanes of multi-lane keystores
+ * (p &gt; 1) in parallel.
+ *
+ * <p><strong>Note:</strong> the Bouncy Castle Scrypt implementation {@link
+ * org.bouncycastle.crypto.generators.SCrypt}, mirrored by {@link Scrypt}, fails to comply
  * with the following Ethereum reference <a
  * href="https://github.com/ethereum/wiki/wiki/Web3-Secret-Storage-Definition#scrypt">Scrypt test
  * vector</a>:
@@ -124,9 +123,28 @@ public class Wallet {
         return walletFile;
     }
 
+    /**
+     * Estimates the working memory of a single scrypt run: the V array and scratch blocks of each
+     * of the p lanes running in parallel plus the {@code 128 * r * p} byte B block.
+     */
+    static long scryptMemory(int n, int r, int p) {
+        return 4L * p * Scrypt.workspaceLength(n, r) + 128L * r * p;
+    }
+
+    static long lightScryptMemory() {
+        return scryptMemory(N_LIGHT, R, P_LIGHT);
+    }
+
     private static byte[] generateDerivedScryptKey(
             byte[] password, byte[] salt, int n, int r, int p, int dkLen) throws CipherException {
-        return SCrypt.generate(password, salt, n, r, p, dkLen);
+        return generateDerivedScryptKey(
+                password, salt, n, r, p, dkLen, ScryptMemoryPool.getDefault());
+    }
+
+    private static byte[] generateDerivedScryptKey(
+            byte[] password, byte[] salt, int n, int r, int p, int dkLen, ScryptMemoryPool pool)
+            throws CipherException {
+        return Scrypt.generate(password, salt, n, r, p, dkLen, pool);
     }
 
     private static byte[] generateAes128CtrDerivedKey(
@@ -136,12 +154,11 @@ public class Wallet {
             throw new CipherException("Unsupported prf:" + prf);
         }
 
-        // Java 8 supports this, but you have to convert the password to a character array, see
-        // http://stackoverflow.com/a/27928435/3211687
+        if (c < 1) {
+            throw new CipherException("Invalid iteration count: " + c);
+        }
 
-        PKCS5S2ParametersGenerator gen = new PKCS5S2ParametersGenerator(new SHA256Digest());
-        gen.init(password, salt, c);
-        return ((KeyParameter) gen.generateDerivedParameters(256)).getKey();
+        return PBKDF.pbkdf2HmacSha256(password, salt, c, 32);
     }
 
     private static byte[] performCipherOperation(
@@ -165,15 +182,20 @@ public class Wallet {
     }
 
     private static byte[] generateMac(byte[] derivedKey, byte[] cipherText) {
-        byte[] result = new byte[16 + cipherText.length];
-
-        System.arraycopy(derivedKey, 16, result, 0, 16);
-        System.arraycopy(cipherText, 0, result, 16, cipherText.length);
-
-        return Hash.sha3(result);
+        return Hash.keccak256().update(derivedKey, 16, 16).update(cipherText).digest();
     }
 
     public static ECKeyPair decrypt(String password, WalletFile walletFile) throws CipherException {
+        return decrypt(password, walletFile, ScryptMemoryPool.getDefault());
+    }
+
+    /**
+     * Decrypts the wallet file, borrowing the scrypt working memory from the provided pool.
+     *
+     * @see KdfScheduler
+     */
+    public static ECKeyPair decrypt(String password, WalletFile walletFile, ScryptMemoryPool pool)
+            throws CipherException {
 
         validate(walletFile);
 
@@ -194,7 +216,8 @@ public class Wallet {
             int p = scryptKdfParams.getP();
             int r = scryptKdfParams.getR();
             byte[] salt = Numeric.hexStringToByteArray(scryptKdfParams.getSalt());
-            derivedKey = generateDerivedScryptKey(password.getBytes(UTF_8), salt, n, r, p, dklen);
+            derivedKey =
+                    generateDerivedScryptKey(password.getBytes(UTF_8), salt, n, r, p, dklen, pool);
         } else if (kdfParams instanceof WalletFile.Aes128CtrKdfParams) {
             WalletFile.Aes128CtrKdfParams aes128CtrKdfParams =
                     (WalletFile.Aes128CtrKdfParams) crypto.getKdfparams();
@@ -128,6 +128,36 @@ public class WalletUtils {
         return new Bip39Wallet(walletFile, mnemonic);
     }
 
+    /**
+     * Generates a BIP-39 wallet whose key is the first BIP-44 Ethereum account of the mnemonic,
+     * {@code m/44'/60'/0'/0/0}, the key other wallets restore from the same mnemonic. Unlike
+     * {@link #generateBip39Wallet} it does not hash the seed into a key.
+     *
+     * @param password Will be used for both wallet encryption and passphrase for BIP-39 seed
+     * @param destinationDirectory The directory containing the wallet
+     * @return A BIP-39 compatible Ethereum wallet
+     * @throws CipherException if the underlying cipher is not available
+     * @throws IOException if the destination cannot be written to
+     */
+    public static Bip39Wallet generateBip44Wallet(String password, File destinationDirectory)
+            throws CipherException, IOException {
+        byte[] initialEntropy = new byte[16];
+        secureRandom.nextBytes(initialEntropy);
+
+        String mnemonic = MnemonicUtils.generateMnemonic(initialEntropy);
+        ECKeyPair privateKey =
+                HdKeyChain.fromMnemonic(mnemonic, password).deriveAccountKeyPair(0);
+
+        String walletFile = generateWalletFile(password, privateKey, destinationDirectory, false);
+
+        return new Bip39Wallet(walletFile, mnemonic);
+    }
+
+    /** Credentials of the BIP-44 Ethereum account {@code m/44'/60'/0'/0/0} of a mnemonic. */
+    public static Credentials loadBip44Credentials(String password, String mnemonic) {
+        return HdKeyChain.fromMnemonic(mnemonic, password).getAccount(0);
+    }
+
     public static Credentials loadCredentials(String password, String source)
             throws IOException, CipherException {
         return loadCredentials(password, new File(source));
@@ -0,0 +1,53 @@
+package io.betelgeuse.ethereum.rlp;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+
+/**
+ * RLP string whose bytes are read from a {@link ByteBuffer}, for example a memory mapped file.
+ *
+ * <p>The bytes are copied once, straight into the encoding, and never into an intermediate
+ * array. The string covers the remaining bytes of the buffer when it is created, later changes
+ * of the buffer position do not affect it.
+ */
+public class RlpBufferString implements RlpEncodable {
+
+    private final ByteBuffer value;
+
+    public RlpBufferString(ByteBuffer value) {
+        this.value = value.slice().asReadOnlyBuffer();
+    }
+
+    /** Read-only view of the bytes of the string. */
+    public ByteBuffer getBuffer() {
+        return value.duplicate();
+    }
+
+    public int getLength() {
+        return value.remaining();
+    }
+
+    @Override
+    public int encodedLength() {
+        int length = value.remaining();
+        return isSingleByte() ? 1 : RlpEncoder.stringHeaderLength(length) + length;
+    }
+
+    @Override
+    public void encode(ByteBuffer out) {
+        if (out.remaining() < encodedLength()) {
+            throw new BufferOverflowException();
+        }
+
+        if (!isSingleByte()) {
+            RlpEncoder.encodeStringHeader(value.remaining(), out);
+        }
+
+        out.put(value.duplicate());
+    }
+
+    // a single byte in [0x00, 0x7f] is its own encoding
+    private boolean isSingleByte() {
+        return value.remaining() == 1 && value.get(0) >= 0;
+    }
+}
@@ -0,0 +1,265 @@
+package io.betelgeuse.ethereum.rlp;
+
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * Streaming reader over RLP encoded data.
+ *
+ * <p>The cursor walks the items of one nesting level at a time without creating objects. {@link
+ * #next()} moves to the next item of the current level, {@link #enter()} descends into the
+ * current list and {@link #exit()} skips the rest of the current list and returns to its parent.
+ * At the top level the cursor reads a sequence of concatenated items.
+ *
+ * <pre>
+ * RlpCursor cursor = RlpDecoder.cursor(encoded);
+ * cursor.next().enter();
+ * BigInteger nonce = cursor.next().asBigInteger();
+ * </pre>
+ *
+ * <p>Offsets are absolute indexes into the underlying buffer. Headers are validated as they are
+ * read, non-canonical encodings are rejected with an {@link IllegalArgumentException}, as are
+ * lists nested deeper than {@link #MAX_DEPTH}.
+ */
+public class RlpCursor {
+
+    /**
+     * Deepest list nesting accepted. Transactions nest four levels at most, the limit keeps
+     * recursive readers of hostile input off the end of the stack.
+     */
+    public static final int MAX_DEPTH = 64;
+
+    private final ByteBuffer buffer;
+
+    // ends[depth] is the end of the current level, the end of the input at depth 0
+    private int[] ends = new int[8];
+    private int depth = 0;
+    private int position;
+
+    private boolean current = false;
+    private boolean list;
+    private int encodedOffset;
+    private int offset;
+    private int length;
+
+    RlpCursor(ByteBuffer buffer) {
+        this.buffer = buffer;
+        this.position = buffer.position();
+        this.ends[0] = buffer.limit();
+    }
+
+    /** True if the current level has another item. */
+    public boolean hasNext() {
+        return position < ends[depth];
+    }
+
+    /**
+     * Moves to the next item of the current level.
+     *
+     * @return this cursor, positioned on the item
+     * @throws NoSuchElementException if the current level has no more items
+     * @throws IllegalArgumentException if the item header is invalid or not canonical
+     */
+    public RlpCursor next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException("No more RLP items at depth " + depth);
+        }
+
+        readHeader(position, ends[depth]);
+        position = offset + length;
+        current = true;
+        return this;
+    }
+
+    /**
+     * Descends into the current list, the next call to {@link #next()} returns its first item.
+     *
+     * @return this cursor
+     * @throws IllegalStateException if the cursor is not on a list
+     * @throws IllegalArgumentException if the list is nested deeper than {@link #MAX_DEPTH}
+     */
+    public RlpCursor enter() {
+        if (!current || !list) {
+            throw new IllegalStateException("Cursor is not on an RLP list");
+        }
+        if (depth == MAX_DEPTH) {
+            throw new IllegalArgumentException(
+                    "Invalid RLP: lists nested deeper than " + MAX_DEPTH + " at " + offset);
+        }
+
+        if (++depth == ends.length) {
+            ends = Arrays.copyOf(ends, depth * 2);
+        }
+
+        ends[depth] = offset + length;
+        position = offset;
+        current = false;
+        return this;
+    }
+
+    /**
+     * Skips the remaining items of the current list and returns to the level of the list.
+     *
+     * @return this cursor, positioned after the list
+     * @throws IllegalStateException if the cursor is at the top level
+     */
+    public RlpCursor exit() {
+        if (depth == 0) {
+            throw new IllegalStateException("Cursor is at the top level");
+        }
+
+        position = ends[depth--];
+        current = false;
+        return this;
+    }
+
+    /** Nesting level of the current item, 0 for top level items. */
+    public int getDepth() {
+        return depth;
+    }
+
+    public boolean isList() {
+        checkCurrent();
+        return list;
+    }
+
+    /** Offset of the payload of the current item. */
+    public int getOffset() {
+        checkCurrent();
+        return offset;
+    }
+
+    /** Length of the payload of the current item. */
+    public int getLength() {
+        checkCurrent();
+        return length;
+    }
+
+    /** Offset of the header of the current item. */
+    public int getEncodedOffset() {
+        checkCurrent();
+        return encodedOffset;
+    }
+
+    /** Length of header and payload of the current item. */
+    public int getEncodedLength() {
+        checkCurrent();
+        return offset + length - encodedOffset;
+    }
+
+    /** Read-only view of the payload of the current item, sharing the underlying buffer. */
+    public ByteBuffer slice() {
+        checkCurrent();
+        return RlpDecoder.slice(buffer, offset, length);
+    }
+
+    /** Copy of the payload of the current string. */
+    public byte[] getBytes() {
+        checkString();
+        return RlpDecoder.copy(buffer, offset, length);
+    }
+
+    /**
+     * Current string as a non-negative integer.
+     *
+     * @throws IllegalArgumentException if the integer has leading zero bytes
+     */
+    public BigInteger asBigInteger() {
+        checkString();
+        return RlpDecoder.toBigInteger(buffer, offset, length);
+    }
+
+    /**
+     * Current string as a non-negative integer of at most 8 bytes.
+     *
+     * @throws IllegalArgumentException if the integer has leading zero bytes or is too large
+     */
+    public long asLong() {
+        checkString();
+        return RlpDecoder.toLong(buffer, offset, length);
+    }
+
+    private void checkCurrent() {
+        if (!current) {
+            throw new IllegalStateException("Cursor is not on an RLP item, call next() first");
+        }
+    }
+
+    private void checkString() {
+        checkCurrent();
+
+        if (list) {
+            throw new IllegalStateException("Cursor is on an RLP list, not a string");
+        }
+    }
+
+    private void readHeader(int at, int end) {
+        int prefix = buffer.get(at) & 0xff;
+        encodedOffset = at;
+
+        if (prefix < 0x80) {
+            list = false;
+            offset = at;
+            length = 1;
+            return;
+        }
+
+        if (prefix <= 0xb7) {
+            list = false;
+            offset = at + 1;
+            length = prefix - 0x80;
+
+            if (length == 1 && offset < end && (buffer.get(offset) & 0xff) < 0x80) {
+                throw new IllegalArgumentException(
+                        "Non-canonical RLP: single byte below 0x80 with a header at " + at);
+            }
+        } else if (prefix < 0xc0) {
+            list = false;
+            offset = at + 1 + (prefix - 0xb7);
+            length = readLength(at, prefix - 0xb7, end);
+        } else if (prefix <= 0xf7) {
+            list = true;
+            offset = at + 1;
+            length = prefix - 0xc0;
+        } else {
+            list = true;
+            offset = at + 1 + (prefix - 0xf7);
+            length = readLength(at, prefix - 0xf7, end);
+        }
+
+        if ((long) offset + length > end) {
+            throw new IllegalArgumentException(
+                    "Invalid RLP: item at " + at + " exceeds its enclosing data");
+        }
+    }
+
+    private int readLength(int at, int lengthOfLength, int end) {
+        if (lengthOfLength > 4) {
+            throw new IllegalArgumentException("Invalid RLP: length of item at " + at + " is too big");
+        }
+        if (at + 1 + lengthOfLength > end) {
+            throw new IllegalArgumentException("Invalid RLP: truncated length of item at " + at);
+        }
+        if (buffer.get(at + 1) == 0) {
+            throw new IllegalArgumentException(
+                    "Non-canonical RLP: length with leading zeros at " + at);
+        }
+
+        long value = 0;
+        for (int i = 1; i <= lengthOfLength; i++) {
+            value = (value << 8) | (buffer.get(at + i) & 0xff);
+        }
+
+        if (value <= 55) {
+            throw new IllegalArgumentException(
+                    "Non-canonical RLP: long form used for short item at " + at);
+        }
+        if (value > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Invalid RLP: length of item at " + at + " is too big");
+        }
+
+        return (int) value;
+    }
+}
@@ -0,0 +1,138 @@
+package io.betelgeuse.ethereum.rlp;
+
+import java.math.BigInteger;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Recursive Length Prefix (RLP) decoder.
+ *
+ * <p>Decoding does not copy payloads. {@link #decode(byte[])} returns a tree of {@link RlpItem}
+ * views into the input, {@link #cursor(byte[])} walks the input item by item without creating
+ * objects at all. Both reject encodings that are truncated or not canonical: headers for single
+ * bytes below 0x80, long form headers for short items and lengths with leading zeros. Lists
+ * nested deeper than {@link RlpCursor#MAX_DEPTH} are rejected as well.
+ */
+public class RlpDecoder {
+
+    private RlpDecoder() {}
+
+    /**
+     * Decodes a single RLP item.
+     *
+     * @param encoded the encoded item, it must not be modified while the result is in use
+     * @return the item tree
+     * @throws IllegalArgumentException if the input is not exactly one valid, canonical item
+     */
+    public static RlpItem decode(byte[] encoded) {
+        return decode(ByteBuffer.wrap(encoded));
+    }
+
+    /**
+     * Decodes the single RLP item between position and limit of the buffer. The position of the
+     * buffer is not changed, offsets of the result are absolute indexes into the buffer.
+     *
+     * @see #decode(byte[])
+     */
+    public static RlpItem decode(ByteBuffer encoded) {
+        RlpCursor cursor = cursor(encoded);
+
+        if (!cursor.hasNext()) {
+            throw new IllegalArgumentException("Invalid RLP: empty input");
+        }
+
+        RlpItem item = read(cursor.next(), encoded);
+
+        if (cursor.hasNext()) {
+            throw new IllegalArgumentException("Invalid RLP: trailing bytes after item");
+        }
+
+        return item;
+    }
+
+    /** Streaming cursor over the encoded items. */
+    public static RlpCursor cursor(byte[] encoded) {
+        return new RlpCursor(ByteBuffer.wrap(encoded));
+    }
+
+    /**
+     * Streaming cursor over the encoded items between position and limit of the buffer. The
+     * position of the buffer is not changed.
+     */
+    public static RlpCursor cursor(ByteBuffer encoded) {
+        return new RlpCursor(encoded);
+    }
+
+    private static RlpItem read(RlpCursor cursor, ByteBuffer buffer) {
+        int encodedOffset = cursor.getEncodedOffset();
+        int offset = cursor.getOffset();
+        int length = cursor.getLength();
+
+        if (!cursor.isList()) {
+            return new RlpItem(buffer, encodedOffset, offset, length, null);
+        }
+
+        List<RlpItem> values = new ArrayList<>();
+
+        cursor.enter();
+        while (cursor.hasNext()) {
+            values.add(read(cursor.next(), buffer));
+        }
+        cursor.exit();
+
+        return new RlpItem(buffer, encodedOffset, offset, length, values);
+    }
+
+    static ByteBuffer slice(ByteBuffer buffer, int offset, int length) {
+        ByteBuffer view = buffer.asReadOnlyBuffer();
+        // Buffer methods, the ByteBuffer overrides only exist since Java 9
+        ((Buffer) view).limit(offset + length);
+        ((Buffer) view).position(offset);
+        return view.slice();
+    }
+
+    static byte[] copy(ByteBuffer buffer, int offset, int length) {
+        byte[] result = new byte[length];
+        ByteBuffer view = buffer.duplicate();
+
+        ((Buffer) view).position(offset);
+        view.get(result);
+        return result;
+    }
+
+    static BigInteger toBigInteger(ByteBuffer buffer, int offset, int length) {
+        if (length == 0) {
+            return BigInteger.ZERO;
+        }
+
+        checkNoLeadingZero(buffer, offset);
+        return new BigInteger(1, copy(buffer, offset, length));
+    }
+
+    static long toLong(ByteBuffer buffer, int offset, int length) {
+        if (length == 0) {
+            return 0;
+        }
+        if (length > 8 || (length == 8 && buffer.get(offset) < 0)) {
+            throw new IllegalArgumentException("RLP integer at " + offset + " does not fit a long");
+        }
+
+        checkNoLeadingZero(buffer, offset);
+
+        long value = 0;
+        for (int i = 0; i < length; i++) {
+            value = (value << 8) | (buffer.get(offset + i) & 0xff);
+        }
+
+        return value;
+    }
+
+    private static void checkNoLeadingZero(ByteBuffer buffer, int offset) {
+        if (buffer.get(offset) == 0) {
+            throw new IllegalArgumentException(
+                    "Non-canonical RLP: integer with leading zeros at " + offset);
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package io.betelgeuse.ethereum.rlp;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A value that writes its own RLP encoding.
+ *
+ * <p>For values with a fixed layout, such as lists of fixed size byte strings, that can be
+ * measured and written without building a tree of {@link RlpString} and {@link RlpList} first.
+ * {@link RlpEncoder} encodes them in place wherever they appear in a tree.
+ */
+public interface RlpEncodable extends RlpType {
+
+    /** Exact number of bytes of the encoding, header included. */
+    int encodedLength();
+
+    /** Writes {@link #encodedLength()} bytes of encoding at the position of {@code out}. */
+    void encode(ByteBuffer out);
+}
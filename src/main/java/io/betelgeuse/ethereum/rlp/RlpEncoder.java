@@ -1,5 +1,7 @@
 package io.betelgeuse.ethereum.rlp;
 
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
 import java.util.Arrays;
 import java.util.List;
 
@@ -8,84 +10,213 @@ import java.util.List;
  *
  * <p>For the specification, refer to p16 of the <a href="http://gavwood.com/paper.pdf">yellow
  * paper</a> and <a href="https://github.com/ethereum/wiki/wiki/RLP">here</a>.
+ *
+ * <p>Encoding runs in two passes. The first pass computes the exact encoded length of the whole
+ * tree and records the payload length of every list. The second pass writes headers and string
+ * bytes once into the target buffer, so no intermediate arrays are created per element.
  */
 public class RlpEncoder {
 
     private static final int OFFSET_SHORT_STRING = 0x80;
     private static final int OFFSET_SHORT_LIST = 0xc0;
+    private static final int MAX_SHORT_LENGTH = 55;
 
     public static byte[] encode(RlpType value) {
-        if (value instanceof RlpString) {
-            return encodeString((RlpString) value);
-        } else {
-            return encodeList((RlpList) value);
+        Sizes sizes = new Sizes();
+        byte[] result = new byte[measure(value, sizes)];
+
+        write(value, ByteBuffer.wrap(result), sizes);
+        return result;
+    }
+
+    /**
+     * Writes the encoding of {@code value} to {@code out} starting at {@code offset}.
+     *
+     * @return the number of bytes written
+     * @throws BufferOverflowException if the encoding does not fit, nothing is written then
+     */
+    public static int encode(RlpType value, byte[] out, int offset) {
+        return encode(value, ByteBuffer.wrap(out, offset, out.length - offset));
+    }
+
+    /**
+     * Writes the encoding of {@code value} at the position of {@code out} and advances the
+     * position.
+     *
+     * @return the number of bytes written
+     * @throws BufferOverflowException if the encoding does not fit, nothing is written then
+     */
+    public static int encode(RlpType value, ByteBuffer out) {
+        Sizes sizes = new Sizes();
+        int length = measure(value, sizes);
+
+        if (out.remaining() < length) {
+            throw new BufferOverflowException();
         }
+
+        write(value, out, sizes);
+        return length;
+    }
+
+    /** Exact number of bytes of the encoding of {@code value}. */
+    public static int encodedLength(RlpType value) {
+        return measure(value, new Sizes());
     }
 
-    private static byte[] encode(byte[] bytesValue, int offset) {
-        if (bytesValue.length == 1
-                && offset == OFFSET_SHORT_STRING
-                && bytesValue[0] >= (byte) 0x00
-                && bytesValue[0] <= (byte) 0x7f) {
-            return bytesValue;
-        } else if (bytesValue.length <= 55) {
-            byte[] result = new byte[bytesValue.length + 1];
-            result[0] = (byte) (offset + bytesValue.length);
-            System.arraycopy(bytesValue, 0, result, 1, bytesValue.length);
-            return result;
-        } else {
-            byte[] encodedStringLength = toMinimalByteArray(bytesValue.length);
-            byte[] result = new byte[bytesValue.length + encodedStringLength.length + 1];
-
-            result[0] = (byte) ((offset + 0x37) + encodedStringLength.length);
-            System.arraycopy(encodedStringLength, 0, result, 1, encodedStringLength.length);
-            System.arraycopy(
-                    bytesValue, 0, result, encodedStringLength.length + 1, bytesValue.length);
-            return result;
+    /**
+     * Encodes the payload of a list of the provided values, the concatenated encodings of the
+     * values without a list header.
+     */
+    public static byte[] encodeListPayload(List<RlpType> values) {
+        Sizes sizes = new Sizes();
+        int length = 0;
+
+        for (RlpType value : values) {
+            length = Math.addExact(length, measure(value, sizes));
+        }
+
+        ByteBuffer result = ByteBuffer.allocate(length);
+        for (RlpType value : values) {
+            write(value, result, sizes);
         }
+
+        return result.array();
+    }
+
+    /** Number of bytes of the header of a list with a payload of {@code payloadLength} bytes. */
+    public static int listHeaderLength(int payloadLength) {
+        return headerLength(payloadLength);
+    }
+
+    /**
+     * Writes the header of a list with a payload of {@code payloadLength} bytes, for callers that
+     * write the payload themselves.
+     */
+    public static void encodeListHeader(int payloadLength, ByteBuffer out) {
+        writeHeader(out, OFFSET_SHORT_LIST, payloadLength);
+    }
+
+    /** Number of bytes of the header of a string of {@code length} bytes, not a single byte. */
+    public static int stringHeaderLength(int length) {
+        return headerLength(length);
+    }
+
+    /**
+     * Writes the header of a string of {@code length} bytes, for callers that write the bytes
+     * themselves. Single bytes below 0x80 have no header, they are not covered.
+     */
+    public static void encodeStringHeader(int length, ByteBuffer out) {
+        writeHeader(out, OFFSET_SHORT_STRING, length);
     }
 
     static byte[] encodeString(RlpString value) {
-        return encode(value.getBytes(), OFFSET_SHORT_STRING);
+        return encode(value);
     }
 
-    private static byte[] toMinimalByteArray(int value) {
-        byte[] encoded = toByteArray(value);
+    static byte[] encodeList(RlpList value) {
+        return encode(value);
+    }
+
+    // first pass: returns the encoded length, list payload lengths are recorded in pre-order
+    private static int measure(RlpType value, Sizes sizes) {
+        if (value instanceof RlpString) {
+            byte[] bytes = ((RlpString) value).getBytes();
 
-        for (int i = 0; i < encoded.length; i++) {
-            if (encoded[i] != 0) {
-                return Arrays.copyOfRange(encoded, i, encoded.length);
+            if (isSingleByte(bytes)) {
+                return 1;
             }
+
+            return headerLength(bytes.length) + bytes.length;
         }
 
-        return new byte[] {};
-    }
+        if (value instanceof RlpEncodable) {
+            return ((RlpEncodable) value).encodedLength();
+        }
+
+        List<RlpType> values = ((RlpList) value).getValues();
+        int index = sizes.reserve();
+        int payload = 0;
 
-    private static byte[] toByteArray(int value) {
-        return new byte[] {
-            (byte) ((value >> 24) & 0xff),
-            (byte) ((value >> 16) & 0xff),
-            (byte) ((value >> 8) & 0xff),
-            (byte) (value & 0xff)
-        };
+        for (RlpType entry : values) {
+            payload = Math.addExact(payload, measure(entry, sizes));
+        }
+
+        sizes.set(index, payload);
+        return Math.addExact(headerLength(payload), payload);
     }
 
-    static byte[] encodeList(RlpList value) {
-        List<RlpType> values = value.getValues();
-        if (values.isEmpty()) {
-            return encode(new byte[] {}, OFFSET_SHORT_LIST);
-        } else {
-            byte[] result = new byte[0];
-            for (RlpType entry : values) {
-                result = concat(result, encode(entry));
+    // second pass: consumes the list payload lengths in the same order
+    private static void write(RlpType value, ByteBuffer out, Sizes sizes) {
+        if (value instanceof RlpString) {
+            byte[] bytes = ((RlpString) value).getBytes();
+
+            if (!isSingleByte(bytes)) {
+                writeHeader(out, OFFSET_SHORT_STRING, bytes.length);
             }
-            return encode(result, OFFSET_SHORT_LIST);
+
+            out.put(bytes);
+            return;
+        }
+
+        if (value instanceof RlpEncodable) {
+            ((RlpEncodable) value).encode(out);
+            return;
+        }
+
+        writeHeader(out, OFFSET_SHORT_LIST, sizes.next());
+
+        for (RlpType entry : ((RlpList) value).getValues()) {
+            write(entry, out, sizes);
         }
     }
 
-    private static byte[] concat(byte[] b1, byte[] b2) {
-        byte[] result = Arrays.copyOf(b1, b1.length + b2.length);
-        System.arraycopy(b2, 0, result, b1.length, b2.length);
-        return result;
+    // a single byte in [0x00, 0x7f] is its own encoding
+    private static boolean isSingleByte(byte[] bytes) {
+        return bytes.length == 1 && bytes[0] >= (byte) 0x00;
+    }
+
+    private static int headerLength(int length) {
+        return length <= MAX_SHORT_LENGTH ? 1 : 1 + minimalLength(length);
+    }
+
+    private static void writeHeader(ByteBuffer out, int offset, int length) {
+        if (length <= MAX_SHORT_LENGTH) {
+            out.put((byte) (offset + length));
+            return;
+        }
+
+        int lengthOfLength = minimalLength(length);
+        out.put((byte) ((offset + 0x37) + lengthOfLength));
+
+        for (int i = lengthOfLength - 1; i >= 0; i--) {
+            out.put((byte) (length >>> (8 * i)));
+        }
+    }
+
+    // number of bytes of the big endian representation of value without leading zeros
+    private static int minimalLength(int value) {
+        return (32 - Integer.numberOfLeadingZeros(value) + 7) / 8;
+    }
+
+    /** Payload lengths of the lists of a tree, in pre-order. */
+    private static class Sizes {
+        private int[] values = new int[8];
+        private int count = 0;
+        private int cursor = 0;
+
+        private int reserve() {
+            if (count == values.length) {
+                values = Arrays.copyOf(values, count * 2);
+            }
+            return count++;
+        }
+
+        private void set(int index, int value) {
+            values[index] = value;
+        }
+
+        private int next() {
+            return values[cursor++];
+        }
     }
 }
@@ -0,0 +1,133 @@
+package io.betelgeuse.ethereum.rlp;
+
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Decoded RLP item, a view into the encoded data.
+ *
+ * <p>Items keep offsets into the buffer they were decoded from instead of copies of their
+ * payload. The buffer must not be modified while items are in use.
+ */
+public class RlpItem {
+
+    private final ByteBuffer buffer;
+    private final int encodedOffset;
+    private final int offset;
+    private final int length;
+    private final List<RlpItem> values;
+
+    RlpItem(ByteBuffer buffer, int encodedOffset, int offset, int length, List<RlpItem> values) {
+        this.buffer = buffer;
+        this.encodedOffset = encodedOffset;
+        this.offset = offset;
+        this.length = length;
+        this.values = values;
+    }
+
+    public boolean isList() {
+        return values != null;
+    }
+
+    /**
+     * @return the items of this list
+     * @throws IllegalStateException if this item is a string
+     */
+    public List<RlpItem> getValues() {
+        if (values == null) {
+            throw new IllegalStateException("RLP item is a string, not a list");
+        }
+
+        return Collections.unmodifiableList(values);
+    }
+
+    /** Item of this list at the provided index. */
+    public RlpItem get(int index) {
+        return getValues().get(index);
+    }
+
+    /** Number of items of this list. */
+    public int size() {
+        return getValues().size();
+    }
+
+    /** Offset of the payload in the underlying buffer. */
+    public int getOffset() {
+        return offset;
+    }
+
+    /** Length of the payload. */
+    public int getLength() {
+        return length;
+    }
+
+    /** Offset of the header in the underlying buffer. */
+    public int getEncodedOffset() {
+        return encodedOffset;
+    }
+
+    /** Length of header and payload. */
+    public int getEncodedLength() {
+        return offset + length - encodedOffset;
+    }
+
+    /** Read-only view of the payload, sharing the underlying buffer. */
+    public ByteBuffer slice() {
+        return RlpDecoder.slice(buffer, offset, length);
+    }
+
+    /** Read-only view of header and payload, sharing the underlying buffer. */
+    public ByteBuffer encodedSlice() {
+        return RlpDecoder.slice(buffer, encodedOffset, getEncodedLength());
+    }
+
+    /** Copy of the payload of this string. */
+    public byte[] getBytes() {
+        checkString();
+        return RlpDecoder.copy(buffer, offset, length);
+    }
+
+    /**
+     * This string as a non-negative integer.
+     *
+     * @throws IllegalArgumentException if the integer has leading zero bytes
+     */
+    public BigInteger asBigInteger() {
+        checkString();
+        return RlpDecoder.toBigInteger(buffer, offset, length);
+    }
+
+    /**
+     * This string as a non-negative integer of at most 8 bytes.
+     *
+     * @throws IllegalArgumentException if the integer has leading zero bytes or is too large
+     */
+    public long asLong() {
+        checkString();
+        return RlpDecoder.toLong(buffer, offset, length);
+    }
+
+    /** Copies this item into the {@link RlpString} and {@link RlpList} types of the encoder. */
+    public RlpType toRlpType() {
+        if (values == null) {
+            return RlpString.create(getBytes());
+        }
+
+        List<RlpType> result = new ArrayList<>(values.size());
+
+        for (RlpItem value : values) {
+            result.add(value.toRlpType());
+        }
+
+        return new RlpList(result);
+    }
+
+    private void checkString() {
+        if (values != null) {
+            throw new IllegalStateException("RLP item is a list, not a string");
+        }
+    }
+}
@@ -0,0 +1,264 @@
+package io.betelgeuse.ethereum.transaction;
+
+import io.betelgeuse.ethereum.pwg.Numeric;
+import io.betelgeuse.ethereum.rlp.RlpEncodable;
+import io.betelgeuse.ethereum.rlp.RlpEncoder;
+import io.betelgeuse.ethereum.rlp.RlpItem;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * EIP-2930 access list: the addresses and storage keys a transaction declares up front.
+ *
+ * <p>Addresses are kept as 20 byte and storage keys as 32 byte arrays, packed per entry. The
+ * encoded length is computed once and the list writes its RLP encoding directly into the
+ * output, see {@link RlpEncodable}. Instances are immutable.
+ */
+public final class AccessList implements RlpEncodable {
+
+    public static final int ADDRESS_LENGTH = 20;
+    public static final int STORAGE_KEY_LENGTH = 32;
+
+    public static final AccessList EMPTY = new AccessList(new byte[0][], new byte[0][]);
+
+    // an address or a storage key is a string with a single byte header
+    private static final int ENCODED_ADDRESS_LENGTH = 1 + ADDRESS_LENGTH;
+    private static final int ENCODED_STORAGE_KEY_LENGTH = 1 + STORAGE_KEY_LENGTH;
+
+    private final byte[][] addresses;
+    // storage keys of entry i, packed, STORAGE_KEY_LENGTH bytes each
+    private final byte[][] storageKeys;
+    private final int[] entryPayloadLengths;
+    private final int payloadLength;
+
+    private AccessList(byte[][] addresses, byte[][] storageKeys) {
+        this.addresses = addresses;
+        this.storageKeys = storageKeys;
+        this.entryPayloadLengths = new int[addresses.length];
+
+        int payload = 0;
+
+        for (int i = 0; i < addresses.length; i++) {
+            int keysPayload = keysPayloadLength(storageKeys[i]);
+            entryPayloadLengths[i] =
+                    ENCODED_ADDRESS_LENGTH + RlpEncoder.listHeaderLength(keysPayload) + keysPayload;
+            payload =
+                    Math.addExact(
+                            payload,
+                            RlpEncoder.listHeaderLength(entryPayloadLengths[i])
+                                    + entryPayloadLengths[i]);
+        }
+
+        this.payloadLength = payload;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Reads an access list from its decoded RLP.
+     *
+     * @throws IllegalArgumentException if the item is not a list of [address, [storage keys]]
+     */
+    public static AccessList fromRlp(RlpItem item) {
+        if (!item.isList()) {
+            throw new IllegalArgumentException("Access list must be a list");
+        }
+
+        Builder builder = builder();
+
+        for (RlpItem entry : item.getValues()) {
+            if (!entry.isList() || entry.size() != 2) {
+                throw new IllegalArgumentException("Access list entry must be [address, keys]");
+            }
+
+            RlpItem address = entry.get(0);
+            RlpItem keys = entry.get(1);
+
+            if (address.isList() || !keys.isList()) {
+                throw new IllegalArgumentException("Access list entry must be [address, keys]");
+            }
+
+            byte[][] storageKeys = new byte[keys.size()][];
+
+            for (int i = 0; i < storageKeys.length; i++) {
+                if (keys.get(i).isList()) {
+                    throw new IllegalArgumentException("Storage key must be a string");
+                }
+                storageKeys[i] = keys.get(i).getBytes();
+            }
+
+            builder.add(address.getBytes(), storageKeys);
+        }
+
+        return builder.build();
+    }
+
+    /** Number of entries. */
+    public int size() {
+        return addresses.length;
+    }
+
+    public boolean isEmpty() {
+        return addresses.length == 0;
+    }
+
+    /** Address of entry {@code index}. */
+    public byte[] getAddress(int index) {
+        return addresses[index].clone();
+    }
+
+    /** Number of storage keys of entry {@code index}. */
+    public int getStorageKeyCount(int index) {
+        return storageKeys[index].length / STORAGE_KEY_LENGTH;
+    }
+
+    /** Storage key {@code key} of entry {@code index}. */
+    public byte[] getStorageKey(int index, int key) {
+        int offset = key * STORAGE_KEY_LENGTH;
+
+        if (key < 0 || offset >= storageKeys[index].length) {
+            throw new IndexOutOfBoundsException("Storage key " + key);
+        }
+
+        return Arrays.copyOfRange(storageKeys[index], offset, offset + STORAGE_KEY_LENGTH);
+    }
+
+    /** Number of storage keys of all entries. */
+    public int getStorageKeyCount() {
+        int count = 0;
+
+        for (byte[] keys : storageKeys) {
+            count += keys.length / STORAGE_KEY_LENGTH;
+        }
+
+        return count;
+    }
+
+    @Override
+    public int encodedLength() {
+        return RlpEncoder.listHeaderLength(payloadLength) + payloadLength;
+    }
+
+    @Override
+    public void encode(ByteBuffer out) {
+        if (out.remaining() < encodedLength()) {
+            throw new BufferOverflowException();
+        }
+
+        RlpEncoder.encodeListHeader(payloadLength, out);
+
+        for (int i = 0; i < addresses.length; i++) {
+            RlpEncoder.encodeListHeader(entryPayloadLengths[i], out);
+
+            RlpEncoder.encodeStringHeader(ADDRESS_LENGTH, out);
+            out.put(addresses[i]);
+
+            byte[] keys = storageKeys[i];
+            RlpEncoder.encodeListHeader(keysPayloadLength(keys), out);
+
+            for (int offset = 0; offset < keys.length; offset += STORAGE_KEY_LENGTH) {
+                RlpEncoder.encodeStringHeader(STORAGE_KEY_LENGTH, out);
+                out.put(keys, offset, STORAGE_KEY_LENGTH);
+            }
+        }
+    }
+
+    private static int keysPayloadLength(byte[] keys) {
+        return keys.length / STORAGE_KEY_LENGTH * ENCODED_STORAGE_KEY_LENGTH;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+
+        AccessList that = (AccessList) o;
+
+        return Arrays.deepEquals(addresses, that.addresses)
+                && Arrays.deepEquals(storageKeys, that.storageKeys);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Arrays.deepHashCode(addresses) + Arrays.deepHashCode(storageKeys);
+    }
+
+    /** Collects the entries of an access list. */
+    public static final class Builder {
+        private final List<byte[]> addresses = new ArrayList<>();
+        private final List<byte[]> storageKeys = new ArrayList<>();
+
+        private Builder() {}
+
+        /**
+         * Adds an entry.
+         *
+         * @param address 20 byte address
+         * @param storageKeys 32 byte storage keys
+         * @throws IllegalArgumentException if an address or a key has the wrong length
+         */
+        public Builder add(byte[] address, byte[]... storageKeys) {
+            if (address.length != ADDRESS_LENGTH) {
+                throw new IllegalArgumentException(
+                        "Address must have 20 bytes, found " + address.length);
+            }
+
+            byte[] keys = new byte[storageKeys.length * STORAGE_KEY_LENGTH];
+
+            for (int i = 0; i < storageKeys.length; i++) {
+                if (storageKeys[i].length != STORAGE_KEY_LENGTH) {
+                    throw new IllegalArgumentException(
+                            "Storage key must have 32 bytes, found " + storageKeys[i].length);
+                }
+                System.arraycopy(
+                        storageKeys[i], 0, keys, i * STORAGE_KEY_LENGTH, STORAGE_KEY_LENGTH);
+            }
+
+            this.addresses.add(address.clone());
+            this.storageKeys.add(keys);
+            return this;
+        }
+
+        /** Adds an entry from hex, see {@link #add(byte[], byte[]...)}. */
+        public Builder add(String address, String... storageKeys) {
+            byte[][] keys = new byte[storageKeys.length][];
+
+            for (int i = 0; i < keys.length; i++) {
+                keys[i] = fromHex(storageKeys[i]);
+            }
+
+            return add(fromHex(address), keys);
+        }
+
+        private static byte[] fromHex(String value) {
+            String hex = Numeric.cleanHexPrefix(value);
+
+            for (int i = 0; i < hex.length(); i++) {
+                if (Character.digit(hex.charAt(i), 16) < 0) {
+                    throw new IllegalArgumentException("Invalid hex " + value);
+                }
+            }
+
+            return Numeric.hexStringToByteArray(hex);
+        }
+
+        public AccessList build() {
+            if (addresses.isEmpty()) {
+                return EMPTY;
+            }
+
+            return new AccessList(
+                    addresses.toArray(new byte[0][]), storageKeys.toArray(new byte[0][]));
+        }
+    }
+}
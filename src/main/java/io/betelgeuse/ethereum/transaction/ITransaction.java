@@ -10,6 +10,9 @@ public interface ITransaction {
 
     List<RlpType> asRlpValues(Sign.SignatureData signatureData);
 
+    /** The signature fields appended to the values of {@link #asRlpValues} when signed. */
+    List<RlpType> asSignatureRlpValues(Sign.SignatureData signatureData);
+
     BigInteger getNonce();
 
     BigInteger getGasPrice();
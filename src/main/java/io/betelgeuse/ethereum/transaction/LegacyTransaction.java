@@ -3,10 +3,12 @@ package io.betelgeuse.ethereum.transaction;
 import io.betelgeuse.ethereum.pwg.Bytes;
 import io.betelgeuse.ethereum.pwg.Numeric;
 import io.betelgeuse.ethereum.pwg.Sign;
+import io.betelgeuse.ethereum.rlp.RlpBufferString;
 import io.betelgeuse.ethereum.rlp.RlpString;
 import io.betelgeuse.ethereum.rlp.RlpType;
 
 import java.math.BigInteger;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -27,6 +29,8 @@ public class LegacyTransaction implements ITransaction {
     private String to;
     private BigInteger value;
     private String data;
+    // binary call data, set instead of data
+    private ByteBuffer dataBuffer;
 
     public LegacyTransaction(
             BigInteger nonce,
@@ -55,6 +59,28 @@ public class LegacyTransaction implements ITransaction {
         this.data = data != null ? Numeric.cleanHexPrefix(data) : null;
     }
 
+    /**
+     * Transaction with binary call data, the remaining bytes of {@code data}. The bytes are not
+     * copied, they go straight into the encoding and must not change while the transaction is
+     * in use.
+     */
+    public LegacyTransaction(
+            TransactionType type,
+            BigInteger nonce,
+            BigInteger gasPrice,
+            BigInteger gasLimit,
+            String to,
+            BigInteger value,
+            ByteBuffer data) {
+        this.type = type;
+        this.nonce = nonce;
+        this.gasPrice = gasPrice;
+        this.gasLimit = gasLimit;
+        this.to = to;
+        this.value = value;
+        this.dataBuffer = data.slice().asReadOnlyBuffer();
+    }
+
     @Override
     public List<RlpType> asRlpValues(Sign.SignatureData signatureData) {
         List<RlpType> result = new ArrayList<>();
@@ -76,19 +102,48 @@ public class LegacyTransaction implements ITransaction {
 
         result.add(RlpString.create(getValue()));
 
-        // value field will already be hex encoded, so we need to convert into binary first
-        byte[] data = Numeric.hexStringToByteArray(getData());
-        result.add(RlpString.create(data));
+        result.add(dataRlpValue());
 
         if (signatureData != null) {
-            result.add(RlpString.create(Bytes.trimLeadingZeroes(signatureData.getV())));
-            result.add(RlpString.create(Bytes.trimLeadingZeroes(signatureData.getR())));
-            result.add(RlpString.create(Bytes.trimLeadingZeroes(signatureData.getS())));
+            result.addAll(asSignatureRlpValues(signatureData));
         }
 
         return result;
     }
 
+    @Override
+    public List<RlpType> asSignatureRlpValues(Sign.SignatureData signatureData) {
+        List<RlpType> result = new ArrayList<>(3);
+
+        result.add(RlpString.create(Bytes.trimLeadingZeroes(signatureData.getV())));
+        result.add(RlpString.create(Bytes.trimLeadingZeroes(signatureData.getR())));
+        result.add(RlpString.create(Bytes.trimLeadingZeroes(signatureData.getS())));
+
+        return result;
+    }
+
+    /**
+     * The call data as RLP value: binary call data is encoded straight from its buffer, hex call
+     * data is converted into binary first.
+     */
+    protected RlpType dataRlpValue() {
+        if (dataBuffer != null) {
+            return new RlpBufferString(dataBuffer);
+        }
+
+        return RlpString.create(Numeric.hexStringToByteArray(getData()));
+    }
+
+    public static LegacyTransaction createContractTransaction(
+            BigInteger nonce,
+            BigInteger gasPrice,
+            BigInteger gasLimit,
+            BigInteger value,
+            ByteBuffer init) {
+
+        return new LegacyTransaction(LEGACY, nonce, gasPrice, gasLimit, "", value, init);
+    }
+
     public static LegacyTransaction createContractTransaction(
             BigInteger nonce,
             BigInteger gasPrice,
@@ -150,11 +205,33 @@ public class LegacyTransaction implements ITransaction {
         return value;
     }
 
+    /** The call data as hex without prefix, converted on every call for binary call data. */
     @Override
     public String getData() {
+        if (dataBuffer != null) {
+            return Numeric.toHexStringNoPrefix(toBytes(dataBuffer));
+        }
+
         return data;
     }
 
+    /** Read-only view of the call data, null if the transaction has no call data at all. */
+    public ByteBuffer getDataBuffer() {
+        if (dataBuffer != null) {
+            return dataBuffer.duplicate();
+        }
+
+        return data != null
+                ? ByteBuffer.wrap(Numeric.hexStringToByteArray(data)).asReadOnlyBuffer()
+                : null;
+    }
+
+    private static byte[] toBytes(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.duplicate().get(bytes);
+        return bytes;
+    }
+
     @Override
     public TransactionType getType() {
         return type;
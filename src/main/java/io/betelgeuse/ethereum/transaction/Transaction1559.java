@@ -3,11 +3,11 @@ package io.betelgeuse.ethereum.transaction;
 import io.betelgeuse.ethereum.pwg.Bytes;
 import io.betelgeuse.ethereum.pwg.Numeric;
 import io.betelgeuse.ethereum.pwg.Sign;
-import io.betelgeuse.ethereum.rlp.RlpList;
 import io.betelgeuse.ethereum.rlp.RlpString;
 import io.betelgeuse.ethereum.rlp.RlpType;
 
 import java.math.BigInteger;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -24,6 +24,7 @@ public class Transaction1559 extends LegacyTransaction implements ITransaction {
     private long chainId;
     private BigInteger maxPriorityFeePerGas;
     private BigInteger maxFeePerGas;
+    private AccessList accessList;
 
     public Transaction1559(
             long chainId,
@@ -34,10 +35,54 @@ public class Transaction1559 extends LegacyTransaction implements ITransaction {
             String data,
             BigInteger maxPriorityFeePerGas,
             BigInteger maxFeePerGas) {
+        this(
+                chainId,
+                nonce,
+                gasLimit,
+                to,
+                value,
+                data,
+                maxPriorityFeePerGas,
+                maxFeePerGas,
+                AccessList.EMPTY);
+    }
+
+    public Transaction1559(
+            long chainId,
+            BigInteger nonce,
+            BigInteger gasLimit,
+            String to,
+            BigInteger value,
+            String data,
+            BigInteger maxPriorityFeePerGas,
+            BigInteger maxFeePerGas,
+            AccessList accessList) {
         super(EIP1559, nonce, null, gasLimit, to, value, data);
         this.chainId = chainId;
         this.maxPriorityFeePerGas = maxPriorityFeePerGas;
         this.maxFeePerGas = maxFeePerGas;
+        this.accessList = accessList;
+    }
+
+    /**
+     * Transaction with binary call data, see {@link LegacyTransaction#LegacyTransaction(
+     * TransactionType, BigInteger, BigInteger, BigInteger, String, BigInteger, ByteBuffer)}.
+     */
+    public Transaction1559(
+            long chainId,
+            BigInteger nonce,
+            BigInteger gasLimit,
+            String to,
+            BigInteger value,
+            ByteBuffer data,
+            BigInteger maxPriorityFeePerGas,
+            BigInteger maxFeePerGas,
+            AccessList accessList) {
+        super(EIP1559, nonce, null, gasLimit, to, value, data);
+        this.chainId = chainId;
+        this.maxPriorityFeePerGas = maxPriorityFeePerGas;
+        this.maxFeePerGas = maxFeePerGas;
+        this.accessList = accessList;
     }
 
     @Override
@@ -67,22 +112,29 @@ public class Transaction1559 extends LegacyTransaction implements ITransaction {
 
         result.add(RlpString.create(getValue()));
 
-        // value field will already be hex encoded, so we need to convert into binary first
-        byte[] data = Numeric.hexStringToByteArray(getData());
-        result.add(RlpString.create(data));
+        result.add(dataRlpValue());
 
-        // access list
-        result.add(new RlpList());
+        // writes its own encoding
+        result.add(getAccessList());
 
         if (signatureData != null) {
-            result.add(RlpString.create(Sign.getRecId(signatureData, getChainId())));
-            result.add(RlpString.create(Bytes.trimLeadingZeroes(signatureData.getR())));
-            result.add(RlpString.create(Bytes.trimLeadingZeroes(signatureData.getS())));
+            result.addAll(asSignatureRlpValues(signatureData));
         }
 
         return result;
     }
 
+    @Override
+    public List<RlpType> asSignatureRlpValues(Sign.SignatureData signatureData) {
+        List<RlpType> result = new ArrayList<>(3);
+
+        result.add(RlpString.create(Sign.getRecId(signatureData, getChainId())));
+        result.add(RlpString.create(Bytes.trimLeadingZeroes(signatureData.getR())));
+        result.add(RlpString.create(Bytes.trimLeadingZeroes(signatureData.getS())));
+
+        return result;
+    }
+
     public static Transaction1559 createEtherTransaction(
             long chainId,
             BigInteger nonce,
@@ -109,6 +161,52 @@ public class Transaction1559 extends LegacyTransaction implements ITransaction {
                 chainId, nonce, gasLimit, to, value, data, maxPriorityFeePerGas, maxFeePerGas);
     }
 
+    public static Transaction1559 createTransaction(
+            long chainId,
+            BigInteger nonce,
+            BigInteger gasLimit,
+            String to,
+            BigInteger value,
+            String data,
+            BigInteger maxPriorityFeePerGas,
+            BigInteger maxFeePerGas,
+            AccessList accessList) {
+
+        return new Transaction1559(
+                chainId,
+                nonce,
+                gasLimit,
+                to,
+                value,
+                data,
+                maxPriorityFeePerGas,
+                maxFeePerGas,
+                accessList);
+    }
+
+    public static Transaction1559 createTransaction(
+            long chainId,
+            BigInteger nonce,
+            BigInteger gasLimit,
+            String to,
+            BigInteger value,
+            ByteBuffer data,
+            BigInteger maxPriorityFeePerGas,
+            BigInteger maxFeePerGas,
+            AccessList accessList) {
+
+        return new Transaction1559(
+                chainId,
+                nonce,
+                gasLimit,
+                to,
+                value,
+                data,
+                maxPriorityFeePerGas,
+                maxFeePerGas,
+                accessList);
+    }
+
     @Override
     public BigInteger getGasPrice() {
         throw new UnsupportedOperationException("not available for 1559 transaction");
@@ -125,4 +223,8 @@ public class Transaction1559 extends LegacyTransaction implements ITransaction {
     public BigInteger getMaxFeePerGas() {
         return maxFeePerGas;
     }
+
+    public AccessList getAccessList() {
+        return accessList;
+    }
 }
@@ -0,0 +1,118 @@
+package io.betelgeuse.ethereum.transaction;
+
+import io.betelgeuse.ethereum.pwg.Bytes;
+import io.betelgeuse.ethereum.pwg.Numeric;
+import io.betelgeuse.ethereum.pwg.Sign;
+import io.betelgeuse.ethereum.rlp.RlpString;
+import io.betelgeuse.ethereum.rlp.RlpType;
+
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import static io.betelgeuse.ethereum.transaction.TransactionType.EIP2930;
+
+/**
+ * Transaction class used for signing EIP-2930 (0x01) transactions locally: a legacy gas price
+ * transaction with a chain id and an {@link AccessList}.
+ */
+public class Transaction2930 extends LegacyTransaction implements ITransaction {
+
+    private long chainId;
+    private AccessList accessList;
+
+    public Transaction2930(
+            long chainId,
+            BigInteger nonce,
+            BigInteger gasPrice,
+            BigInteger gasLimit,
+            String to,
+            BigInteger value,
+            String data,
+            AccessList accessList) {
+        super(EIP2930, nonce, gasPrice, gasLimit, to, value, data);
+        this.chainId = chainId;
+        this.accessList = accessList;
+    }
+
+    /**
+     * Transaction with binary call data, see {@link LegacyTransaction#LegacyTransaction(
+     * TransactionType, BigInteger, BigInteger, BigInteger, String, BigInteger, ByteBuffer)}.
+     */
+    public Transaction2930(
+            long chainId,
+            BigInteger nonce,
+            BigInteger gasPrice,
+            BigInteger gasLimit,
+            String to,
+            BigInteger value,
+            ByteBuffer data,
+            AccessList accessList) {
+        super(EIP2930, nonce, gasPrice, gasLimit, to, value, data);
+        this.chainId = chainId;
+        this.accessList = accessList;
+    }
+
+    @Override
+    public List<RlpType> asRlpValues(Sign.SignatureData signatureData) {
+        List<RlpType> result = new ArrayList<>();
+
+        result.add(RlpString.create(getChainId()));
+        result.add(RlpString.create(getNonce()));
+        result.add(RlpString.create(getGasPrice()));
+        result.add(RlpString.create(getGasLimit()));
+
+        // an empty to address (contract creation) should not be encoded as a numeric 0 value
+        String to = getTo();
+        if (to != null && to.length() > 0) {
+            result.add(RlpString.create(Numeric.hexStringToByteArray(to)));
+        } else {
+            result.add(RlpString.create(""));
+        }
+
+        result.add(RlpString.create(getValue()));
+        result.add(dataRlpValue());
+
+        // writes its own encoding
+        result.add(getAccessList());
+
+        if (signatureData != null) {
+            result.addAll(asSignatureRlpValues(signatureData));
+        }
+
+        return result;
+    }
+
+    @Override
+    public List<RlpType> asSignatureRlpValues(Sign.SignatureData signatureData) {
+        List<RlpType> result = new ArrayList<>(3);
+
+        result.add(RlpString.create(Sign.getRecId(signatureData, getChainId())));
+        result.add(RlpString.create(Bytes.trimLeadingZeroes(signatureData.getR())));
+        result.add(RlpString.create(Bytes.trimLeadingZeroes(signatureData.getS())));
+
+        return result;
+    }
+
+    public static Transaction2930 createTransaction(
+            long chainId,
+            BigInteger nonce,
+            BigInteger gasPrice,
+            BigInteger gasLimit,
+            String to,
+            BigInteger value,
+            String data,
+            AccessList accessList) {
+
+        return new Transaction2930(chainId, nonce, gasPrice, gasLimit, to, value, data, accessList);
+    }
+
+    public long getChainId() {
+        return chainId;
+    }
+
+    public AccessList getAccessList() {
+        return accessList;
+    }
+}
@@ -2,6 +2,7 @@ package io.betelgeuse.ethereum.transaction;
 
 public enum TransactionType {
     LEGACY(null),
+    EIP2930(((byte) 0x01)),
     EIP1559(((byte) 0x02));
 
     Byte type;
@@ -0,0 +1,69 @@
+package io.betelgeuse.ethereum.pwg;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+
+import io.betelgeuse.ethereum.rlp.RlpEncoder;
+import io.betelgeuse.ethereum.rlp.RlpList;
+import io.betelgeuse.ethereum.rlp.RlpString;
+import io.betelgeuse.ethereum.rlp.RlpType;
+import io.betelgeuse.ethereum.transaction.AccessList;
+
+/**
+ * Time and allocation of encoding an access list with 300 storage keys (10 addresses with 30
+ * keys each) from hex strings into an RLP tree compared to the compact {@link AccessList}, and
+ * of signing an EIP-1559 transaction carrying it.
+ */
+public class AccessListBenchmark {
+
+	public static final int ITERATIONS = 1_000;
+	public static final int ENCODE_ITERATIONS = 20_000;
+	public static final int ADDRESSES = 10;
+	public static final int KEYS_PER_ADDRESS = 30;
+
+	public static void main(String [] args) throws Exception {
+		Credentials credentials = Credentials.create(Keys.createEcKeyPair());
+		List<String> addresses = new ArrayList<>();
+		List<String []> keys = new ArrayList<>();
+		AccessList.Builder builder = AccessList.builder();
+
+		for(int i = 0; i < ADDRESSES; i++) {
+			String address = Numeric.toHexString(Wallet.generateRandomBytes(AccessList.ADDRESS_LENGTH));
+			String [] storageKeys = new String[KEYS_PER_ADDRESS];
+
+			for(int k = 0; k < KEYS_PER_ADDRESS; k++) {
+				storageKeys[k] = Numeric.toHexString(Wallet.generateRandomBytes(AccessList.STORAGE_KEY_LENGTH));
+			}
+
+			addresses.add(address);
+			keys.add(storageKeys);
+			builder.add(address, storageKeys);
+		}
+
+		AccessList accessList = builder.build();
+		RawTransaction transaction = RawTransaction.createTransaction(1, BigInteger.ONE, BigInteger.valueOf(500000),
+				"0x0025403ff4c543c660423543a9c5a3cc2a02e2f1", BigInteger.ZERO, "0xa9059cbb", BigInteger.ONE, BigInteger.TEN, accessList);
+
+		Benchmark.run("300 keys, hex strings to RLP tree", ENCODE_ITERATIONS, () -> RlpEncoder.encode(hexTree(addresses, keys)));
+		Benchmark.run("300 keys, AccessList", ENCODE_ITERATIONS, () -> RlpEncoder.encode(accessList));
+		Benchmark.run("300 keys, TransactionEncoder.signMessage", ITERATIONS, () -> TransactionEncoder.signMessage(transaction, credentials));
+	}
+
+	// how a model keeping hex strings encodes: decode every value and build the tree per encoding
+	private static RlpList hexTree(List<String> addresses, List<String []> keys) {
+		List<RlpType> entries = new ArrayList<>(addresses.size());
+
+		for(int i = 0; i < addresses.size(); i++) {
+			List<RlpType> storageKeys = new ArrayList<>();
+
+			for(String key: keys.get(i)) {
+				storageKeys.add(RlpString.create(Numeric.hexStringToByteArray(key)));
+			}
+
+			entries.add(new RlpList(RlpString.create(Numeric.hexStringToByteArray(addresses.get(i))), new RlpList(storageKeys)));
+		}
+
+		return new RlpList(entries);
+	}
+}
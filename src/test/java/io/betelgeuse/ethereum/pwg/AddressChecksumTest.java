@@ -0,0 +1,89 @@
+package io.betelgeuse.ethereum.pwg;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class AddressChecksumTest {
+
+	/**
+	 * Test vectors from EIP-55.
+	 */
+	public static final String [] CHECKSUM_ADDRESSES = {
+			"0x52908400098527886E0F7030069857D2E4169EE7",
+			"0x8617E340B3D01FA5F11F306F4090FD50E238070D",
+			"0xde709f2102306220921060314715629080e2fb77",
+			"0x27b1fdb04752bbc536007a920d24acb045561c26",
+			"0x5aAeb6053F3E94C9b9A09f33669435E7Ef1BeAed",
+			"0xfB6916095ca1df60bB79Ce92cE3Ea74c37c5d359",
+			"0xdbF03B407c01E7cD3CBea99509d93f8DDDC8C6FB",
+			"0xD1220A0cf47c7B9Be7A2E6BA89F429762e7b9aDb"
+	};
+
+	@Test
+	public void testEncode() {
+		AddressChecksum checksum = new AddressChecksum();
+
+		for(String address: CHECKSUM_ADDRESSES) {
+			Assert.assertEquals("Unexpected checksum address", address, checksum.encode(address.toLowerCase()));
+			Assert.assertEquals("Unexpected checksum address without prefix", address, checksum.encode(address.substring(2).toUpperCase()));
+			Assert.assertEquals("Unexpected checksum address from bytes", address, checksum.encode(Numeric.hexStringToByteArray(address)));
+			Assert.assertEquals("Unexpected checksum address from keys", address, Keys.toChecksumAddress(address.toLowerCase()));
+		}
+	}
+
+	@Test
+	public void testCheck() {
+		AddressChecksum checksum = new AddressChecksum();
+
+		for(String address: CHECKSUM_ADDRESSES) {
+			Assert.assertTrue("Valid address rejected: " + address, checksum.isValid(address));
+		}
+
+		Assert.assertEquals(AddressChecksum.Status.NO_CHECKSUM, checksum.check("0x5aaeb6053f3e94c9b9a09f33669435e7ef1beaed"));
+		Assert.assertEquals(AddressChecksum.Status.INVALID_CHECKSUM, checksum.check("0x5aAeb6053F3E94C9b9A09f33669435E7Ef1BeAeD"));
+		Assert.assertEquals(AddressChecksum.Status.INVALID_FORMAT, checksum.check("0x5aAeb6053F3E94C9b9A09f33669435E7Ef1BeAe"));
+		Assert.assertEquals(AddressChecksum.Status.INVALID_FORMAT, checksum.check("0x5aAeb6053F3E94C9b9A09f33669435E7Ef1BeAeg"));
+
+		try {
+			checksum.encode("0x1234");
+			Assert.fail("Short address should be rejected");
+		}
+		catch(IllegalArgumentException e) {
+			// expected
+		}
+	}
+
+	@Test
+	public void testValidateFile() throws IOException {
+		File file = File.createTempFile("addresses", ".txt");
+
+		try {
+			Files.write(file.toPath(), Arrays.asList(
+					"0x5aAeb6053F3E94C9b9A09f33669435E7Ef1BeAed",
+					"",
+					"  0xfB6916095ca1df60bB79Ce92cE3Ea74c37c5d359  ",
+					"0x5aaeb6053f3e94c9b9a09f33669435e7ef1beaed",
+					"0x5aAeb6053F3E94C9b9A09f33669435E7Ef1BeAeD",
+					"not an address"), StandardCharsets.UTF_8);
+
+			AddressChecksum.Report report = new AddressChecksum().validateFile(file.toPath());
+
+			Assert.assertEquals("Unexpected number of addresses", 5, report.getTotal());
+			Assert.assertEquals(2, report.getCount(AddressChecksum.Status.VALID));
+			Assert.assertEquals(1, report.getCount(AddressChecksum.Status.NO_CHECKSUM));
+			Assert.assertEquals(1, report.getCount(AddressChecksum.Status.INVALID_CHECKSUM));
+			Assert.assertEquals(1, report.getCount(AddressChecksum.Status.INVALID_FORMAT));
+			Assert.assertTrue("Report should have errors", report.hasErrors());
+			Assert.assertTrue("Unexpected failure " + report.getFailures().get(1), report.getFailures().get(1).startsWith("line 5: INVALID_CHECKSUM"));
+		}
+		finally {
+			file.delete();
+		}
+	}
+}
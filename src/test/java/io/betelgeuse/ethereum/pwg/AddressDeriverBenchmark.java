@@ -0,0 +1,36 @@
+package io.betelgeuse.ethereum.pwg;
+
+import java.io.File;
+
+/**
+ * Addresses per minute of {@link AddressDeriver} for 100,000 deposit addresses below an account
+ * xpub, against deriving every child with {@link Bip32PublicKey#deriveChildKey(int)} one by one.
+ */
+public class AddressDeriverBenchmark {
+
+	public static final int ADDRESSES = 100_000;
+	public static final int SINGLE_ADDRESSES = 10_000;
+
+	public static void main(String [] args) throws Exception {
+		Bip32PublicKey account = HdKeyChain.fromMnemonic(HdKeyChainTest.MNEMONIC, "").getAccountPublicKey();
+		File output = File.createTempFile("addresses", ".csv");
+
+		try {
+			for(int round = 0; round < 3; round++) {
+				long start = System.nanoTime();
+
+				for(int i = 0; i < SINGLE_ADDRESSES; i++) {
+					account.deriveChildKey(i).getAddress();
+				}
+
+				double seconds = (System.nanoTime() - start) / 1e9;
+				System.out.printf("one by one    %,d addresses in %.2f s (%,.0f addresses/min)%n", SINGLE_ADDRESSES, seconds, SINGLE_ADDRESSES * 60 / seconds);
+
+				System.out.println("AddressDeriver " + new AddressDeriver(account).derive(0, ADDRESSES, output.toPath()));
+			}
+		}
+		finally {
+			output.delete();
+		}
+	}
+}
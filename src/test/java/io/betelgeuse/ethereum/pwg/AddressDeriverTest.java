@@ -0,0 +1,66 @@
+package io.betelgeuse.ethereum.pwg;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class AddressDeriverTest {
+
+	@Test
+	public void testDeriveToFile() throws Exception {
+		HdKeyChain chain = HdKeyChain.fromMnemonic(HdKeyChainTest.MNEMONIC, "");
+		Bip32PublicKey account = chain.getAccountPublicKey();
+		File output = File.createTempFile("addresses", ".csv");
+
+		try {
+			// more than a chunk, starting inside one, written by several threads
+			int first = 100;
+			int count = 2 * AddressDeriver.CHUNK_SIZE + 7;
+			AddressDeriver.Summary summary = new AddressDeriver(account, 3).derive(first, count, output.toPath());
+
+			List<String> lines = Files.readAllLines(output.toPath(), StandardCharsets.UTF_8);
+			Assert.assertEquals("Unexpected header", AddressDeriver.OUTPUT_HEADER, lines.get(0));
+			Assert.assertEquals("Unexpected number of addresses", count, summary.getAddresses());
+			Assert.assertEquals("Unexpected number of lines", count + 1, lines.size());
+
+			List<String> addresses = new AddressDeriver(account, 1).derive(first, count);
+
+			for(int i = 0; i < count; i++) {
+				Assert.assertEquals("Unexpected line " + (i + 1), (first + i) + "," + addresses.get(i), lines.get(i + 1));
+			}
+
+			for(int i = 0; i < count; i += 97) {
+				Assert.assertEquals("Address " + (first + i) + " differs from the private key derivation",
+						Keys.toChecksumAddress(chain.getAccount(first + i).getAddress()), addresses.get(i));
+			}
+		}
+		finally {
+			output.delete();
+		}
+	}
+
+	@Test
+	public void testRange() {
+		AddressDeriver deriver = new AddressDeriver(HdKeyChain.fromMnemonic(HdKeyChainTest.MNEMONIC, "").getAccountPublicKey());
+
+		Assert.assertEquals("Unexpected address of account 0", "0x9858EfFD232B4033E47d90003D41EC34EcaEda94", deriver.derive(0, 1).get(0));
+		Assert.assertEquals("Last non-hardened child should be derived", 1, deriver.derive(Integer.MAX_VALUE, 1).size());
+		Assert.assertTrue("Empty range should give no addresses", deriver.derive(5, 0).isEmpty());
+
+		int [][] invalid = { { -1, 1 }, { 0, -1 }, { Integer.MAX_VALUE, 2 } };
+
+		for(int [] range: invalid) {
+			try {
+				deriver.derive(range[0], range[1]);
+				Assert.fail("Range should be rejected: " + range[0] + "," + range[1]);
+			}
+			catch(IllegalArgumentException e) {
+				// expected
+			}
+		}
+	}
+}
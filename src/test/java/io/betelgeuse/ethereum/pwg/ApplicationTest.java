@@ -128,6 +128,33 @@ public class ApplicationTest {
 		Assert.assertTrue(String.format("failed to verify paper wallet %s: expected message '%s ...', actual message: '%s'", jsonFile, Application.VERIFY_OK, message), isOkMessage);
 	}
 
+	@Test
+	public void createWalletBatchHappyCase() {
+		if(setupFailed) {
+			return;
+		}
+
+		File batchDirectory = new File(tmpFilePath, UUID.randomUUID().toString());
+		Assert.assertTrue("failed to create batch directory " + batchDirectory.getAbsolutePath(), batchDirectory.mkdir());
+
+		int count = 3;
+		String [] args = new String [] { Application.SWITCH_DIRECTORY, batchDirectory.getAbsolutePath(), Application.SWITCH_COUNT, String.valueOf(count), Application.SWITCH_SILENT};
+		Application app = new Application();
+		String message = app.run(args);
+
+		try {
+			Assert.assertTrue(String.format("failed to write paper wallets to directory %s: expected message '%s ...', actual message: '%s'", batchDirectory, Application.CREATE_OK, message), message.startsWith(Application.CREATE_OK));
+			Assert.assertEquals("unexpected number of json, html and png files", 3 * count, batchDirectory.listFiles().length);
+		}
+		finally {
+			for(File f: batchDirectory.listFiles()) {
+				f.delete();
+			}
+
+			batchDirectory.delete();
+		}
+	}
+
 	@Test
 	public void verifyWalletFileMissing() {
 		if(setupFailed) {
@@ -0,0 +1,65 @@
+package io.betelgeuse.ethereum.pwg;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Minimal micro benchmark harness for the *Benchmark classes of this package. Run them from the
+ * IDE or with {@code java -cp target/classes:target/test-classes:<deps> <class>}.
+ *
+ * Reports the time and the heap allocation per operation of the calling thread.
+ */
+public class Benchmark {
+
+	public static final int WARMUP_ROUNDS = 3;
+
+	private static final com.sun.management.ThreadMXBean THREADS = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+	public static Result run(String name, int iterations, Runnable operation) {
+		for(int round = 0; round < WARMUP_ROUNDS; round++) {
+			for(int i = 0; i < iterations; i++) {
+				operation.run();
+			}
+		}
+
+		long threadId = Thread.currentThread().getId();
+		long allocatedBefore = THREADS.getThreadAllocatedBytes(threadId);
+		long start = System.nanoTime();
+
+		for(int i = 0; i < iterations; i++) {
+			operation.run();
+		}
+
+		long elapsed = System.nanoTime() - start;
+		long allocated = THREADS.getThreadAllocatedBytes(threadId) - allocatedBefore;
+
+		Result result = new Result(name, elapsed / (double) iterations, allocated / (double) iterations);
+		System.out.println(result);
+
+		return result;
+	}
+
+	public static class Result {
+		private final String name;
+		private final double nanosPerOp;
+		private final double bytesPerOp;
+
+		private Result(String name, double nanosPerOp, double bytesPerOp) {
+			this.name = name;
+			this.nanosPerOp = nanosPerOp;
+			this.bytesPerOp = bytesPerOp;
+		}
+
+		public double getNanosPerOp() {
+			return nanosPerOp;
+		}
+
+		public double getBytesPerOp() {
+			return bytesPerOp;
+		}
+
+		@Override
+		public String toString() {
+			return String.format("%-48s %12.1f us/op %12.0f B/op", name, nanosPerOp / 1000, bytesPerOp);
+		}
+	}
+}
@@ -0,0 +1,92 @@
+package io.betelgeuse.ethereum.pwg;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class Bip32PublicKeyTest {
+
+	// test vector 1 of BIP-32: path and extended public key
+	private static final String [][] BIP32_VECTOR_1 = {
+			{ "m", "xpub661MyMwAqRbcFtXgS5sYJABqqG9YLmC4Q1Rdap9gSE8NqtwybGhePY2gZ29ESFjqJoCu1Rupje8YtGqsefD265TMg7usUDFdp6W1EGMcet8" },
+			{ "m/0H", "xpub68Gmy5EdvgibQVfPdqkBBCHxA5htiqg55crXYuXoQRKfDBFA1WEjWgP6LHhwBZeNK1VTsfTFUHCdrfp1bgwQ9xv5ski8PX9rL2dZXvgGDnw" },
+			{ "m/0H/1", "xpub6ASuArnXKPbfEwhqN6e3mwBcDTgzisQN1wXN9BJcM47sSikHjJf3UFHKkNAWbWMiGj7Wf5uMash7SyYq527Hqck2AxYysAA7xmALppuCkwQ" },
+			{ "m/0H/1/2H", "xpub6D4BDPcP2GT577Vvch3R8wDkScZWzQzMMUm3PWbmWvVJrZwQY4VUNgqFJPMM3No2dFDFGTsxxpG5uJh7n7epu4trkrX7x7DogT5Uv6fcLW5" },
+			{ "m/0H/1/2H/2", "xpub6FHa3pjLCk84BayeJxFW2SP4XRrFd1JYnxeLeU8EqN3vDfZmbqBqaGJAyiLjTAwm6ZLRQUMv1ZACTj37sR62cfN7fe5JnJ7dh8zL4fiyLHV" },
+			{ "m/0H/1/2H/2/1000000000", "xpub6H1LXWLaKsWFhvm6RVpEL9P4KfRZSW7abD2ttkWP3SSQvnyA8FSVqNTEcYFgJS2UaFcxupHiYkro49S8yGasTvXEYBVPamhGW6cFJodrTHy" }
+	};
+
+	@Test
+	public void testXpubExport() {
+		HdKeyChain chain = new HdKeyChain(Numeric.hexStringToByteArray("000102030405060708090a0b0c0d0e0f"));
+
+		for(String [] vector: BIP32_VECTOR_1) {
+			Bip32PublicKey key = chain.deriveKeyPair(vector[0]).getExtendedPublicKey();
+
+			Assert.assertEquals("Unexpected xpub of " + vector[0], vector[1], key.toXpub());
+			Assert.assertEquals("Parsed xpub of " + vector[0] + " differs", key, Bip32PublicKey.fromXpub(vector[1]));
+		}
+	}
+
+	@Test
+	public void testPublicDerivation() {
+		// the non-hardened steps of the vector need no private key
+		Bip32PublicKey parent = Bip32PublicKey.fromXpub(BIP32_VECTOR_1[3][1]);
+		Bip32PublicKey child = parent.deriveChildKey(2);
+
+		Assert.assertEquals("Unexpected xpub of m/0H/1/2H/2", BIP32_VECTOR_1[4][1], child.toXpub());
+		Assert.assertEquals("Unexpected xpub of m/0H/1/2H/2/1000000000", BIP32_VECTOR_1[5][1], parent.deriveKey(2, 1000000000).toXpub());
+		Assert.assertEquals("Unexpected depth", 4, child.getDepth());
+		Assert.assertEquals("Unexpected parent fingerprint", parent.getFingerprint(), child.getParentFingerprint());
+	}
+
+	@Test
+	public void testAccountAddresses() {
+		HdKeyChain chain = HdKeyChain.fromMnemonic(HdKeyChainTest.MNEMONIC, "");
+		Bip32PublicKey account = Bip32PublicKey.fromXpub(chain.getAccountPublicKey().toXpub());
+
+		Assert.assertEquals("Unexpected address of account 0", "0x9858EfFD232B4033E47d90003D41EC34EcaEda94", account.deriveChildKey(0).getAddress());
+
+		for(int i = 0; i < 5; i++) {
+			Assert.assertEquals("Public and private derivation of account " + i + " differ", chain.deriveAccountKeyPair(i).getPublicKey(), account.deriveChildKey(i).getPublicKey());
+		}
+	}
+
+	@Test
+	public void testInvalidXpub() {
+		String xpub = BIP32_VECTOR_1[0][1];
+		String [] invalid = {
+				"",
+				xpub.substring(0, xpub.length() - 1) + (xpub.endsWith("8") ? "9" : "8"),
+				xpub.replace('x', '0'),
+				"xprv9s21ZrQH143K3QTDL4LXw2F7HEK3wJUD2nW2nRk4stbPy6cq3jPPqjiChkVvvNKmPGJxWUtg6LnF5kejMRNNU3TGtRBeJgk33yuGBxrMPHi",
+				Base58.encodeChecked(new byte[77])
+		};
+
+		for(String value: invalid) {
+			try {
+				Bip32PublicKey.fromXpub(value);
+				Assert.fail("Xpub should be rejected: " + value);
+			}
+			catch(IllegalArgumentException e) {
+				// expected
+			}
+		}
+
+		try {
+			Bip32PublicKey.fromXpub(xpub).deriveChildKey(Bip32ECKeyPair.HARDENED_BIT);
+			Assert.fail("Hardened child should need the private key");
+		}
+		catch(IllegalArgumentException e) {
+			// expected
+		}
+	}
+
+	@Test
+	public void testBase58() {
+		Assert.assertEquals("", Base58.encode(new byte[0]));
+		Assert.assertEquals("1112", Base58.encode(new byte[] { 0, 0, 0, 1 }));
+		Assert.assertEquals("StV1DL6CwTryKyV", Base58.encode("hello world".getBytes()));
+		Assert.assertArrayEquals(new byte[] { 0, 0, 0, 1 }, Base58.decode("1112"));
+		Assert.assertArrayEquals("hello world".getBytes(), Base58.decode("StV1DL6CwTryKyV"));
+	}
+}
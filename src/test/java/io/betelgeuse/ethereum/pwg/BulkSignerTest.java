@@ -0,0 +1,191 @@
+package io.betelgeuse.ethereum.pwg;
+
+import java.io.File;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import static io.betelgeuse.ethereum.pwg.TransactionDecoderTest.PRIVATE_KEY;
+
+public class BulkSignerTest {
+
+	private static final String TO = "0x5aAeb6053F3E94C9b9A09f33669435E7Ef1BeAed";
+
+	private final Credentials credentials = Credentials.create(PRIVATE_KEY);
+
+	@Test
+	public void testSignInNonceOrder() throws Exception {
+		List<String> lines = new ArrayList<>();
+		lines.add("to,amount");
+
+		for(int i = 0; i < 200; i++) {
+			String amount = "0." + (i + 1);
+
+			if(i % 3 == 0) {
+				lines.add(String.format("{\"to\": \"%s\", \"amount\": \"%s\"}", TO, amount));
+			}
+			else {
+				lines.add(String.format("%s, %s", TO.toLowerCase(), amount));
+			}
+
+			if(i % 50 == 0) {
+				lines.add("");
+				lines.add("# comment");
+			}
+		}
+
+		File input = File.createTempFile("payouts", ".csv");
+		File output = new File(input.getPath() + ".signed.csv");
+
+		try {
+			Files.write(input.toPath(), lines, StandardCharsets.UTF_8);
+
+			BulkSigner signer = new BulkSigner(credentials, ChainIdLong.MAINNET, BigInteger.valueOf(21000),
+					BigInteger.ONE, BigInteger.TEN, 3);
+			BulkSigner.Summary summary = signer.sign(input.toPath(), output.toPath(), BigInteger.valueOf(5));
+
+			Assert.assertEquals("Unexpected number of transactions", 200, summary.getTransactions());
+			Assert.assertEquals("Unexpected next nonce", BigInteger.valueOf(205), summary.getNextNonce());
+
+			List<String> signed = Files.readAllLines(output.toPath(), StandardCharsets.UTF_8);
+			Assert.assertEquals("Unexpected header", BulkSigner.OUTPUT_HEADER, signed.get(0));
+			Assert.assertEquals("Unexpected number of lines", 201, signed.size());
+
+			for(int i = 0; i < 200; i++) {
+				String [] columns = signed.get(i + 1).split(",");
+				SignedRawTransaction transaction = (SignedRawTransaction) TransactionDecoder.decode(columns[3]);
+				BigInteger amountWei = Convert.toWei("0." + (i + 1), Convert.Unit.ETHER).toBigInteger();
+
+				Assert.assertEquals("Unexpected nonce column", String.valueOf(i + 5), columns[0]);
+				Assert.assertEquals("Unexpected nonce", BigInteger.valueOf(i + 5), transaction.getNonce());
+				Assert.assertEquals("Unexpected to", TO.toLowerCase(), transaction.getTo().toLowerCase());
+				Assert.assertEquals("Unexpected value", amountWei, transaction.getValue());
+				Assert.assertEquals("Unexpected hash", Numeric.toHexString(Hash.sha3(Numeric.hexStringToByteArray(columns[3]))), columns[4]);
+				transaction.verify(credentials.getAddress());
+			}
+		}
+		finally {
+			input.delete();
+			output.delete();
+		}
+	}
+
+	@Test
+	public void testTokenPayout() throws Exception {
+		String token = "0xA0b86991c6218b36c1d19D4a2e9Eb0cE3606eB48";
+		File input = File.createTempFile("payouts", ".csv");
+		File output = new File(input.getPath() + ".signed.csv");
+
+		try {
+			Files.write(input.toPath(), Arrays.asList(TO + ",12.5", "{\"to\": \"" + TO + "\", \"amount\": 0.000001}"), StandardCharsets.UTF_8);
+
+			new BulkSigner(credentials, ChainIdLong.MAINNET, BigInteger.valueOf(65000), BigInteger.ONE, BigInteger.TEN, 2, token, 6)
+					.sign(input.toPath(), output.toPath(), BigInteger.ZERO);
+
+			List<String> signed = Files.readAllLines(output.toPath(), StandardCharsets.UTF_8);
+			long [] units = { 12500000, 1 };
+
+			for(int i = 0; i < units.length; i++) {
+				SignedRawTransaction transaction = (SignedRawTransaction) TransactionDecoder.decode(signed.get(i + 1).split(",")[3]);
+
+				Assert.assertEquals("Unexpected to", token.toLowerCase(), transaction.getTo());
+				Assert.assertEquals("Unexpected value", BigInteger.ZERO, transaction.getValue());
+				Assert.assertEquals("Unexpected data", Numeric.toHexStringNoPrefix(Erc20.transfer(TO, BigInteger.valueOf(units[i]))), transaction.getData());
+				transaction.verify(credentials.getAddress());
+			}
+
+			Files.write(input.toPath(), Arrays.asList(TO + ",0.0000001"), StandardCharsets.UTF_8);
+
+			try {
+				new BulkSigner(credentials, ChainIdLong.MAINNET, BigInteger.valueOf(65000), BigInteger.ONE, BigInteger.TEN, 2, token, 6)
+						.sign(input.toPath(), output.toPath(), BigInteger.ZERO);
+				Assert.fail("Amount below the smallest token unit should be rejected");
+			}
+			catch(IllegalArgumentException e) {
+				// expected
+			}
+		}
+		finally {
+			input.delete();
+			output.delete();
+		}
+	}
+
+	@Test
+	public void testJsonAmountPrecision() throws Exception {
+		File input = File.createTempFile("payouts", ".csv");
+		File output = new File(input.getPath() + ".signed.csv");
+
+		try {
+			Files.write(input.toPath(), Arrays.asList(
+					"{\"to\": \"" + TO + "\", \"amount\": 1.000000000000000001}",
+					"{\"to\": \"" + TO + "\", \"amount\": \"1.000000000000000001\"}",
+					"{\"to\": \"" + TO + "\", \"amount\": 123456789012345678901234567890}"), StandardCharsets.UTF_8);
+
+			new BulkSigner(credentials, ChainIdLong.MAINNET, BigInteger.valueOf(21000), BigInteger.ONE, BigInteger.TEN, 2)
+					.sign(input.toPath(), output.toPath(), BigInteger.ZERO);
+
+			List<String> signed = Files.readAllLines(output.toPath(), StandardCharsets.UTF_8);
+			String [] values = { "1000000000000000001", "1000000000000000001", "123456789012345678901234567890000000000000000000" };
+
+			for(int i = 0; i < values.length; i++) {
+				SignedRawTransaction transaction = (SignedRawTransaction) TransactionDecoder.decode(signed.get(i + 1).split(",")[3]);
+				Assert.assertEquals("Unexpected value of line " + (i + 1), new BigInteger(values[i]), transaction.getValue());
+			}
+
+			try {
+				BulkSigner.Payout.parse("{\"to\": \"" + TO + "\", \"amount\": 0.0000000000000000001}");
+				Assert.fail("Amount below one wei should be rejected, not rounded");
+			}
+			catch(IllegalArgumentException e) {
+				// expected
+			}
+		}
+		finally {
+			input.delete();
+			output.delete();
+		}
+	}
+
+	@Test
+	public void testInvalidLineSignsNothing() throws Exception {
+		String badChecksum = TO.replace("aAeb", "aaeb");
+		File input = File.createTempFile("payouts", ".csv");
+		File output = new File(input.getPath() + ".signed.csv");
+
+		try {
+			Files.write(input.toPath(), Arrays.asList(TO + ",1", badChecksum + ",1"), StandardCharsets.UTF_8);
+
+			try {
+				new BulkSigner(credentials, ChainIdLong.MAINNET, BigInteger.valueOf(21000), BigInteger.ONE, BigInteger.TEN, 2)
+						.sign(input.toPath(), output.toPath(), BigInteger.ZERO);
+				Assert.fail("Invalid checksum should be rejected");
+			}
+			catch(IllegalArgumentException e) {
+				Assert.assertTrue("Unexpected message " + e.getMessage(), e.getMessage().startsWith("line 2: "));
+			}
+
+			Assert.assertFalse("No output expected for invalid input", output.exists());
+
+			for(String line: new String [] { TO + ",-1", TO + ",0.0000000000000000001", TO + ",abc", TO, "{\"to\": 1}" }) {
+				try {
+					BulkSigner.Payout.parse(line);
+					Assert.fail("Invalid line should be rejected: " + line);
+				}
+				catch(IllegalArgumentException e) {
+					// expected
+				}
+			}
+		}
+		finally {
+			input.delete();
+			output.delete();
+		}
+	}
+}
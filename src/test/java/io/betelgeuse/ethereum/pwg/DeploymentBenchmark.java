@@ -0,0 +1,52 @@
+package io.betelgeuse.ethereum.pwg;
+
+import java.io.File;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+
+/**
+ * Time and allocation of signing the deployment of 24 KB init code (the EIP-170 contract size
+ * limit) read from a file: as hex string, from a heap buffer and from a memory mapped file.
+ */
+public class DeploymentBenchmark {
+
+	public static final int ITERATIONS = 1_000;
+	public static final int INIT_CODE_LENGTH = 24 * 1024;
+
+	private static final BigInteger GAS_LIMIT = BigInteger.valueOf(6_000_000);
+
+	public static void main(String [] args) throws Exception {
+		Credentials credentials = Credentials.create(Keys.createEcKeyPair());
+
+		File file = File.createTempFile("init", ".bin");
+		file.deleteOnExit();
+		Files.write(file.toPath(), Wallet.generateRandomBytes(INIT_CODE_LENGTH));
+
+		String hex = readHex(file);
+		ByteBuffer heap = CallData.wrap(Files.readAllBytes(file.toPath()));
+		ByteBuffer mapped = CallData.map(file.toPath());
+
+		Benchmark.run("24 KB init code, read file to hex, sign", ITERATIONS, () -> TransactionEncoder.signMessage(
+				RawTransaction.createTransaction(1, BigInteger.ONE, GAS_LIMIT, "", BigInteger.ZERO, readHex(file), BigInteger.ONE, BigInteger.TEN),
+				credentials));
+		Benchmark.run("24 KB init code, hex string, sign", ITERATIONS, () -> TransactionEncoder.signMessage(
+				RawTransaction.createTransaction(1, BigInteger.ONE, GAS_LIMIT, "", BigInteger.ZERO, hex, BigInteger.ONE, BigInteger.TEN),
+				credentials));
+		Benchmark.run("24 KB init code, heap buffer, sign", ITERATIONS, () -> TransactionEncoder.signMessage(
+				RawTransaction.createContractTransaction(1, BigInteger.ONE, GAS_LIMIT, BigInteger.ZERO, heap, BigInteger.ONE, BigInteger.TEN),
+				credentials));
+		Benchmark.run("24 KB init code, mapped file, sign", ITERATIONS, () -> TransactionEncoder.signMessage(
+				RawTransaction.createContractTransaction(1, BigInteger.ONE, GAS_LIMIT, BigInteger.ZERO, mapped, BigInteger.ONE, BigInteger.TEN),
+				credentials));
+	}
+
+	private static String readHex(File file) {
+		try {
+			return Numeric.toHexString(Files.readAllBytes(file.toPath()));
+		}
+		catch(Exception e) {
+			throw new IllegalStateException(e);
+		}
+	}
+}
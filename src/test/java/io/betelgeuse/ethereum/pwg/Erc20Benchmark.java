@@ -0,0 +1,46 @@
+package io.betelgeuse.ethereum.pwg;
+
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+
+import io.betelgeuse.ethereum.transaction.AccessList;
+
+/**
+ * Time and allocation of the ERC-20 call data encoding, and of signing a token transfer compared
+ * to signing a plain ether transfer.
+ */
+public class Erc20Benchmark {
+
+	public static final int ITERATIONS = 1_000;
+	public static final int ENCODE_ITERATIONS = 1_000_000;
+
+	private static final String TOKEN = "0xA0b86991c6218b36c1d19D4a2e9Eb0cE3606eB48";
+	private static final String TO = "0x5aAeb6053F3E94C9b9A09f33669435E7Ef1BeAed";
+
+	public static void main(String [] args) throws Exception {
+		Credentials credentials = Credentials.create(Keys.createEcKeyPair());
+		BigInteger amount = BigInteger.valueOf(12_500_000L);
+		ByteBuffer buffer = ByteBuffer.allocate(Erc20.CALL_DATA_LENGTH);
+
+		Benchmark.run("transfer call data, hex string concatenation", ENCODE_ITERATIONS, () -> concatenate(TO, amount));
+		Benchmark.run("transfer call data, Erc20.encodeTransfer", ENCODE_ITERATIONS, () -> {
+			buffer.clear();
+			Erc20.encodeTransfer(TO, amount, buffer);
+		});
+
+		Benchmark.run("ether transfer, sign", ITERATIONS, () -> TransactionEncoder.signMessage(
+				RawTransaction.createEtherTransaction(1, BigInteger.ONE, BigInteger.valueOf(21000), TO, amount, BigInteger.ONE, BigInteger.TEN),
+				credentials));
+		Benchmark.run("token transfer, encode and sign", ITERATIONS, () -> TransactionEncoder.signMessage(
+				RawTransaction.createTransaction(1, BigInteger.ONE, BigInteger.valueOf(65000), TOKEN, BigInteger.ZERO,
+						CallData.wrap(Erc20.transfer(TO, amount)), BigInteger.ONE, BigInteger.TEN, AccessList.EMPTY),
+				credentials));
+	}
+
+	// the usual way: selector and words as padded hex strings
+	private static String concatenate(String to, BigInteger amount) {
+		return "0xa9059cbb"
+				+ Strings.zeros(24) + Numeric.cleanHexPrefix(to).toLowerCase()
+				+ Numeric.toHexStringWithPrefixZeroPadded(amount, 64).substring(2);
+	}
+}
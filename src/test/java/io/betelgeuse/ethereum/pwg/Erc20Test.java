@@ -0,0 +1,74 @@
+package io.betelgeuse.ethereum.pwg;
+
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class Erc20Test {
+
+	private static final String TO = "0x5aAeb6053F3E94C9b9A09f33669435E7Ef1BeAed";
+	private static final String TO_WORD = "0000000000000000000000005aaeb6053f3e94c9b9a09f33669435e7ef1beaed";
+
+	@Test
+	public void testTransfer() {
+		byte [] data = Erc20.transfer(TO, BigInteger.TEN.pow(18));
+
+		Assert.assertEquals("Unexpected length", Erc20.CALL_DATA_LENGTH, data.length);
+		Assert.assertEquals("Unexpected call data",
+				"0xa9059cbb" + TO_WORD + "0000000000000000000000000000000000000000000000000de0b6b3a7640000",
+				Numeric.toHexString(data));
+	}
+
+	@Test
+	public void testApprove() {
+		BigInteger max = BigInteger.ONE.shiftLeft(256).subtract(BigInteger.ONE);
+		byte [] data = Erc20.approve(TO.toLowerCase().substring(2), max);
+
+		Assert.assertEquals("Unexpected call data",
+				"0x095ea7b3" + TO_WORD + "ffffffffffffffffffffffffffffffffffffffffffffffffffffffffffffffff",
+				Numeric.toHexString(data));
+	}
+
+	@Test
+	public void testEncodeAtOffset() {
+		ByteBuffer buffer = ByteBuffer.allocate(100);
+		buffer.position(10);
+
+		Erc20.encodeTransfer(TO, BigInteger.ZERO, buffer);
+
+		Assert.assertEquals("Unexpected position", 10 + Erc20.CALL_DATA_LENGTH, buffer.position());
+		Assert.assertEquals("Unexpected call data",
+				"0xa9059cbb" + TO_WORD + "0000000000000000000000000000000000000000000000000000000000000000",
+				Numeric.toHexString(Arrays.copyOfRange(buffer.array(), 10, 10 + Erc20.CALL_DATA_LENGTH)));
+	}
+
+	@Test
+	public void testInvalidArguments() {
+		String [] addresses = { "0x1234", TO.replace('a', 'x'), TO + "00" };
+
+		for(String address: addresses) {
+			ByteBuffer buffer = ByteBuffer.allocate(Erc20.CALL_DATA_LENGTH);
+
+			try {
+				Erc20.encodeTransfer(address, BigInteger.ONE, buffer);
+				Assert.fail("Invalid address should be rejected: " + address);
+			}
+			catch(IllegalArgumentException e) {
+				Assert.assertEquals("Position should be unchanged", 0, buffer.position());
+			}
+		}
+
+		for(BigInteger amount: new BigInteger [] { BigInteger.ONE.negate(), BigInteger.ONE.shiftLeft(256) }) {
+			try {
+				Erc20.transfer(TO, amount);
+				Assert.fail("Amount out of range should be rejected: " + amount);
+			}
+			catch(IllegalArgumentException e) {
+				// expected
+			}
+		}
+	}
+}
@@ -0,0 +1,58 @@
+package io.betelgeuse.ethereum.pwg;
+
+import java.math.BigInteger;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import io.betelgeuse.ethereum.transaction.Transaction1559;
+
+import static io.betelgeuse.ethereum.pwg.TransactionDecoderTest.PRIVATE_KEY;
+import static io.betelgeuse.ethereum.pwg.TransactionDecoderTest.TO;
+
+public class FeeLadderTest {
+
+	private final Credentials credentials = Credentials.create(PRIVATE_KEY);
+
+	@Test
+	public void testLevels() {
+		List<FeeLadder.Level> levels = FeeLadder.levels(BigInteger.valueOf(2), BigInteger.valueOf(60), BigInteger.valueOf(11), BigInteger.valueOf(3));
+
+		Assert.assertEquals("Unexpected number of levels", 4, levels.size());
+		Assert.assertEquals("Unexpected priority fee", BigInteger.valueOf(11), levels.get(3).getMaxPriorityFeePerGas());
+		Assert.assertEquals("Unexpected max fee", BigInteger.valueOf(69), levels.get(3).getMaxFeePerGas());
+
+		try {
+			FeeLadder.levels(BigInteger.ONE, BigInteger.TEN, BigInteger.TEN, BigInteger.ZERO);
+			Assert.fail("Zero step should be rejected");
+		}
+		catch(IllegalArgumentException e) {
+			// expected
+		}
+	}
+
+	@Test
+	public void testVariantsMatchSingleSigning() {
+		String data = "0xa9059cbb" + Strings.zeros(128);
+		Transaction1559 transaction = Transaction1559.createTransaction(1, BigInteger.valueOf(42), BigInteger.valueOf(65000), TO,
+				BigInteger.valueOf(1000), data, BigInteger.ONE, BigInteger.TEN);
+		List<FeeLadder.Level> levels = FeeLadder.levels(BigInteger.valueOf(1000000000L), BigInteger.valueOf(30000000000L),
+				BigInteger.valueOf(20000000000L), BigInteger.valueOf(1000000000L));
+
+		List<FeeLadder.Variant> variants = new FeeLadder(credentials, 3).sign(transaction, levels);
+		Assert.assertEquals("Unexpected number of variants", levels.size(), variants.size());
+
+		for(int i = 0; i < levels.size(); i++) {
+			FeeLadder.Level level = levels.get(i);
+			FeeLadder.Variant variant = variants.get(i);
+			RawTransaction expected = RawTransaction.createTransaction(1, BigInteger.valueOf(42), BigInteger.valueOf(65000), TO,
+					BigInteger.valueOf(1000), data, level.getMaxPriorityFeePerGas(), level.getMaxFeePerGas());
+			byte [] signed = TransactionEncoder.signMessage(expected, credentials);
+
+			Assert.assertSame("Unexpected level", level, variant.getLevel());
+			Assert.assertArrayEquals("Variant differs from single signing", signed, variant.getSignedTransaction());
+			Assert.assertArrayEquals("Unexpected transaction hash", Hash.sha3(signed), variant.getTransactionHash());
+		}
+	}
+}
@@ -0,0 +1,65 @@
+package io.betelgeuse.ethereum.pwg;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import org.bouncycastle.jcajce.provider.digest.Keccak;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class HashTest {
+
+	public static final String EMPTY_HASH = "0xc5d2460186f7233c927e7db2dcc703c0e500b653ca82273b7bfad8045d85a470";
+
+	@Test
+	public void testSha3() {
+		Assert.assertEquals("Unexpected hash of empty input", EMPTY_HASH, Numeric.toHexString(Hash.sha3(new byte[0])));
+		Assert.assertEquals("Unexpected hash of empty hex input", EMPTY_HASH, Hash.sha3(""));
+
+		for(int length: new int [] { 1, 31, 135, 136, 137, 1000 }) {
+			byte [] input = Wallet.generateRandomBytes(length);
+
+			Assert.assertArrayEquals("Unexpected hash for length " + length, new Keccak.Digest256().digest(input), Hash.sha3(input));
+		}
+	}
+
+	@Test
+	public void testIncremental() {
+		byte [] input = Wallet.generateRandomBytes(500);
+		byte [] expected = Hash.sha3(input);
+
+		byte [] first = new byte[123];
+		byte [] second = new byte[input.length - first.length];
+		System.arraycopy(input, 0, first, 0, first.length);
+		System.arraycopy(input, first.length, second, 0, second.length);
+
+		Assert.assertArrayEquals("Unexpected hash of pieces", expected, Hash.keccak256().update(first, second).digest());
+		Assert.assertArrayEquals("Unexpected hash of ranges", expected, Hash.keccak256().update(input, 0, 200).update(input, 200, 300).digest());
+
+		ByteBuffer direct = ByteBuffer.allocateDirect(input.length);
+		direct.put(input).flip();
+		ByteBuffer heap = ByteBuffer.wrap(input, 10, 490);
+
+		Assert.assertArrayEquals("Unexpected hash of direct buffer", expected, Hash.keccak256().update(direct).digest());
+		Assert.assertEquals("Direct buffer should be consumed", 0, direct.remaining());
+		Assert.assertArrayEquals("Unexpected hash of heap buffer", expected, Hash.keccak256().update(input, 0, 10).update(heap).digest());
+		Assert.assertEquals("Heap buffer should be consumed", 0, heap.remaining());
+
+		byte [] out = new byte[40];
+		Hash.keccak256().update(input).digestInto(out, 8);
+		for(int i = 0; i < Hash.SHA3_LENGTH; i++) {
+			Assert.assertEquals("Unexpected hash byte " + i, expected[i], out[8 + i]);
+		}
+	}
+
+	@Test
+	public void testEthereumMessageHash() {
+		byte [] message = "Hello, paper wallet".getBytes(StandardCharsets.UTF_8);
+		byte [] prefix = Sign.getEthereumMessagePrefix(message.length);
+		byte [] concatenated = new byte[prefix.length + message.length];
+		System.arraycopy(prefix, 0, concatenated, 0, prefix.length);
+		System.arraycopy(message, 0, concatenated, prefix.length, message.length);
+
+		Assert.assertArrayEquals("Unexpected message hash", Hash.sha3(concatenated), Sign.getEthereumMessageHash(message));
+	}
+}
@@ -0,0 +1,31 @@
+package io.betelgeuse.ethereum.pwg;
+
+/**
+ * Time of deriving the keys of BIP-44 Ethereum accounts 0 to 9999 with the node cache of
+ * {@link HdKeyChain} and with every path derived in full from the master key.
+ */
+public class HdKeyChainBenchmark {
+
+	public static final int ACCOUNTS = 10_000;
+
+	public static void main(String [] args) throws Exception {
+		byte [] seed = MnemonicUtils.generateSeed(MnemonicUtils.generateMnemonic(Wallet.generateRandomBytes(16)), "");
+
+		for(int round = 0; round < 3; round++) {
+			run("full paths", new HdKeyChain(seed, 0));
+			run("node cache", new HdKeyChain(seed));
+		}
+	}
+
+	private static void run(String name, HdKeyChain chain) {
+		long start = System.nanoTime();
+
+		for(int i = 0; i < ACCOUNTS; i++) {
+			chain.deriveAccountKeyPair(i);
+		}
+
+		double seconds = (System.nanoTime() - start) / 1e9;
+		System.out.printf("%-12s %,d accounts in %.2f s, %,d child steps, %.1f us/account%n",
+				name, ACCOUNTS, seconds, chain.getChildDerivations(), seconds * 1e6 / ACCOUNTS);
+	}
+}
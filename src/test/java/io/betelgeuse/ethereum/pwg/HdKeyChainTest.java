@@ -0,0 +1,79 @@
+package io.betelgeuse.ethereum.pwg;
+
+import java.util.Arrays;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class HdKeyChainTest {
+
+	public static final String MNEMONIC = "abandon abandon abandon abandon abandon abandon abandon abandon abandon abandon abandon about";
+
+	// test vector 1 of BIP-32: path, private key and chain code
+	private static final String [][] BIP32_VECTOR_1 = {
+			{ "m", "e8f32e723decf4051aefac8e2c93c9c5b214313817cdb01a1494b917c8436b35", "873dff81c02f525623fd1fe5167eac3a55a049de3d314bb42ee227ffed37d508" },
+			{ "m/0H", "edb2e14f9ee77d26dd93b4ecede8d16ed408ce149b6cd80b0715a2d911a0afea", "47fdacbd0f1097043b78c63c20c34ef4ed9a111d980047ad16282c7ae6236141" },
+			{ "m/0H/1", "3c6cb8d0f6a264c91ea8b5030fadaa8e538b020f0a387421a12de9319dc93368", "2a7857631386ba23dacac34180dd1983734e444fdbf774041578e9b6adb37c19" }
+	};
+
+	@Test
+	public void testBip32Vector() {
+		HdKeyChain chain = new HdKeyChain(Numeric.hexStringToByteArray("000102030405060708090a0b0c0d0e0f"));
+
+		for(String [] vector: BIP32_VECTOR_1) {
+			Bip32ECKeyPair key = chain.deriveKeyPair(vector[0]);
+
+			Assert.assertEquals("Unexpected private key of " + vector[0], vector[1], Numeric.toHexStringNoPrefix(Numeric.toBytesPadded(key.getPrivateKey(), 32)));
+			Assert.assertEquals("Unexpected chain code of " + vector[0], vector[2], Numeric.toHexStringNoPrefix(key.getChainCode()));
+			Assert.assertEquals("Unexpected public key of " + vector[0], Sign.publicKeyFromPrivate(key.getPrivateKey()), key.getPublicKey());
+		}
+
+		Bip32ECKeyPair child = chain.deriveKeyPair("m/0H/1");
+		Assert.assertEquals("Unexpected depth", 2, child.getDepth());
+		Assert.assertEquals("Unexpected child number", 1, child.getChildNumber());
+		Assert.assertEquals("Unexpected parent fingerprint", chain.deriveKeyPair("m/0H").getFingerprint(), child.getParentFingerprint());
+		Assert.assertEquals("Unexpected master fingerprint", 0x3442193e, chain.getMasterKeyPair().getFingerprint());
+	}
+
+	@Test
+	public void testEthereumAccounts() {
+		HdKeyChain chain = HdKeyChain.fromMnemonic(MNEMONIC, "");
+
+		Assert.assertEquals("Unexpected address of account 0", "0x9858effd232b4033e47d90003d41ec34ecaeda94", chain.getAccount(0).getAddress());
+		Assert.assertEquals("Unexpected credentials from WalletUtils", chain.getAccount(0).getAddress(), WalletUtils.loadBip44Credentials("", MNEMONIC).getAddress());
+
+		for(int i = 0; i < 5; i++) {
+			Assert.assertEquals("Account " + i + " should be the key at its path", Bip32ECKeyPair.deriveKeyPair(chain.getMasterKeyPair(), Bip32ECKeyPair.parsePath("m/44'/60'/0'/0/" + i)).getPrivateKey(),
+					chain.deriveAccountKeyPair(i).getPrivateKey());
+		}
+	}
+
+	@Test
+	public void testCacheReusesParentPath() {
+		HdKeyChain chain = HdKeyChain.fromMnemonic(MNEMONIC, "");
+		HdKeyChain uncached = new HdKeyChain(MnemonicUtils.generateSeed(MNEMONIC, ""), 0);
+
+		for(int i = 0; i < 100; i++) {
+			Assert.assertEquals("Cached and uncached account " + i + " differ", uncached.getAccount(i).getAddress(), chain.getAccount(i).getAddress());
+		}
+
+		Assert.assertEquals("Accounts should cost the parent path once and a step each", 4 + 100, chain.getChildDerivations());
+		Assert.assertEquals("Uncached accounts should cost the full path each", 5 * 100, uncached.getChildDerivations());
+	}
+
+	@Test
+	public void testInvalidPaths() {
+		for(String path: new String [] { "", "44'/60'", "m/x", "m/-1", "m/1''", "m/2147483648" }) {
+			try {
+				Bip32ECKeyPair.parsePath(path);
+				Assert.fail("Path should be rejected: " + path);
+			}
+			catch(IllegalArgumentException e) {
+				// expected
+			}
+		}
+
+		Assert.assertTrue("Unexpected path", Arrays.equals(Bip32ECKeyPair.parsePath(HdKeyChain.ETHEREUM_ACCOUNT_PATH), Bip32ECKeyPair.parsePath("m/44'/60'/0h/0")));
+		Assert.assertEquals("Unexpected master key", new HdKeyChain(new byte[16]).getMasterKeyPair().getPrivateKey(), new HdKeyChain(new byte[16]).deriveKeyPair("m").getPrivateKey());
+	}
+}
@@ -0,0 +1,116 @@
+package io.betelgeuse.ethereum.pwg;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class KdfSchedulerTest {
+
+	public static final String PASS_PHRASE = "good pass phrase";
+
+	@Test
+	public void testRequiredMemory() throws Exception {
+		WalletFile walletFile = Wallet.createLight(PASS_PHRASE, Keys.createEcKeyPair());
+
+		Assert.assertEquals("Unexpected memory for light wallet", Wallet.lightScryptMemory(), KdfScheduler.requiredMemory(walletFile));
+		Assert.assertEquals("Missing crypto section needs no memory", 0, KdfScheduler.requiredMemory(new WalletFile()));
+	}
+
+	@Test
+	public void testDecryptWithinBudget() throws Exception {
+		// budget for a single light wallet at a time
+		KdfScheduler scheduler = new KdfScheduler(Wallet.lightScryptMemory(), 4);
+		List<ECKeyPair> keyPairs = new ArrayList<>();
+		List<CompletableFuture<ECKeyPair>> futures = new ArrayList<>();
+
+		try {
+			for(int i = 0; i < 4; i++) {
+				ECKeyPair keyPair = Keys.createEcKeyPair();
+				keyPairs.add(keyPair);
+				futures.add(scheduler.submit(PASS_PHRASE, Wallet.createLight(PASS_PHRASE, keyPair)));
+			}
+
+			for(int i = 0; i < 4; i++) {
+				Assert.assertEquals("Unexpected decrypted key pair", keyPairs.get(i), futures.get(i).get());
+			}
+
+			KdfScheduler.Stats stats = scheduler.getStats();
+			Assert.assertEquals("Unexpected number of finished jobs", 4, stats.getJobs());
+			Assert.assertTrue("Reserved memory should stay within the budget", stats.getPeakReservedBytes() <= Wallet.lightScryptMemory());
+			Assert.assertEquals("Only one job should have run at a time", Wallet.lightScryptMemory(), stats.getPeakReservedBytes());
+		}
+		finally {
+			scheduler.shutdown();
+		}
+	}
+
+	@Test
+	public void testSmallJobsOvertakeBoundedTimes() throws Exception {
+		int smallJobs = KdfScheduler.MAX_OVERTAKES + 2;
+		WalletFile big = Wallet.create(PASS_PHRASE, Keys.createEcKeyPair(), 1 << 14, 6);
+		long budget = KdfScheduler.requiredMemory(big);
+		List<WalletFile> small = new ArrayList<>();
+
+		// files first, so the jobs below are submitted back to back
+		for(int i = 0; i < smallJobs + 1; i++) {
+			small.add(Wallet.createLight(PASS_PHRASE, Keys.createEcKeyPair()));
+		}
+
+		// two light jobs fit next to each other, the big job fits only alone
+		Assert.assertTrue(2 * Wallet.lightScryptMemory() <= budget);
+		Assert.assertTrue(Wallet.lightScryptMemory() + budget > budget);
+
+		KdfScheduler scheduler = new KdfScheduler(budget, 2);
+		List<String> finished = Collections.synchronizedList(new ArrayList<>());
+		List<CompletableFuture<ECKeyPair>> futures = new ArrayList<>();
+
+		try {
+			futures.add(submit(scheduler, small.get(0), "first", finished));
+			futures.add(submit(scheduler, big, "big", finished));
+
+			for(int i = 1; i <= smallJobs; i++) {
+				futures.add(submit(scheduler, small.get(i), "small" + i, finished));
+			}
+
+			for(CompletableFuture<ECKeyPair> future: futures) {
+				future.get();
+			}
+
+			// the blocked big job is overtaken MAX_OVERTAKES times, then the queue waits for it
+			List<String> expected = new ArrayList<>();
+			expected.add("first");
+			for(int i = 1; i <= KdfScheduler.MAX_OVERTAKES; i++) {
+				expected.add("small" + i);
+			}
+
+			Assert.assertEquals("Unexpected jobs finished before the big job",
+					new HashSet<>(expected), new HashSet<>(finished.subList(0, finished.indexOf("big"))));
+			Assert.assertTrue("Reserved memory should stay within the budget", scheduler.getStats().getPeakReservedBytes() <= budget);
+		}
+		finally {
+			scheduler.shutdown();
+		}
+	}
+
+	private static CompletableFuture<ECKeyPair> submit(KdfScheduler scheduler, WalletFile walletFile, String name, List<String> finished) {
+		return scheduler.submit(PASS_PHRASE, walletFile).whenComplete((keyPair, e) -> finished.add(name));
+	}
+
+	@Test
+	public void testDecryptBadPassPhrase() throws Exception {
+		WalletFile walletFile = Wallet.createLight(PASS_PHRASE, Keys.createEcKeyPair());
+
+		try {
+			KdfScheduler.getDefault().decrypt(PASS_PHRASE + " bad", walletFile);
+			Assert.fail("Bad pass phrase should not decrypt");
+		}
+		catch(CipherException e) {
+			// expected
+		}
+	}
+}
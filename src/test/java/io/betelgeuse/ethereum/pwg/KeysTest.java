@@ -0,0 +1,51 @@
+package io.betelgeuse.ethereum.pwg;
+
+import java.math.BigInteger;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class KeysTest {
+
+	public static final String PRIVATE_KEY = "0xa392604efc2fad9c0b3da43b5f698a2e3f270f170d859912be0d54742275c5f6";
+	public static final String PUBLIC_KEY = "0x506bc1dc099358e5137292f4efdd57e400f29ba5132aa5d12b18dac1c1f6aaba645c0b7b58158babbfa6c6cd5a48aa7340a8749176b120e8516216787a13dc76";
+	public static final String ADDRESS = "ef678007d18427e6022059dbc264f27507cd1ffc";
+
+	@Test
+	public void testGetAddress() {
+		ECKeyPair keyPair = ECKeyPair.create(Numeric.toBigInt(PRIVATE_KEY));
+
+		Assert.assertEquals("Unexpected public key", Numeric.toBigInt(PUBLIC_KEY), keyPair.getPublicKey());
+		Assert.assertEquals("Unexpected address", ADDRESS, Keys.getAddress(keyPair));
+		Assert.assertEquals("Unexpected address from public key", ADDRESS, Keys.getAddress(Numeric.toBigInt(PUBLIC_KEY)));
+		Assert.assertEquals("Unexpected address from hex public key", ADDRESS, Keys.getAddress(PUBLIC_KEY));
+	}
+
+	@Test
+	public void testGetAddressBytes() {
+		for(int i = 0; i < 50; i++) {
+			BigInteger privateKey = Numeric.toBigInt(Wallet.generateRandomBytes(32));
+			ECKeyPair keyPair = ECKeyPair.create(privateKey);
+			String hexPublicKey = Numeric.toHexStringWithPrefixZeroPadded(keyPair.getPublicKey(), Keys.PUBLIC_KEY_LENGTH_IN_HEX);
+
+			byte [] address = Keys.getAddressBytes(keyPair);
+
+			Assert.assertEquals("Unexpected address length", 20, address.length);
+			Assert.assertEquals("Byte and hex derivation differ", Keys.getAddress(hexPublicKey), Numeric.toHexStringNoPrefix(address));
+			Assert.assertArrayEquals("Point derivation differs", address, Keys.getAddressBytes(Sign.publicPointFromPrivate(privateKey)));
+		}
+	}
+
+	@Test
+	public void testToChecksumAddressLenient() {
+		Assert.assertEquals("Unexpected checksum address", "0x5aAeb6053F3E94C9b9A09f33669435E7Ef1BeAed", Keys.toChecksumAddress("0x5aaeb6053f3e94c9b9a09f33669435e7ef1beaed"));
+
+		// input that is not an address is cased, not rejected
+		for(String input: new String [] { "", "0x", "abc", "0xABC", "5aaeb6053f3e94c9b9a09f33669435e7ef1beaed00" }) {
+			String result = Keys.toChecksumAddress(input);
+
+			Assert.assertTrue("Result should be 0x prefixed: " + result, result.startsWith("0x"));
+			Assert.assertTrue("Result should keep the digits of " + input, result.substring(2).equalsIgnoreCase(Numeric.cleanHexPrefix(input)));
+		}
+	}
+}
@@ -0,0 +1,50 @@
+package io.betelgeuse.ethereum.pwg;
+
+import java.util.BitSet;
+import java.util.List;
+import java.util.StringTokenizer;
+
+/**
+ * Time and allocation of validating and generating 24 word mnemonics, compared to the word list
+ * scan and bit by bit packing the codec used before.
+ */
+public class MnemonicBenchmark {
+
+	public static final int ITERATIONS = 100_000;
+
+	public static void main(String [] args) throws Exception {
+		byte [] entropy = Wallet.generateRandomBytes(32);
+		String mnemonic = MnemonicUtils.generateMnemonic(entropy);
+
+		Benchmark.run("24 words, indexOf and BitSet", ITERATIONS, () -> scanEntropy(mnemonic));
+		Benchmark.run("24 words, MnemonicUtils.validateMnemonic", ITERATIONS, () -> MnemonicUtils.validateMnemonic(mnemonic));
+		Benchmark.run("24 words, MnemonicUtils.generateMnemonic", ITERATIONS, () -> MnemonicUtils.generateMnemonic(entropy));
+	}
+
+	// the previous decoding: a linear word list scan and one BitSet call per bit
+	private static byte [] scanEntropy(String mnemonic) {
+		List<String> vocabulary = MnemonicUtils.getWords();
+		BitSet bits = new BitSet();
+		int size = 0;
+
+		for(StringTokenizer tokenizer = new StringTokenizer(mnemonic, " "); tokenizer.hasMoreTokens(); ) {
+			int index = vocabulary.indexOf(tokenizer.nextToken());
+
+			for(int k = 0; k < 11; k++) {
+				bits.set(size++, ((index >> (10 - k)) & 1) == 1);
+			}
+		}
+
+		byte [] entropy = new byte[32 * size / 33 / 8];
+
+		for(int i = 0; i < entropy.length * 8; i++) {
+			if(bits.get(i)) {
+				entropy[i / 8] |= 1 << (7 - i % 8);
+			}
+		}
+
+		// the same checksum work as the validation
+		MnemonicUtils.calculateChecksum(entropy);
+		return entropy;
+	}
+}
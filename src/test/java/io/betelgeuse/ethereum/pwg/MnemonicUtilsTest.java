@@ -0,0 +1,131 @@
+package io.betelgeuse.ethereum.pwg;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class MnemonicUtilsTest {
+
+	// entropy, mnemonic and seed with passphrase TREZOR from the BIP-39 reference vectors
+	private static final String [][] VECTORS = {
+			{ "00000000000000000000000000000000",
+					"abandon abandon abandon abandon abandon abandon abandon abandon abandon abandon abandon about",
+					"c55257c360c07c72029aebc1b53c05ed0362ada38ead3e3e9efa3708e53495531f09a6987599d18264c1e1c92f2cf141630c7a3c4ab7c81b2f001698e7463b04" },
+			{ "7f7f7f7f7f7f7f7f7f7f7f7f7f7f7f7f",
+					"legal winner thank year wave sausage worth useful legal winner thank yellow",
+					"2e8905819b8723fe2c1d161860e5ee1830318dbf49a83bd451cfb8440c28bd6fa457fe1296106559a3c80937a1c1069be3a3a5bd381ee6260e8d9739fce1f607" },
+			{ "80808080808080808080808080808080",
+					"letter advice cage absurd amount doctor acoustic avoid letter advice cage above",
+					"d71de856f81a8acc65e6fc851a38d4d7ec216fd0796d0a6827a3ad6ed5511a30fa280f12eb2e47ed2ac03b5c462a0358d18d69fe4f985ec81778c1b370b652a8" },
+			{ "ffffffffffffffffffffffffffffffff",
+					"zoo zoo zoo zoo zoo zoo zoo zoo zoo zoo zoo wrong",
+					"ac27495480225222079d7be181583751e86f571027b0497b5b5d11218e0a8a13332572917f0f8e5a589620c6f15b11c61dee327651a14c34e18231052e48c069" },
+			{ "0000000000000000000000000000000000000000000000000000000000000000",
+					"abandon abandon abandon abandon abandon abandon abandon abandon abandon abandon abandon abandon abandon abandon abandon abandon abandon abandon abandon abandon abandon abandon abandon art",
+					"bda85446c68413707090a52022edd26a1c9462295029f2e60cd7c4f2bbd3097170af7a4d73245cafa9c3cca8d561a7c3de6f5d4a10be8ed2a5e608d68f92fcc8" },
+			{ "ffffffffffffffffffffffffffffffffffffffffffffffffffffffffffffffff",
+					"zoo zoo zoo zoo zoo zoo zoo zoo zoo zoo zoo zoo zoo zoo zoo zoo zoo zoo zoo zoo zoo zoo zoo vote",
+					"dd48c104698c30cfe2b6142103248622fb7bb0ff692eebb00089b32d22484e1613912f0a5b694407be899ffd31ed3992c456cdf60f5d4564b8ba3f05a69890ad" }
+	};
+
+	@Test
+	public void testReferenceVectors() {
+		for(String [] vector: VECTORS) {
+			byte [] entropy = Numeric.hexStringToByteArray(vector[0]);
+
+			Assert.assertEquals("Unexpected mnemonic", vector[1], MnemonicUtils.generateMnemonic(entropy));
+			Assert.assertArrayEquals("Unexpected entropy", entropy, MnemonicUtils.generateEntropy(vector[1]));
+			Assert.assertEquals("Unexpected seed", vector[2], Numeric.toHexStringNoPrefix(MnemonicUtils.generateSeed(vector[1], "TREZOR")));
+			Assert.assertTrue("Mnemonic should be valid", MnemonicUtils.validateMnemonic(vector[1]));
+		}
+	}
+
+	@Test
+	public void testRoundTrip() {
+		Random random = new Random(42);
+
+		for(int i = 0; i < 500; i++) {
+			byte [] entropy = new byte[16 + 4 * random.nextInt(5)];
+			random.nextBytes(entropy);
+
+			String mnemonic = MnemonicUtils.generateMnemonic(entropy);
+
+			Assert.assertEquals("Unexpected mnemonic", referenceMnemonic(entropy), mnemonic);
+			Assert.assertArrayEquals("Unexpected entropy", entropy, MnemonicUtils.generateEntropy(mnemonic));
+		}
+	}
+
+	@Test
+	public void testInvalidMnemonics() {
+		String valid = VECTORS[1][1];
+
+		String [] invalid = {
+				"",
+				"legal winner thank year wave sausage worth useful legal winner thank",
+				"legal winner thank year wave sausage worth useful legal winner thank yellow legal",
+				"legal winner thank year wave sausage worth useful legal winner thank thank",
+				"legal winner thank year wave sausage worth useful legal winner thank yelow",
+				"Legal winner thank year wave sausage worth useful legal winner thank yellow",
+				valid + " abandon abandon abandon"
+		};
+
+		for(String mnemonic: invalid) {
+			Assert.assertFalse("Mnemonic should be invalid: " + mnemonic, MnemonicUtils.validateMnemonic(mnemonic));
+
+			try {
+				MnemonicUtils.generateEntropy(mnemonic);
+				Assert.fail("Entropy of an invalid mnemonic: " + mnemonic);
+			}
+			catch(IllegalArgumentException e) {
+				// expected
+			}
+		}
+
+		try {
+			MnemonicUtils.generateEntropy("legal winner thank year wave sausage worth useful legal winner thank yelow");
+			Assert.fail("Unknown word should be rejected");
+		}
+		catch(IllegalArgumentException e) {
+			Assert.assertEquals("Unexpected message", "Mnemonic word 'yelow' should be in the word list", e.getMessage());
+		}
+
+		Assert.assertTrue("Extra spaces should be ignored", MnemonicUtils.validateMnemonic("  " + valid.replace(" ", "   ") + " "));
+	}
+
+	@Test
+	public void testInvalidEntropy() {
+		for(int length: new int [] { 0, 12, 15, 17, 36 }) {
+			try {
+				MnemonicUtils.generateMnemonic(new byte[length]);
+				Assert.fail("Entropy of " + length + " bytes should be rejected");
+			}
+			catch(IllegalArgumentException e) {
+				// expected
+			}
+		}
+	}
+
+	// the mnemonic as the specification builds it, one bit at a time
+	private static String referenceMnemonic(byte [] entropy) {
+		byte [] hash = Hash.sha256(entropy);
+		int bits = entropy.length * 8 + entropy.length / 4;
+		List<String> words = new ArrayList<>();
+
+		for(int word = 0; word < bits / 11; word++) {
+			int index = 0;
+
+			for(int bit = word * 11; bit < word * 11 + 11; bit++) {
+				byte [] source = bit < entropy.length * 8 ? entropy : hash;
+				int offset = bit < entropy.length * 8 ? bit : bit - entropy.length * 8;
+				index = (index << 1) | ((source[offset / 8] >>> (7 - offset % 8)) & 1);
+			}
+
+			words.add(MnemonicUtils.getWords().get(index));
+		}
+
+		return String.join(" ", words);
+	}
+}
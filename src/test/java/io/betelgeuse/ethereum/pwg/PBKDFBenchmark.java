@@ -0,0 +1,72 @@
+package io.betelgeuse.ethereum.pwg;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.bouncycastle.crypto.digests.SHA256Digest;
+import org.bouncycastle.crypto.digests.SHA512Digest;
+import org.bouncycastle.crypto.generators.PKCS5S2ParametersGenerator;
+import org.bouncycastle.crypto.params.KeyParameter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Time and allocation of deriving a BIP-39 seed, PBKDF2-HMAC-SHA512 with 2048 iterations, and of
+ * decrypting a pbkdf2 keystore, PBKDF2-HMAC-SHA256 with 262144 iterations: with Bouncy Castle,
+ * with the JDK {@link javax.crypto.Mac} and with the {@link PBKDF} engine.
+ */
+public class PBKDFBenchmark {
+
+	public static final int ITERATIONS = 200;
+	public static final int KEYSTORE_ITERATIONS = 5;
+	public static final int SEED_ITERATIONS = 2048;
+
+	public static void main(String [] args) throws Exception {
+		byte [] mnemonic = MnemonicUtils.generateMnemonic(Wallet.generateRandomBytes(32)).getBytes(UTF_8);
+		byte [] salt = "mnemonicTREZOR".getBytes(UTF_8);
+
+		Benchmark.run("BIP-39 seed, Bouncy Castle PKCS5S2ParametersGenerator", ITERATIONS, () -> {
+			PKCS5S2ParametersGenerator generator = new PKCS5S2ParametersGenerator(new SHA512Digest());
+			generator.init(mnemonic, salt, SEED_ITERATIONS);
+			((KeyParameter) generator.generateDerivedParameters(512)).getKey();
+		});
+		Benchmark.run("BIP-39 seed, JDK Mac", ITERATIONS, () -> jdkMac(PBKDF.HMAC_SHA512, mnemonic, salt, SEED_ITERATIONS, 64));
+		Benchmark.run("BIP-39 seed, PBKDF.pbkdf2HmacSha512", ITERATIONS, () -> PBKDF.pbkdf2HmacSha512(mnemonic, salt, SEED_ITERATIONS, 64));
+
+		WalletFile walletFile = new ObjectMapper().readValue(PBKDFTest.PBKDF2_KEYSTORE, WalletFile.class);
+		byte [] password = PBKDFTest.PBKDF2_KEYSTORE_PASSWORD.getBytes(UTF_8);
+		byte [] keystoreSalt = Numeric.hexStringToByteArray(walletFile.getCrypto().getKdfparams().getSalt());
+		int c = 262144;
+
+		Benchmark.run("pbkdf2 keystore key, Bouncy Castle PKCS5S2ParametersGenerator", KEYSTORE_ITERATIONS, () -> {
+			PKCS5S2ParametersGenerator generator = new PKCS5S2ParametersGenerator(new SHA256Digest());
+			generator.init(password, keystoreSalt, c);
+			((KeyParameter) generator.generateDerivedParameters(256)).getKey();
+		});
+		Benchmark.run("pbkdf2 keystore key, JDK Mac", KEYSTORE_ITERATIONS, () -> jdkMac(PBKDF.HMAC_SHA256, password, keystoreSalt, c, 32));
+		Benchmark.run("pbkdf2 keystore key, PBKDF.pbkdf2HmacSha256", KEYSTORE_ITERATIONS, () -> PBKDF.pbkdf2HmacSha256(password, keystoreSalt, c, 32));
+		Benchmark.run("pbkdf2 keystore, Wallet.decrypt", KEYSTORE_ITERATIONS, () -> {
+			try {
+				Wallet.decrypt(PBKDFTest.PBKDF2_KEYSTORE_PASSWORD, walletFile);
+			}
+			catch(CipherException e) {
+				throw new IllegalStateException(e);
+			}
+		});
+	}
+
+	private static byte [] jdkMac(String algorithm, byte [] password, byte [] salt, int c, int dkLen) {
+		try {
+			Mac mac = Mac.getInstance(algorithm);
+			mac.init(new SecretKeySpec(password, algorithm));
+			byte [] key = new byte[dkLen];
+			PBKDF.pbkdf2(mac, salt, c, key, dkLen);
+			return key;
+		}
+		catch(Exception e) {
+			throw new IllegalStateException(e);
+		}
+	}
+}
@@ -0,0 +1,113 @@
+package io.betelgeuse.ethereum.pwg;
+
+import java.util.Random;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.bouncycastle.crypto.Digest;
+import org.bouncycastle.crypto.digests.SHA256Digest;
+import org.bouncycastle.crypto.digests.SHA512Digest;
+import org.bouncycastle.crypto.generators.PKCS5S2ParametersGenerator;
+import org.bouncycastle.crypto.params.KeyParameter;
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+public class PBKDFTest {
+
+	// pbkdf2 test vector of the Web3 Secret Storage definition
+	public static final String PBKDF2_KEYSTORE = "{\"crypto\":{\"cipher\":\"aes-128-ctr\",\"cipherparams\":{\"iv\":\"6087dab2f9fdbbfaddc31a909735c1e6\"},"
+			+ "\"ciphertext\":\"5318b4d5bcd28de64ee5559e671353e16f075ecae9f99c7a79a38af5f869aa46\",\"kdf\":\"pbkdf2\","
+			+ "\"kdfparams\":{\"c\":262144,\"dklen\":32,\"prf\":\"hmac-sha256\",\"salt\":\"ae3cd4e7013836a3df6bd7241b12db061dbe2c6785853cce422d148a624ce0bd\"},"
+			+ "\"mac\":\"517ead924a9d0dc3124507e3393d175ce3ff7c1e96529c6c555ce9e51205e9b2\"},"
+			+ "\"id\":\"3198bc9c-6672-5ab3-d995-4942343ae5b6\",\"version\":3}";
+	public static final String PBKDF2_KEYSTORE_PASSWORD = "testpassword";
+	public static final String PBKDF2_KEYSTORE_PRIVATE_KEY = "7a28b5ba57c53603b0b07b56bba752f7784bf506fa95edc395f5cf6c7514fe9d";
+
+	@Test
+	public void testHmacSha256SameAsBouncyCastle() throws Exception {
+		assertSameAsBouncyCastle(PBKDF.HMAC_SHA256, new SHA256Digest());
+	}
+
+	@Test
+	public void testHmacSha512SameAsBouncyCastle() throws Exception {
+		assertSameAsBouncyCastle(PBKDF.HMAC_SHA512, new SHA512Digest());
+	}
+
+	@Test
+	public void testMacSameAsEngine() throws Exception {
+		byte [] password = "password".getBytes("UTF-8");
+		byte [] salt = "salt".getBytes("UTF-8");
+
+		for(String algorithm: new String [] { PBKDF.HMAC_SHA256, PBKDF.HMAC_SHA512 }) {
+			Mac mac = Mac.getInstance(algorithm);
+			mac.init(new SecretKeySpec(password, algorithm));
+			byte [] expected = new byte[100];
+			PBKDF.pbkdf2(mac, salt, 4096, expected, expected.length);
+
+			Assert.assertArrayEquals("Unexpected key for " + algorithm, expected, PBKDF.pbkdf2(algorithm, password, salt, 4096, 100));
+		}
+	}
+
+	@Test
+	public void testDecryptPbkdf2Keystore() throws Exception {
+		WalletFile walletFile = new ObjectMapper().readValue(PBKDF2_KEYSTORE, WalletFile.class);
+
+		ECKeyPair keyPair = Wallet.decrypt(PBKDF2_KEYSTORE_PASSWORD, walletFile);
+		Assert.assertEquals("Unexpected private key", PBKDF2_KEYSTORE_PRIVATE_KEY, Numeric.toHexStringNoPrefix(keyPair.getPrivateKey()));
+
+		try {
+			Wallet.decrypt(PBKDF2_KEYSTORE_PASSWORD + " bad", walletFile);
+			Assert.fail("Bad password should not decrypt");
+		}
+		catch(CipherException e) {
+			// expected
+		}
+	}
+
+	@Test
+	public void testInvalidParameters() {
+		try {
+			PBKDF.pbkdf2HmacSha512(new byte[1], new byte[1], 0, 64);
+			Assert.fail("Iteration count 0 should be rejected");
+		}
+		catch(IllegalArgumentException e) {
+			// expected
+		}
+
+		try {
+			PBKDF.pbkdf2HmacSha256(new byte[1], new byte[1], 1, -1);
+			Assert.fail("Negative key length should be rejected");
+		}
+		catch(IllegalArgumentException e) {
+			// expected
+		}
+	}
+
+	private static void assertSameAsBouncyCastle(String algorithm, Digest digest) throws Exception {
+		Random random = new Random(42);
+		int [] lengths = { 0, 1, 31, 32, 33, 55, 56, 63, 64, 65, 111, 112, 127, 128, 129, 200, 300 };
+
+		for(int passwordLength: lengths) {
+			for(int saltLength: lengths) {
+				byte [] password = new byte[passwordLength];
+				byte [] salt = new byte[saltLength];
+				random.nextBytes(password);
+				random.nextBytes(salt);
+
+				int c = 1 + random.nextInt(20);
+				int dkLen = random.nextInt(200);
+
+				digest.reset();
+				PKCS5S2ParametersGenerator generator = new PKCS5S2ParametersGenerator(digest);
+				generator.init(password, salt, c);
+				byte [] expected = ((KeyParameter) generator.generateDerivedParameters(dkLen * 8)).getKey();
+
+				Assert.assertArrayEquals("Unexpected " + algorithm + " key for password " + passwordLength + ", salt " + saltLength,
+						expected, PBKDF.pbkdf2(algorithm, password, salt, c, dkLen));
+			}
+		}
+	}
+}
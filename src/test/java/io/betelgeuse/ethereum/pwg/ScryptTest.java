@@ -0,0 +1,134 @@
+package io.betelgeuse.ethereum.pwg;
+
+import java.nio.charset.StandardCharsets;
+
+import org.bouncycastle.crypto.generators.SCrypt;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ScryptTest {
+
+	/**
+	 * Test vector from RFC 7914, section 12.
+	 */
+	public static final String RFC_7914_PASSWORD = "password";
+	public static final String RFC_7914_SALT = "NaCl";
+	public static final String RFC_7914_KEY = "0xfdbabe1c9d3472007856e7190d01e9fe7c6ad7cbc8237830e77376634b3731622eaf30d92e22a3886ff109279d9830dac727afb94a83ee6d8360cbdfa2cc0640";
+
+	@Test
+	public void testRfc7914Vector() {
+		byte [] key = Scrypt.generate(RFC_7914_PASSWORD.getBytes(StandardCharsets.UTF_8), RFC_7914_SALT.getBytes(StandardCharsets.UTF_8), 1024, 8, 16, 64);
+
+		Assert.assertEquals("Unexpected RFC 7914 key", RFC_7914_KEY, Numeric.toHexString(key));
+	}
+
+	@Test
+	public void testSameAsBouncyCastle() {
+		byte [] password = "good pass phrase".getBytes(StandardCharsets.UTF_8);
+		byte [] salt = Wallet.generateRandomBytes(32);
+
+		int [][] parameters = { {2, 1, 1}, {16, 1, 3}, {1024, 2, 1}, {4096, 8, 6}, {256, 3, 7} };
+
+		for(int [] nrp: parameters) {
+			byte [] expected = SCrypt.generate(password, salt, nrp[0], nrp[1], nrp[2], 32);
+			byte [] actual = Scrypt.generate(password, salt, nrp[0], nrp[1], nrp[2], 32);
+
+			Assert.assertArrayEquals(String.format("Unexpected key for N=%d r=%d p=%d", nrp[0], nrp[1], nrp[2]), expected, actual);
+		}
+	}
+
+	@Test
+	public void testMemoryPool() {
+		byte [] password = "good pass phrase".getBytes(StandardCharsets.UTF_8);
+		byte [] salt = Wallet.generateRandomBytes(32);
+		long laneBytes = 4L * Scrypt.workspaceLength(1024, 8);
+		ScryptMemoryPool pool = new ScryptMemoryPool(2 * laneBytes, 0);
+
+		byte [] key1 = Scrypt.generate(password, salt, 1024, 8, 2, 32, pool);
+		Assert.assertEquals("Workspaces should be cached after use", 2 * laneBytes, pool.getCachedBytes());
+
+		byte [] key2 = Scrypt.generate(password, salt, 1024, 8, 2, 32, pool);
+		Assert.assertArrayEquals("Reused workspaces must not change the key", key1, key2);
+		Assert.assertEquals("Workspaces should be returned", 0, pool.getInUseBytes());
+
+		int [][] workspaces = pool.acquire(1, (int) Scrypt.workspaceLength(1024, 8));
+
+		try {
+			Scrypt.generate(password, salt, 1024, 8, 2, 32, pool);
+			Assert.fail("Exhausted pool should fail fast");
+		}
+		catch(IllegalStateException e) {
+			// expected
+		}
+		finally {
+			pool.release(workspaces);
+		}
+
+		for(int word: workspaces[0]) {
+			Assert.assertEquals("Returned workspace must be zeroed", 0, word);
+		}
+	}
+
+	@Test
+	public void testMemoryPoolFailedAcquire() {
+		byte [] password = "good pass phrase".getBytes(StandardCharsets.UTF_8);
+		byte [] salt = Wallet.generateRandomBytes(32);
+		ScryptMemoryPool pool = new ScryptMemoryPool(Long.MAX_VALUE, 0);
+
+		try {
+			// beyond the max array size of the VM, the allocation fails right away
+			pool.acquire(2, Integer.MAX_VALUE);
+			Assert.fail("Allocation should fail");
+		}
+		catch(OutOfMemoryError e) {
+			// expected
+		}
+
+		Assert.assertEquals("Failed acquire must not keep its reservation", 0, pool.getInUseBytes());
+
+		try {
+			// a lane of (N + 2) * r * 32 ints does not fit an int array
+			Scrypt.generate(password, salt, 1 << 30, 8, 1, 32, pool);
+			Assert.fail("Oversized lane should be rejected");
+		}
+		catch(IllegalArgumentException e) {
+			// expected
+		}
+
+		Assert.assertEquals("Rejected parameters must not reserve memory", 0, pool.getInUseBytes());
+
+		int [][] workspaces = pool.acquire(1, 1024);
+		Assert.assertEquals("Pool should still hand out memory", 4096, pool.getInUseBytes());
+		pool.release(workspaces);
+	}
+
+	@Test
+	public void testMemoryPoolDropsIdleCache() {
+		byte [] password = "good pass phrase".getBytes(StandardCharsets.UTF_8);
+		byte [] salt = Wallet.generateRandomBytes(32);
+		long laneBytes = 4L * Scrypt.workspaceLength(1024, 8);
+		ScryptMemoryPool pool = new ScryptMemoryPool(2 * laneBytes, 0, false);
+
+		Scrypt.generate(password, salt, 1024, 8, 2, 32, pool);
+		Assert.assertEquals("Idle pool should not keep workspaces", 0, pool.getCachedBytes());
+
+		ScryptMemoryPool.Retention retention = pool.retain();
+
+		try {
+			Scrypt.generate(password, salt, 1024, 8, 2, 32, pool);
+			Assert.assertEquals("Workspaces should be cached while retained", 2 * laneBytes, pool.getCachedBytes());
+		}
+		finally {
+			retention.close();
+		}
+
+		Assert.assertEquals("Closed retention should drop the cache", 0, pool.getCachedBytes());
+	}
+
+	@Test
+	public void testEmptyPassword() {
+		byte [] salt = Wallet.generateRandomBytes(32);
+
+		Assert.assertArrayEquals("Unexpected key for empty password", SCrypt.generate(new byte[0], salt, 16, 8, 2, 32), Scrypt.generate(new byte[0], salt, 16, 8, 2, 32));
+	}
+}
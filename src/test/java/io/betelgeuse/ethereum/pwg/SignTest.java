@@ -0,0 +1,86 @@
+package io.betelgeuse.ethereum.pwg;
+
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.bouncycastle.crypto.digests.SHA256Digest;
+import org.bouncycastle.crypto.params.ECPrivateKeyParameters;
+import org.bouncycastle.crypto.signers.ECDSASigner;
+import org.bouncycastle.crypto.signers.HMacDSAKCalculator;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class SignTest {
+
+	public static final int SIGNATURES = 200;
+
+	@Test
+	public void testSameAsBouncyCastle() throws Exception {
+		for(int i = 0; i < SIGNATURES; i++) {
+			ECKeyPair keyPair = Keys.createEcKeyPair();
+			byte [] hash = Hash.sha3(("message " + i).getBytes(StandardCharsets.UTF_8));
+
+			ECDSASigner signer = new ECDSASigner(new HMacDSAKCalculator(new SHA256Digest()));
+			signer.init(true, new ECPrivateKeyParameters(keyPair.getPrivateKey(), Sign.CURVE));
+			BigInteger [] components = signer.generateSignature(hash);
+			ECDSASignature expected = new ECDSASignature(components[0], components[1]).toCanonicalised();
+
+			ECDSASignature actual = keyPair.sign(hash);
+
+			Assert.assertEquals("Unexpected r", expected.r, actual.r);
+			Assert.assertEquals("Unexpected s", expected.s, actual.s);
+			Assert.assertEquals("Unexpected recovery id", recoverRecId(actual, hash, keyPair.getPublicKey()), actual.getRecId());
+		}
+	}
+
+	@Test
+	public void testSigningContext() throws Exception {
+		ECKeyPair keyPair = Keys.createEcKeyPair();
+		SigningContext context = Credentials.create(keyPair).getSigningContext();
+		List<byte[]> hashes = new ArrayList<>();
+
+		for(int i = 0; i < SIGNATURES; i++) {
+			hashes.add(Hash.sha3(("message " + i).getBytes(StandardCharsets.UTF_8)));
+		}
+
+		List<Sign.SignatureData> batch = context.sign(hashes);
+		Assert.assertEquals("Unexpected number of signatures", SIGNATURES, batch.size());
+
+		for(int i = 0; i < SIGNATURES; i++) {
+			Sign.SignatureData expected = Sign.signMessage(hashes.get(i), keyPair, false);
+
+			assertSameSignature(expected, context.sign(hashes.get(i)));
+			assertSameSignature(expected, batch.get(i));
+		}
+	}
+
+	@Test
+	public void testSignedMessageToKey() throws Exception {
+		ECKeyPair keyPair = Keys.createEcKeyPair();
+		byte [] message = "hello".getBytes(StandardCharsets.UTF_8);
+
+		Sign.SignatureData signatureData = Sign.signMessage(message, keyPair);
+
+		Assert.assertEquals("Unexpected recovered key", keyPair.getPublicKey(), Sign.signedMessageToKey(message, signatureData));
+	}
+
+	private static void assertSameSignature(Sign.SignatureData expected, Sign.SignatureData actual) {
+		Assert.assertArrayEquals("Unexpected v", expected.getV(), actual.getV());
+		Assert.assertArrayEquals("Unexpected r", expected.getR(), actual.getR());
+		Assert.assertArrayEquals("Unexpected s", expected.getS(), actual.getS());
+	}
+
+	private static int recoverRecId(ECDSASignature sig, byte [] hash, BigInteger publicKey) {
+		for(int i = 0; i < 4; i++) {
+			BigInteger k = Sign.recoverFromSignature(i, sig, hash);
+
+			if(k != null && k.equals(publicKey)) {
+				return i;
+			}
+		}
+
+		return -1;
+	}
+}
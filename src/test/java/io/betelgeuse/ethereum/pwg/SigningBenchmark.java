@@ -0,0 +1,31 @@
+package io.betelgeuse.ethereum.pwg;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Time and allocation per signature of the signing entry points.
+ */
+public class SigningBenchmark {
+
+	public static final int ITERATIONS = 2_000;
+
+	public static void main(String [] args) throws Exception {
+		ECKeyPair keyPair = Keys.createEcKeyPair();
+		SigningContext context = Credentials.create(keyPair).getSigningContext();
+
+		List<byte[]> hashes = new ArrayList<>();
+		for(int i = 0; i < ITERATIONS; i++) {
+			hashes.add(Hash.sha3(("payout " + i).getBytes(StandardCharsets.UTF_8)));
+		}
+
+		int [] next = new int[1];
+		Benchmark.run("Sign.signMessage (hashed)", ITERATIONS, () -> Sign.signMessage(hashes.get(next[0]++ % ITERATIONS), keyPair, false));
+		Benchmark.run("SigningContext.sign", ITERATIONS, () -> context.sign(hashes.get(next[0]++ % ITERATIONS)));
+
+		Benchmark.Result batch = Benchmark.run("SigningContext.sign(List) per batch", 1, () -> context.sign(hashes));
+		System.out.println(String.format("%-48s %12.1f us/op %12.0f B/op", "SigningContext.sign(List) per signature",
+				batch.getNanosPerOp() / ITERATIONS / 1000, batch.getBytesPerOp() / ITERATIONS));
+	}
+}
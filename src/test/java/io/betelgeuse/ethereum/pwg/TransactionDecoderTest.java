@@ -0,0 +1,215 @@
+package io.betelgeuse.ethereum.pwg;
+
+import java.io.File;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.SignatureException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import io.betelgeuse.ethereum.rlp.RlpEncoder;
+import io.betelgeuse.ethereum.transaction.AccessList;
+import io.betelgeuse.ethereum.transaction.Transaction1559;
+import io.betelgeuse.ethereum.transaction.Transaction2930;
+import io.betelgeuse.ethereum.transaction.TransactionType;
+
+public class TransactionDecoderTest {
+
+	public static final String PRIVATE_KEY = "0xa392604efc2fad9c0b3da43b5f698a2e3f270f170d859912be0d54742275c5f6";
+	public static final String TO = "0x0025403ff4c543c660423543a9c5a3cc2a02e2f1";
+
+	private final Credentials credentials = Credentials.create(PRIVATE_KEY);
+
+	@Test
+	public void testLegacy() throws SignatureException {
+		RawTransaction raw = RawTransaction.createTransaction(BigInteger.valueOf(7), BigInteger.valueOf(20000000000L), BigInteger.valueOf(21000), TO, BigInteger.TEN, "0xcafe");
+
+		RawTransaction unsigned = TransactionDecoder.decode(TransactionEncoder.encode(raw));
+		Assert.assertFalse("Unsigned transaction should not carry a signature", unsigned instanceof SignedRawTransaction);
+		assertSameFields(raw, unsigned);
+
+		SignedRawTransaction signed = (SignedRawTransaction) TransactionDecoder.decode(TransactionEncoder.signMessage(raw, credentials));
+		assertSameFields(raw, signed);
+		Assert.assertNull("Pre EIP-155 signature has no chain id", signed.getChainId());
+		Assert.assertEquals("Unexpected sender", credentials.getAddress(), signed.getFrom());
+	}
+
+	@Test
+	public void testEip155() throws SignatureException {
+		RawTransaction raw = RawTransaction.createEtherTransaction(BigInteger.ZERO, BigInteger.ONE, BigInteger.valueOf(21000), TO, BigInteger.ONE);
+
+		for(long chainId: new long [] { 1, 5, 1337, 11155111 }) {
+			byte [] encoded = TransactionEncoder.signMessage(raw, chainId, credentials);
+			SignedRawTransaction signed = (SignedRawTransaction) TransactionDecoder.decode(Numeric.toHexString(encoded));
+
+			assertSameFields(raw, signed);
+			Assert.assertEquals("Unexpected chain id", Long.valueOf(chainId), signed.getChainId());
+			signed.verify(credentials.getAddress().toUpperCase().replace("0X", "0x"));
+		}
+	}
+
+	@Test
+	public void test1559() throws SignatureException {
+		RawTransaction raw = RawTransaction.createTransaction(1, BigInteger.valueOf(3), BigInteger.valueOf(50000), "", BigInteger.ZERO, "0x6080604052",
+				BigInteger.valueOf(2000000000L), BigInteger.valueOf(100000000000L));
+
+		SignedRawTransaction signed = (SignedRawTransaction) TransactionDecoder.decode(TransactionEncoder.signMessage(raw, credentials));
+
+		Assert.assertEquals("Unexpected type", TransactionType.EIP1559, signed.getType());
+		Assert.assertEquals("Unexpected chain id", Long.valueOf(1), signed.getChainId());
+		Assert.assertEquals("Unexpected to", "", signed.getTo());
+		Assert.assertEquals("Unexpected max fee", BigInteger.valueOf(100000000000L), ((Transaction1559) signed.getTransaction()).getMaxFeePerGas());
+		Assert.assertEquals("Unexpected priority fee", BigInteger.valueOf(2000000000L), ((Transaction1559) signed.getTransaction()).getMaxPriorityFeePerGas());
+		Assert.assertEquals("Unexpected data", "6080604052", signed.getData());
+		Assert.assertEquals("Unexpected sender", credentials.getAddress(), signed.getFrom());
+	}
+
+	@Test
+	public void testAccessLists() throws SignatureException {
+		AccessList accessList = AccessList.builder()
+				.add("0xde0b295669a9fd93d5f28d9ec85e40f4cb697bae",
+						"0x0000000000000000000000000000000000000000000000000000000000000003",
+						"0x0000000000000000000000000000000000000000000000000000000000000007")
+				.add(TO)
+				.build();
+
+		RawTransaction [] transactions = {
+				RawTransaction.createTransaction(5, BigInteger.valueOf(9), BigInteger.valueOf(20000000000L), BigInteger.valueOf(60000), TO, BigInteger.ONE, "0xcafe", accessList),
+				RawTransaction.createTransaction(5, BigInteger.valueOf(9), BigInteger.valueOf(60000), TO, BigInteger.ONE, "0xcafe", BigInteger.ONE, BigInteger.TEN, accessList)
+		};
+		TransactionType [] types = { TransactionType.EIP2930, TransactionType.EIP1559 };
+
+		for(int i = 0; i < transactions.length; i++) {
+			byte [] encoded = TransactionEncoder.signMessage(transactions[i], credentials);
+			SignedRawTransaction signed = (SignedRawTransaction) TransactionDecoder.decode(encoded);
+
+			Assert.assertEquals("Unexpected type byte", types[i].getRlpType().byteValue(), encoded[0]);
+			Assert.assertEquals("Unexpected type", types[i], signed.getType());
+			Assert.assertEquals("Unexpected chain id", Long.valueOf(5), signed.getChainId());
+			Assert.assertEquals("Unexpected nonce", BigInteger.valueOf(9), signed.getNonce());
+			Assert.assertEquals("Unexpected data", "cafe", signed.getData());
+			Assert.assertEquals("Unexpected sender", credentials.getAddress(), signed.getFrom());
+			Assert.assertArrayEquals("Re-encoding differs", TransactionEncoder.encode(transactions[i]), TransactionEncoder.encode(signed));
+		}
+
+		Transaction2930 decoded = (Transaction2930) TransactionDecoder.decode(TransactionEncoder.signMessage(transactions[0], credentials)).getTransaction();
+		Assert.assertEquals("Unexpected gas price", BigInteger.valueOf(20000000000L), decoded.getGasPrice());
+		Assert.assertEquals("Unexpected access list", accessList, decoded.getAccessList());
+		Assert.assertEquals("Unexpected access list", accessList,
+				((Transaction1559) TransactionDecoder.decode(TransactionEncoder.signMessage(transactions[1], credentials)).getTransaction()).getAccessList());
+	}
+
+	@Test
+	public void testWrongSender() throws SignatureException {
+		RawTransaction raw = RawTransaction.createEtherTransaction(1, BigInteger.ZERO, BigInteger.valueOf(21000), TO, BigInteger.ONE, BigInteger.ONE, BigInteger.TEN);
+		SignedRawTransaction signed = (SignedRawTransaction) TransactionDecoder.decode(TransactionEncoder.signMessage(raw, credentials));
+
+		try {
+			signed.verify(TO);
+			Assert.fail("Wrong sender should be rejected");
+		}
+		catch(SignatureException e) {
+			// expected
+		}
+
+		try {
+			TransactionDecoder.decode("0x03c0");
+			Assert.fail("Unsupported type should be rejected");
+		}
+		catch(IllegalArgumentException e) {
+			// expected
+		}
+	}
+
+	@Test
+	public void testBatchVerification() throws Exception {
+		List<String> lines = new ArrayList<>();
+		Credentials other = Credentials.create(Numeric.toHexString(Wallet.generateRandomBytes(32)));
+
+		for(int i = 0; i < 300; i++) {
+			RawTransaction raw = RawTransaction.createEtherTransaction(1, BigInteger.valueOf(i), BigInteger.valueOf(21000), TO, BigInteger.ONE, BigInteger.ONE, BigInteger.TEN);
+			lines.add(Numeric.toHexString(TransactionEncoder.signMessage(raw, i == 10 ? other : credentials)));
+		}
+
+		lines.set(20, lines.get(20).substring(0, 40));
+		lines.set(30, lines.get(30) + ", " + credentials.getAddress());
+		lines.add("");
+		lines.add(lines.get(0) + "," + other.getAddress());
+
+		File file = File.createTempFile("transactions", ".txt");
+
+		try {
+			Files.write(file.toPath(), lines, StandardCharsets.UTF_8);
+
+			TransactionBatchVerifier.Report report = new TransactionBatchVerifier(3).verifyFile(file.toPath(), credentials.getAddress());
+
+			Assert.assertEquals("Unexpected number of verified transactions", 298, report.getVerified());
+			Assert.assertEquals("Unexpected number of failures", 3, report.getFailed());
+			Assert.assertTrue("Unexpected first failure " + report.getFailures(), report.getFailures().get(0).startsWith("line 11: Sender"));
+			Assert.assertTrue("Unexpected second failure " + report.getFailures(), report.getFailures().get(1).startsWith("line 21: "));
+			Assert.assertTrue("Unexpected third failure " + report.getFailures(), report.getFailures().get(2).startsWith("line 302: Sender"));
+		}
+		finally {
+			file.delete();
+		}
+	}
+
+	@Test
+	public void testBatchVerificationDeeplyNested() throws Exception {
+		Credentials credentials = Credentials.create(Keys.createEcKeyPair());
+		List<String> lines = new ArrayList<>();
+
+		// the decoder must not recurse 50,000 levels deep before it gives up
+		lines.add(deeplyNested(50_000));
+
+		for(int i = 0; i < 10; i++) {
+			RawTransaction rawTransaction = RawTransaction.createEtherTransaction(1, BigInteger.valueOf(i), BigInteger.valueOf(21000),
+					"0x5aAeb6053F3E94C9b9A09f33669435E7Ef1BeAed", BigInteger.ONE, BigInteger.ONE, BigInteger.TEN);
+			lines.add(TransactionEncoder.signTransaction(rawTransaction, 1, credentials).getEncodedHex());
+		}
+
+		File file = File.createTempFile("transactions", ".txt");
+
+		try {
+			Files.write(file.toPath(), lines, StandardCharsets.UTF_8);
+
+			TransactionBatchVerifier.Report report = new TransactionBatchVerifier(2).verifyFile(file.toPath(), credentials.getAddress());
+
+			Assert.assertEquals("Unexpected number of verified transactions", 10, report.getVerified());
+			Assert.assertEquals("Deeply nested line should fail", 1, report.getFailed());
+			Assert.assertTrue("Unexpected failure " + report.getFailures(), report.getFailures().get(0).startsWith("line 1: "));
+		}
+		finally {
+			file.delete();
+		}
+	}
+
+	// hex of depth nested lists around an empty list, built without recursion
+	private static String deeplyNested(int depth) {
+		byte [] encoded = new byte [] { (byte) 0xc0 };
+
+		for(int i = 1; i < depth; i++) {
+			ByteBuffer buffer = ByteBuffer.allocate(RlpEncoder.listHeaderLength(encoded.length) + encoded.length);
+			RlpEncoder.encodeListHeader(encoded.length, buffer);
+			buffer.put(encoded);
+			encoded = buffer.array();
+		}
+
+		return Numeric.toHexString(encoded);
+	}
+
+	private static void assertSameFields(RawTransaction expected, RawTransaction actual) {
+		Assert.assertEquals("Unexpected type", expected.getType(), actual.getType());
+		Assert.assertEquals("Unexpected nonce", expected.getNonce(), actual.getNonce());
+		Assert.assertEquals("Unexpected gas price", expected.getGasPrice(), actual.getGasPrice());
+		Assert.assertEquals("Unexpected gas limit", expected.getGasLimit(), actual.getGasLimit());
+		Assert.assertEquals("Unexpected to", expected.getTo(), actual.getTo());
+		Assert.assertEquals("Unexpected value", expected.getValue(), actual.getValue());
+		Assert.assertEquals("Unexpected data", expected.getData(), actual.getData());
+	}
+}
@@ -0,0 +1,118 @@
+package io.betelgeuse.ethereum.pwg;
+
+import java.io.File;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import io.betelgeuse.ethereum.rlp.RlpEncoder;
+import io.betelgeuse.ethereum.rlp.RlpList;
+import io.betelgeuse.ethereum.transaction.AccessList;
+
+public class TransactionEncoderTest {
+
+	public static final String TO = "0x0025403ff4c543c660423543a9c5a3cc2a02e2f1";
+
+	private final Credentials credentials = Credentials.create(TransactionDecoderTest.PRIVATE_KEY);
+
+	@Test
+	public void testSignedEncodingUnchanged() {
+		String data = Numeric.toHexString(Wallet.generateRandomBytes(24 * 1024));
+
+		RawTransaction [] transactions = {
+				RawTransaction.createEtherTransaction(BigInteger.ZERO, BigInteger.ONE, BigInteger.valueOf(21000), TO, BigInteger.ONE),
+				RawTransaction.createContractTransaction(BigInteger.valueOf(5), BigInteger.TEN, BigInteger.valueOf(3000000), BigInteger.ZERO, data),
+				RawTransaction.createTransaction(1, BigInteger.valueOf(300), BigInteger.valueOf(90000), TO, BigInteger.TEN, data, BigInteger.ONE, BigInteger.TEN),
+				RawTransaction.createEtherTransaction(1, BigInteger.ZERO, BigInteger.valueOf(21000), "", BigInteger.ZERO, BigInteger.ONE, BigInteger.TEN)
+		};
+
+		for(RawTransaction transaction: transactions) {
+			Assert.assertArrayEquals("Unexpected signed encoding", referenceSign(transaction, null), TransactionEncoder.signMessage(transaction, credentials));
+
+			for(long chainId: new long [] { 1, 137, 11155111 }) {
+				Assert.assertArrayEquals("Unexpected signed encoding for chain " + chainId, referenceSign(transaction, chainId), TransactionEncoder.signMessage(transaction, chainId, credentials));
+			}
+		}
+	}
+
+	@Test
+	public void testSignTransactionHashes() throws Exception {
+		RawTransaction [] transactions = {
+				RawTransaction.createEtherTransaction(BigInteger.ZERO, BigInteger.ONE, BigInteger.valueOf(21000), TO, BigInteger.ONE),
+				RawTransaction.createEtherTransaction(1, BigInteger.ZERO, BigInteger.valueOf(21000), TO, BigInteger.ONE, BigInteger.ONE, BigInteger.TEN)
+		};
+
+		for(RawTransaction transaction: transactions) {
+			SignedTransaction signed = TransactionEncoder.signTransaction(transaction, 5, credentials);
+			SignedRawTransaction decoded = (SignedRawTransaction) TransactionDecoder.decode(signed.getEncoded());
+
+			Assert.assertArrayEquals("Unexpected signed encoding", TransactionEncoder.signMessage(transaction, 5, credentials), signed.getEncoded());
+			Assert.assertArrayEquals("Unexpected signing hash", decoded.getSigningHash(), signed.getSigningHash());
+			Assert.assertArrayEquals("Unexpected transaction hash", Hash.sha3(signed.getEncoded()), signed.getTransactionHash());
+			Assert.assertEquals("Unexpected transaction hash hex", Numeric.toHexString(signed.getTransactionHash()), signed.getTransactionHashHex());
+			Assert.assertSame("Unexpected raw transaction", transaction, signed.getRawTransaction());
+			Assert.assertEquals("Unexpected sender", credentials.getAddress(), decoded.getFrom());
+		}
+	}
+
+	@Test
+	public void testBinaryCallData() throws Exception {
+		byte [] init = Wallet.generateRandomBytes(24 * 1024);
+		String hex = Numeric.toHexString(init);
+		AccessList accessList = AccessList.builder().add(TO, Numeric.toHexStringWithPrefixZeroPadded(BigInteger.ONE, 64)).build();
+
+		File file = File.createTempFile("init", ".bin");
+		file.deleteOnExit();
+		Files.write(file.toPath(), init);
+
+		for(ByteBuffer data: new ByteBuffer [] { CallData.wrap(init), CallData.map(file.toPath()) }) {
+			RawTransaction [][] transactions = {
+					{ RawTransaction.createContractTransaction(BigInteger.ONE, BigInteger.TEN, BigInteger.valueOf(6000000), BigInteger.ZERO, hex),
+							RawTransaction.createContractTransaction(BigInteger.ONE, BigInteger.TEN, BigInteger.valueOf(6000000), BigInteger.ZERO, data) },
+					{ RawTransaction.createTransaction(1, BigInteger.ONE, BigInteger.valueOf(6000000), "", BigInteger.ZERO, hex, BigInteger.ONE, BigInteger.TEN, AccessList.EMPTY),
+							RawTransaction.createContractTransaction(1, BigInteger.ONE, BigInteger.valueOf(6000000), BigInteger.ZERO, data, BigInteger.ONE, BigInteger.TEN) },
+					{ RawTransaction.createTransaction(1, BigInteger.ONE, BigInteger.valueOf(90000), TO, BigInteger.TEN, hex, BigInteger.ONE, BigInteger.TEN, accessList),
+							RawTransaction.createTransaction(1, BigInteger.ONE, BigInteger.valueOf(90000), TO, BigInteger.TEN, data, BigInteger.ONE, BigInteger.TEN, accessList) },
+					{ RawTransaction.createTransaction(1, BigInteger.ONE, BigInteger.TEN, BigInteger.valueOf(90000), TO, BigInteger.TEN, hex, accessList),
+							RawTransaction.createTransaction(1, BigInteger.ONE, BigInteger.TEN, BigInteger.valueOf(90000), TO, BigInteger.TEN, data, accessList) }
+			};
+
+			for(RawTransaction [] pair: transactions) {
+				Assert.assertArrayEquals("Unexpected signed encoding of binary call data", TransactionEncoder.signMessage(pair[0], 5, credentials), TransactionEncoder.signMessage(pair[1], 5, credentials));
+				Assert.assertEquals("Unexpected hex call data", pair[0].getData(), pair[1].getData());
+			}
+
+			Assert.assertEquals("Call data should be left unread", 0, data.position());
+		}
+	}
+
+	/**
+	 * Signs by encoding the whole transaction twice, as the encoder did before.
+	 */
+	static byte[] referenceSign(RawTransaction transaction, Long chainId) {
+		boolean eip155 = chainId != null && transaction.getType().getRlpType() == null;
+		byte [] unsigned = eip155 ? TransactionEncoder.encode(transaction, chainId) : TransactionEncoder.encode(transaction);
+
+		Sign.SignatureData signatureData = Sign.signMessage(Hash.sha3(unsigned), credentialsKeyPair(), false);
+		if(eip155) {
+			signatureData = TransactionEncoder.createEip155SignatureData(signatureData, chainId);
+		}
+
+		byte [] signed = RlpEncoder.encode(new RlpList(TransactionEncoder.asRlpValues(transaction, signatureData)));
+		if(transaction.getType().getRlpType() == null) {
+			return signed;
+		}
+
+		byte [] result = new byte[signed.length + 1];
+		result[0] = transaction.getType().getRlpType();
+		System.arraycopy(signed, 0, result, 1, signed.length);
+		return result;
+	}
+
+	private static ECKeyPair credentialsKeyPair() {
+		return ECKeyPair.create(Numeric.toBigInt(TransactionDecoderTest.PRIVATE_KEY));
+	}
+}
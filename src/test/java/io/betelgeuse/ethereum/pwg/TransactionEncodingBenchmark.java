@@ -0,0 +1,41 @@
+package io.betelgeuse.ethereum.pwg;
+
+import java.math.BigInteger;
+
+import io.betelgeuse.ethereum.rlp.RlpEncoder;
+import io.betelgeuse.ethereum.rlp.RlpList;
+
+/**
+ * Time and allocation per signed transaction of the single encoding signing path compared to
+ * encoding the whole transaction twice, for a plain transfer and a 24 KB contract deployment.
+ */
+public class TransactionEncodingBenchmark {
+
+	public static final int ITERATIONS = 1_000;
+
+	public static void main(String [] args) throws Exception {
+		Credentials credentials = Credentials.create(Keys.createEcKeyPair());
+		String init = Numeric.toHexString(Wallet.generateRandomBytes(24 * 1024));
+
+		RawTransaction transfer = RawTransaction.createEtherTransaction(1, BigInteger.ONE, BigInteger.valueOf(21000),
+				"0x0025403ff4c543c660423543a9c5a3cc2a02e2f1", BigInteger.TEN, BigInteger.ONE, BigInteger.TEN);
+		RawTransaction deployment = RawTransaction.createTransaction(1, BigInteger.ONE, BigInteger.valueOf(5000000),
+				"", BigInteger.ZERO, init, BigInteger.ONE, BigInteger.TEN);
+
+		Benchmark.run("transfer, encode twice", ITERATIONS, () -> encodeTwice(transfer, credentials));
+		Benchmark.run("transfer, TransactionEncoder.signMessage", ITERATIONS, () -> TransactionEncoder.signMessage(transfer, credentials));
+		Benchmark.run("24 KB deployment, encode twice", ITERATIONS, () -> encodeTwice(deployment, credentials));
+		Benchmark.run("24 KB deployment, TransactionEncoder.signMessage", ITERATIONS, () -> TransactionEncoder.signMessage(deployment, credentials));
+	}
+
+	private static byte[] encodeTwice(RawTransaction transaction, Credentials credentials) {
+		byte [] unsigned = TransactionEncoder.encode(transaction);
+		Sign.SignatureData signatureData = credentials.getSigningContext().sign(Hash.sha3(unsigned));
+
+		byte [] signed = RlpEncoder.encode(new RlpList(TransactionEncoder.asRlpValues(transaction, signatureData)));
+		byte [] result = new byte[signed.length + 1];
+		result[0] = transaction.getType().getRlpType();
+		System.arraycopy(signed, 0, result, 1, signed.length);
+		return result;
+	}
+}
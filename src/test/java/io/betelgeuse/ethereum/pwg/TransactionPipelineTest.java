@@ -0,0 +1,102 @@
+package io.betelgeuse.ethereum.pwg;
+
+import java.io.File;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import io.betelgeuse.ethereum.transaction.Transaction1559;
+import io.betelgeuse.ethereum.transaction.TransactionType;
+
+import static io.betelgeuse.ethereum.pwg.TransactionDecoderTest.PRIVATE_KEY;
+
+public class TransactionPipelineTest {
+
+	private static final String TO = "0x5aAeb6053F3E94C9b9A09f33669435E7Ef1BeAed";
+
+	private final Credentials credentials = Credentials.create(PRIVATE_KEY);
+
+	@Test
+	public void testSignInInputOrder() throws Exception {
+		List<String> lines = new ArrayList<>();
+
+		for(int i = 0; i < 500; i++) {
+			if(i % 2 == 0) {
+				lines.add(String.format("{\"chainId\": 1, \"nonce\": %d, \"to\": \"%s\", \"value\": \"%d\", \"gasLimit\": 21000, "
+						+ "\"maxPriorityFeePerGas\": \"0x77359400\", \"maxFeePerGas\": 100000000000}", i, TO, i));
+			}
+			else {
+				lines.add(String.format("{\"chainId\": \"0x5\", \"nonce\": \"%d\", \"to\": \"%s\", \"gasLimit\": 50000, "
+						+ "\"gasPrice\": 20000000000, \"data\": \"0xcafe\"}", i, TO.toLowerCase()));
+			}
+		}
+
+		lines.set(100, "{\"chainId\": 1, \"nonce\": 100, \"to\": \"0x123\", \"gasLimit\": 21000, \"gasPrice\": 1}");
+		lines.set(200, "{\"chainId\": 1, \"nonce\": 200, \"gasLimit\": 21000, \"maxPriorityFeePerGas\": 5, \"maxFeePerGas\": 4}");
+		lines.set(300, "not json");
+		lines.add(301, "");
+
+		File input = File.createTempFile("requests", ".jsonl");
+		File output = new File(input.getPath() + ".signed.csv");
+
+		try {
+			Files.write(input.toPath(), lines, StandardCharsets.UTF_8);
+
+			// small queues and several signers to exercise back pressure and reordering
+			TransactionPipeline.Report report = new TransactionPipeline(credentials, 3, 4).sign(input.toPath(), output.toPath());
+
+			Assert.assertEquals("Unexpected number of signed transactions", 497, report.getSigned());
+			Assert.assertEquals("Unexpected number of failures", 3, report.getFailed());
+			Assert.assertTrue("Unexpected failures " + report.getFailures(), report.getFailures().get(0).startsWith("line 101: validate: Invalid to"));
+			Assert.assertTrue("Unexpected failures " + report.getFailures(), report.getFailures().get(1).startsWith("line 201: validate: "));
+			Assert.assertTrue("Unexpected failures " + report.getFailures(), report.getFailures().get(2).startsWith("line 301: parse: "));
+			Assert.assertEquals("Unexpected number of stages", 5, report.getStages().size());
+
+			for(TransactionPipeline.StageStatistics stage: report.getStages()) {
+				Assert.assertEquals("Unexpected items of stage " + stage.getName(), 500, stage.getItems());
+				Assert.assertTrue("Queue depth above capacity in stage " + stage.getName(), stage.getMaxQueueDepth() <= 4);
+			}
+
+			List<String> signed = Files.readAllLines(output.toPath(), StandardCharsets.UTF_8);
+			Assert.assertEquals("Unexpected header", TransactionPipeline.OUTPUT_HEADER, signed.get(0));
+			Assert.assertEquals("Unexpected number of lines", 498, signed.size());
+
+			long previousLine = 0;
+
+			for(String line: signed.subList(1, signed.size())) {
+				String [] columns = line.split(",");
+				long lineNumber = Long.parseLong(columns[0]);
+				int nonce = Integer.parseInt(columns[1]);
+				SignedRawTransaction transaction = (SignedRawTransaction) TransactionDecoder.decode(columns[2]);
+
+				Assert.assertTrue("Output not in input order", lineNumber > previousLine);
+				Assert.assertEquals("Unexpected hash", Numeric.toHexString(Hash.sha3(Numeric.hexStringToByteArray(columns[2]))), columns[3]);
+				Assert.assertEquals("Unexpected nonce", BigInteger.valueOf(nonce), transaction.getNonce());
+				Assert.assertEquals("Unexpected to", TO.toLowerCase(), transaction.getTo().toLowerCase());
+
+				if(nonce % 2 == 0) {
+					Assert.assertEquals("Unexpected type", TransactionType.EIP1559, transaction.getType());
+					Assert.assertEquals("Unexpected value", BigInteger.valueOf(nonce), transaction.getValue());
+					Assert.assertEquals("Unexpected priority fee", BigInteger.valueOf(2000000000L), ((Transaction1559) transaction.getTransaction()).getMaxPriorityFeePerGas());
+				}
+				else {
+					Assert.assertEquals("Unexpected type", TransactionType.LEGACY, transaction.getType());
+					Assert.assertEquals("Unexpected chain id", Long.valueOf(5), transaction.getChainId());
+					Assert.assertEquals("Unexpected data", "cafe", transaction.getData());
+				}
+
+				transaction.verify(credentials.getAddress());
+				previousLine = lineNumber;
+			}
+		}
+		finally {
+			input.delete();
+			output.delete();
+		}
+	}
+}
@@ -0,0 +1,177 @@
+package io.betelgeuse.ethereum.rlp;
+
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import io.betelgeuse.ethereum.pwg.Numeric;
+
+public class RlpDecoderTest {
+
+	@Test
+	public void testRoundTrip() {
+		Random random = new Random(7);
+
+		for(int i = 0; i < 200; i++) {
+			RlpType value = randomValue(random, 0);
+			byte [] encoded = RlpEncoder.encode(value);
+
+			RlpItem item = RlpDecoder.decode(encoded);
+
+			Assert.assertArrayEquals("Decoded tree should encode to the input " + i, encoded, RlpEncoder.encode(item.toRlpType()));
+			Assert.assertEquals("Unexpected encoded length", encoded.length, item.getEncodedLength());
+		}
+	}
+
+	@Test
+	public void testViews() {
+		byte [] encoded = Numeric.hexStringToByteArray("0xc88363617483646f67");
+		RlpItem list = RlpDecoder.decode(encoded);
+
+		Assert.assertTrue("Should be a list", list.isList());
+		Assert.assertEquals("Unexpected list size", 2, list.size());
+		Assert.assertEquals("Unexpected payload offset", 6, list.get(1).getOffset());
+		Assert.assertEquals("Unexpected payload length", 3, list.get(1).getLength());
+		Assert.assertEquals("Unexpected string", "dog", new String(list.get(1).getBytes()));
+
+		ByteBuffer slice = list.get(0).slice();
+		Assert.assertEquals("Unexpected slice length", 3, slice.remaining());
+		Assert.assertEquals("Slice should share the input", 'c', slice.get(0));
+
+		encoded[2] = 'b';
+		Assert.assertEquals("Views should not copy the input", "bat", new String(list.get(0).getBytes()));
+
+		Assert.assertEquals(BigInteger.valueOf(1024), RlpDecoder.decode(Numeric.hexStringToByteArray("0x820400")).asBigInteger());
+		Assert.assertEquals(0, RlpDecoder.decode(Numeric.hexStringToByteArray("0x80")).asLong());
+		Assert.assertEquals(15, RlpDecoder.decode(Numeric.hexStringToByteArray("0x0f")).asLong());
+	}
+
+	@Test
+	public void testCursor() {
+		RlpList value = new RlpList(
+				RlpString.create(9),
+				new RlpList(RlpString.create("skipped"), new RlpList(RlpString.create(1))),
+				RlpString.create(new byte[1000]));
+
+		ByteBuffer buffer = ByteBuffer.allocateDirect(RlpEncoder.encodedLength(value) + 1);
+		buffer.put((byte) 0x42);
+		RlpEncoder.encode(value, buffer);
+		buffer.flip();
+		buffer.get();
+
+		RlpCursor cursor = RlpDecoder.cursor(buffer);
+		cursor.next().enter();
+
+		Assert.assertEquals("Unexpected nonce", 9, cursor.next().asLong());
+		Assert.assertTrue("Should be on a list", cursor.next().isList());
+
+		cursor.enter().next();
+		Assert.assertEquals("Unexpected depth", 2, cursor.getDepth());
+		cursor.exit();
+
+		Assert.assertEquals("Unexpected payload length after skipping", 1000, cursor.next().getLength());
+		Assert.assertFalse("List should be exhausted", cursor.hasNext());
+
+		cursor.exit();
+		Assert.assertFalse("Input should be exhausted", cursor.hasNext());
+		Assert.assertEquals("Buffer position must not change", 1, buffer.position());
+	}
+
+	@Test
+	public void testRejectsInvalidEncodings() {
+		String [] invalid = {
+				"0x",                 // empty input
+				"0x8100",             // single byte below 0x80 with header
+				"0x817f",             // single byte below 0x80 with header
+				"0xb80161",           // long form for short string
+				"0xb9000161",         // length with leading zero
+				"0xf80100",           // long form for short list
+				"0x83646f",           // truncated string
+				"0xc38363617483",     // child exceeds list
+				"0xb8",               // truncated length
+				"0x8080",             // trailing bytes
+				"0xbc7fffffff",       // length of length too big
+		};
+
+		for(String hex: invalid) {
+			try {
+				RlpDecoder.decode(Numeric.hexStringToByteArray(hex));
+				Assert.fail("Invalid encoding should be rejected: " + hex);
+			}
+			catch(IllegalArgumentException e) {
+				// expected
+			}
+		}
+
+		try {
+			RlpDecoder.decode(Numeric.hexStringToByteArray("0x820004")).asBigInteger();
+			Assert.fail("Integer with leading zero should be rejected");
+		}
+		catch(IllegalArgumentException e) {
+			// expected
+		}
+	}
+
+	@Test
+	public void testRejectsDeepNesting() {
+		Assert.assertEquals("Nesting limit should be accepted", RlpCursor.MAX_DEPTH, depth(RlpDecoder.decode(deeplyNested(RlpCursor.MAX_DEPTH))));
+
+		for(int depth: new int [] { RlpCursor.MAX_DEPTH + 1, 50_000 }) {
+			try {
+				RlpDecoder.decode(deeplyNested(depth));
+				Assert.fail("Lists nested " + depth + " deep should be rejected");
+			}
+			catch(IllegalArgumentException e) {
+				// expected
+			}
+		}
+	}
+
+	// depth nested lists around an empty list, built without recursion
+	private static byte [] deeplyNested(int depth) {
+		byte [] encoded = new byte [] { (byte) 0xc0 };
+
+		for(int i = 1; i < depth; i++) {
+			ByteBuffer buffer = ByteBuffer.allocate(RlpEncoder.listHeaderLength(encoded.length) + encoded.length);
+			RlpEncoder.encodeListHeader(encoded.length, buffer);
+			buffer.put(encoded);
+			encoded = buffer.array();
+		}
+
+		return encoded;
+	}
+
+	// number of lists from the outermost to the empty one
+	private static int depth(RlpItem item) {
+		int depth = 1;
+
+		while(item.size() == 1) {
+			item = item.get(0);
+			depth++;
+		}
+
+		return depth;
+	}
+
+	private static RlpType randomValue(Random random, int depth) {
+		if(depth > 3 || random.nextInt(3) > 0) {
+			byte [] bytes = new byte[random.nextInt(4) == 0 ? random.nextInt(300) : random.nextInt(3)];
+			random.nextBytes(bytes);
+			return RlpString.create(bytes);
+		}
+
+		List<RlpType> values = new ArrayList<>();
+		int size = random.nextInt(6);
+
+		for(int i = 0; i < size; i++) {
+			values.add(randomValue(random, depth + 1));
+		}
+
+		return new RlpList(values);
+	}
+}
@@ -0,0 +1,169 @@
+package io.betelgeuse.ethereum.rlp;
+
+import java.math.BigInteger;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import io.betelgeuse.ethereum.pwg.Numeric;
+
+public class RlpEncoderTest {
+
+	@Test
+	public void testSpecificationExamples() {
+		assertEncoding("0x83646f67", RlpString.create("dog"));
+		assertEncoding("0xc88363617483646f67", new RlpList(RlpString.create("cat"), RlpString.create("dog")));
+		assertEncoding("0x80", RlpString.create(""));
+		assertEncoding("0xc0", new RlpList());
+		assertEncoding("0x80", RlpString.create(BigInteger.ZERO));
+		assertEncoding("0x0f", RlpString.create(15));
+		assertEncoding("0x820400", RlpString.create(1024));
+		assertEncoding("0x81ff", RlpString.create((byte) 0xff));
+		assertEncoding("0xc7c0c1c0c3c0c1c0", new RlpList(new RlpList(), new RlpList(new RlpList()), new RlpList(new RlpList(), new RlpList(new RlpList()))));
+		assertEncoding("0xb8384c6f72656d20697073756d20646f6c6f722073697420616d65742c20636f6e7365637465747572206164697069736963696e6720656c6974",
+				RlpString.create("Lorem ipsum dolor sit amet, consectetur adipisicing elit"));
+	}
+
+	@Test
+	public void testSameAsConcatenatingEncoder() {
+		Random random = new Random(42);
+
+		for(int i = 0; i < 200; i++) {
+			RlpType value = randomValue(random, 0);
+
+			Assert.assertArrayEquals("Unexpected encoding of tree " + i, referenceEncode(value), RlpEncoder.encode(value));
+		}
+
+		// long string and list headers with multi byte lengths
+		byte [] init = new byte[70000];
+		random.nextBytes(init);
+		RlpList deployment = new RlpList(RlpString.create(1), RlpString.create(init), new RlpList(RlpString.create(new byte[300])));
+
+		Assert.assertArrayEquals("Unexpected encoding of large payload", referenceEncode(deployment), RlpEncoder.encode(deployment));
+		Assert.assertEquals("Unexpected encoded length", referenceEncode(deployment).length, RlpEncoder.encodedLength(deployment));
+	}
+
+	@Test
+	public void testEncodeIntoBuffer() {
+		RlpList value = new RlpList(RlpString.create("cat"), RlpString.create("dog"));
+		byte [] expected = RlpEncoder.encode(value);
+
+		byte [] out = new byte[expected.length + 5];
+		Assert.assertEquals("Unexpected number of bytes written", expected.length, RlpEncoder.encode(value, out, 3));
+		Assert.assertArrayEquals("Unexpected bytes written", expected, Arrays.copyOfRange(out, 3, 3 + expected.length));
+
+		ByteBuffer buffer = ByteBuffer.allocateDirect(expected.length + 2);
+		buffer.put((byte) 1);
+		RlpEncoder.encode(value, buffer);
+		Assert.assertEquals("Position should be advanced", expected.length + 1, buffer.position());
+
+		byte [] written = new byte[expected.length];
+		buffer.position(1);
+		buffer.get(written);
+		Assert.assertArrayEquals("Unexpected bytes written to buffer", expected, written);
+
+		ByteBuffer small = ByteBuffer.allocate(expected.length - 1);
+
+		try {
+			RlpEncoder.encode(value, small);
+			Assert.fail("Encoding should not fit");
+		}
+		catch(BufferOverflowException e) {
+			Assert.assertEquals("Nothing should be written", 0, small.position());
+		}
+	}
+
+	@Test
+	public void testBufferString() {
+		Random random = new Random(7);
+
+		for(int length: new int [] { 0, 1, 55, 56, 255, 256, 24 * 1024 }) {
+			byte [] bytes = new byte[length];
+			random.nextBytes(bytes);
+
+			ByteBuffer direct = ByteBuffer.allocateDirect(length + 3);
+			direct.position(3);
+			direct.put(bytes);
+			direct.position(3);
+
+			RlpBufferString string = new RlpBufferString(direct);
+			direct.position(direct.limit());
+
+			Assert.assertEquals("Unexpected length", length, string.getLength());
+			Assert.assertArrayEquals("Unexpected encoding of " + length + " bytes", RlpEncoder.encode(RlpString.create(bytes)), RlpEncoder.encode(string));
+			Assert.assertArrayEquals("Unexpected encoding in a list", RlpEncoder.encode(new RlpList(RlpString.create(bytes))), RlpEncoder.encode(new RlpList(string)));
+		}
+
+		assertEncoding("0x7f", new RlpBufferString(ByteBuffer.wrap(new byte [] { 0x7f })));
+		assertEncoding("0x8180", new RlpBufferString(ByteBuffer.wrap(new byte [] { (byte) 0x80 })));
+	}
+
+	private static void assertEncoding(String expected, RlpType value) {
+		Assert.assertEquals("Unexpected encoding", expected, Numeric.toHexString(RlpEncoder.encode(value)));
+	}
+
+	private static RlpType randomValue(Random random, int depth) {
+		if(depth > 3 || random.nextInt(3) > 0) {
+			byte [] bytes = new byte[random.nextInt(4) == 0 ? random.nextInt(300) : random.nextInt(3)];
+			random.nextBytes(bytes);
+			return RlpString.create(bytes);
+		}
+
+		List<RlpType> values = new ArrayList<>();
+		int size = random.nextInt(6);
+
+		for(int i = 0; i < size; i++) {
+			values.add(randomValue(random, depth + 1));
+		}
+
+		return new RlpList(values);
+	}
+
+	/**
+	 * Straightforward encoder concatenating the element encodings, used as reference.
+	 */
+	private static byte[] referenceEncode(RlpType value) {
+		if(value instanceof RlpString) {
+			byte [] bytes = ((RlpString) value).getBytes();
+
+			if(bytes.length == 1 && (bytes[0] & 0xff) < 0x80) {
+				return bytes;
+			}
+
+			return concat(header(0x80, bytes.length), bytes);
+		}
+
+		byte [] payload = new byte[0];
+
+		for(RlpType entry: ((RlpList) value).getValues()) {
+			payload = concat(payload, referenceEncode(entry));
+		}
+
+		return concat(header(0xc0, payload.length), payload);
+	}
+
+	private static byte[] header(int offset, int length) {
+		if(length <= 55) {
+			return new byte[] { (byte) (offset + length) };
+		}
+
+		byte [] lengthBytes = BigInteger.valueOf(length).toByteArray();
+		if(lengthBytes[0] == 0) {
+			lengthBytes = Arrays.copyOfRange(lengthBytes, 1, lengthBytes.length);
+		}
+
+		return concat(new byte[] { (byte) (offset + 55 + lengthBytes.length) }, lengthBytes);
+	}
+
+	private static byte[] concat(byte[] a, byte[] b) {
+		byte [] result = Arrays.copyOf(a, a.length + b.length);
+		System.arraycopy(b, 0, result, a.length, b.length);
+		return result;
+	}
+}
@@ -0,0 +1,100 @@
+package io.betelgeuse.ethereum.transaction;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import io.betelgeuse.ethereum.pwg.Numeric;
+import io.betelgeuse.ethereum.rlp.RlpDecoder;
+import io.betelgeuse.ethereum.rlp.RlpEncoder;
+import io.betelgeuse.ethereum.rlp.RlpList;
+import io.betelgeuse.ethereum.rlp.RlpString;
+import io.betelgeuse.ethereum.rlp.RlpType;
+
+public class AccessListTest {
+
+	public static final String ADDRESS = "0xde0b295669a9fd93d5f28d9ec85e40f4cb697bae";
+	public static final String KEY_0 = "0x0000000000000000000000000000000000000000000000000000000000000003";
+	public static final String KEY_1 = "0x0000000000000000000000000000000000000000000000000000000000000007";
+
+	@Test
+	public void testEncodingMatchesTree() {
+		AccessList accessList = AccessList.builder()
+				.add(ADDRESS, KEY_0, KEY_1)
+				.add("0x0000000000000000000000000000000000000001")
+				.build();
+
+		List<RlpType> entries = new ArrayList<>();
+		entries.add(new RlpList(RlpString.create(Numeric.hexStringToByteArray(ADDRESS)),
+				new RlpList(RlpString.create(Numeric.hexStringToByteArray(KEY_0)), RlpString.create(Numeric.hexStringToByteArray(KEY_1)))));
+		entries.add(new RlpList(RlpString.create(Numeric.hexStringToByteArray("0x0000000000000000000000000000000000000001")), new RlpList()));
+
+		byte [] expected = RlpEncoder.encode(new RlpList(entries));
+
+		Assert.assertArrayEquals("Unexpected encoding", expected, RlpEncoder.encode(accessList));
+		Assert.assertEquals("Unexpected encoded length", expected.length, accessList.encodedLength());
+		Assert.assertArrayEquals("Unexpected nested encoding", RlpEncoder.encode(new RlpList(RlpString.create(1), new RlpList(entries))),
+				RlpEncoder.encode(new RlpList(RlpString.create(1), accessList)));
+
+		Assert.assertEquals("Unexpected size", 2, accessList.size());
+		Assert.assertEquals("Unexpected key count", 2, accessList.getStorageKeyCount());
+		Assert.assertEquals("Unexpected key count of entry", 0, accessList.getStorageKeyCount(1));
+		Assert.assertEquals("Unexpected key", KEY_1, Numeric.toHexString(accessList.getStorageKey(0, 1)));
+		Assert.assertEquals("Round trip failed", accessList, AccessList.fromRlp(RlpDecoder.decode(expected)));
+	}
+
+	@Test
+	public void testLongList() {
+		AccessList.Builder builder = AccessList.builder();
+		List<RlpType> entries = new ArrayList<>();
+
+		for(int i = 0; i < 10; i++) {
+			byte [] address = new byte[AccessList.ADDRESS_LENGTH];
+			address[19] = (byte) i;
+			byte [][] keys = new byte[30][AccessList.STORAGE_KEY_LENGTH];
+			List<RlpType> keyValues = new ArrayList<>();
+
+			for(int k = 0; k < keys.length; k++) {
+				keys[k][0] = (byte) k;
+				keys[k][31] = (byte) i;
+				keyValues.add(RlpString.create(keys[k]));
+			}
+
+			builder.add(address, keys);
+			entries.add(new RlpList(RlpString.create(address), new RlpList(keyValues)));
+		}
+
+		Assert.assertArrayEquals("Unexpected encoding", RlpEncoder.encode(new RlpList(entries)), RlpEncoder.encode(builder.build()));
+	}
+
+	@Test
+	public void testInvalidEntries() {
+		String [][] entries = {
+				{ "0x1234" },
+				{ ADDRESS, "0x1234" },
+				{ ADDRESS, KEY_0.replace('3', 'x') }
+		};
+
+		for(String [] entry: entries) {
+			try {
+				String [] keys = new String[entry.length - 1];
+				System.arraycopy(entry, 1, keys, 0, keys.length);
+				AccessList.builder().add(entry[0], keys);
+				Assert.fail("Invalid entry should be rejected: " + String.join(",", entry));
+			}
+			catch(IllegalArgumentException e) {
+				// expected
+			}
+		}
+
+		try {
+			AccessList.fromRlp(RlpDecoder.decode(RlpEncoder.encode(new RlpList(new RlpList(RlpString.create(1))))));
+			Assert.fail("Malformed entry should be rejected");
+		}
+		catch(IllegalArgumentException e) {
+			// expected
+		}
+	}
+}